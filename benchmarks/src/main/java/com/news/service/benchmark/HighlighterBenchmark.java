@@ -0,0 +1,156 @@
+package com.news.service.benchmark;
+
+import com.news.service.util.KeywordAutomaton;
+import com.news.service.util.KeywordHighlighter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 关键词高亮基准
+ *
+ * 对比三种实现处理一页结果（pageSize条文本）的耗时：
+ * 原来的逐关键词 replaceAll、单个正则交替、每个查询构建一次的 Aho-Corasick 自动机。
+ *
+ * 运行：java -jar target/benchmarks.jar HighlighterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HighlighterBenchmark {
+
+    private static final String REPLACEMENT = "<span class=\"highlight\">$0</span>";
+
+    private static final String[] VOCABULARY = {
+            "新闻", "记者", "报道", "经济", "发展", "市场", "政策", "会议", "北京", "上海",
+            "科技", "创新", "教育", "医疗", "环境", "交通", "文化", "体育", "国际", "合作",
+            "Beijing", "Shanghai", "economy", "market", "policy", "technology", "GDP", "AI"
+    };
+
+    @Param({"1", "3", "5"})
+    public int keywordCount;
+
+    @Param({"500", "5000"})
+    public int textLength;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private List<String> keywords;
+    private String[] texts;
+
+    private Pattern pattern;
+    private KeywordAutomaton automaton;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        keywords = new ArrayList<>(Arrays.asList(VOCABULARY).subList(0, keywordCount));
+        texts = new String[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            StringBuilder sb = new StringBuilder(textLength + 16);
+            while (sb.length() < textLength) {
+                sb.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+                sb.append(random.nextInt(4) == 0 ? "，" : "的");
+            }
+            texts[i] = sb.toString();
+        }
+
+        pattern = regexAlternation(keywords);
+        automaton = KeywordHighlighter.compile(keywords);
+    }
+
+    /**
+     * 原实现：每条结果、每个关键词都编译一次正则并 replaceAll
+     */
+    @Benchmark
+    public int replaceAllPerKeyword() {
+        int total = 0;
+        for (String text : texts) {
+            List<String> sortedKeywords = new ArrayList<>(keywords);
+            sortedKeywords.sort((a, b) -> Integer.compare(b.length(), a.length()));
+            String result = text;
+            for (String keyword : sortedKeywords) {
+                result = result.replaceAll("(?i)" + Pattern.quote(keyword), REPLACEMENT);
+            }
+            total += result.length();
+        }
+        return total;
+    }
+
+    /**
+     * 单个交替正则，每个查询编译一次
+     */
+    @Benchmark
+    public int regexAlternation() {
+        int total = 0;
+        for (String text : texts) {
+            Matcher matcher = pattern.matcher(text);
+            StringBuffer result = new StringBuffer(text.length() + 64);
+            while (matcher.find()) {
+                matcher.appendReplacement(result, REPLACEMENT);
+            }
+            matcher.appendTail(result);
+            total += result.length();
+        }
+        return total;
+    }
+
+    /**
+     * Aho-Corasick 自动机，每个查询构建一次
+     */
+    @Benchmark
+    public int automaton() {
+        int total = 0;
+        for (String text : texts) {
+            total += KeywordHighlighter.highlight(text, automaton).length();
+        }
+        return total;
+    }
+
+    /**
+     * Aho-Corasick 自动机，包含构建成本（查询缓存未命中时的情况）
+     */
+    @Benchmark
+    public int automatonIncludingBuild() {
+        KeywordAutomaton perQuery = KeywordHighlighter.compile(keywords);
+        int total = 0;
+        for (String text : texts) {
+            total += KeywordHighlighter.highlight(text, perQuery).length();
+        }
+        return total;
+    }
+
+    private static Pattern regexAlternation(List<String> keywords) {
+        List<String> sortedKeywords = new ArrayList<>(keywords);
+        sortedKeywords.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        StringBuilder regex = new StringBuilder();
+        for (String keyword : sortedKeywords) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append(Pattern.quote(keyword));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
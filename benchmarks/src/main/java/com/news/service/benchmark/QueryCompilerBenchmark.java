@@ -0,0 +1,61 @@
+package com.news.service.benchmark;
+
+import com.news.service.config.SearchProperties;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关键词解析基准
+ *
+ * search() 和 count() 每次请求都先编译关键词：解析语法树、生成SQL条件和参数、构建高亮自动机。
+ * 对比关闭编译缓存（每次都完整编译）和缓存命中两种情况。
+ *
+ * 运行：java -jar target/benchmarks.jar QueryCompilerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryCompilerBenchmark {
+
+    @Param({"经济", "经济 市场 政策", "经济 市场, 北京 OR 上海 OR Beijing, 科技 创新 OR AI"})
+    public String keywords;
+
+    private QueryCompiler uncached;
+    private QueryCompiler cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SearchProperties noCache = new SearchProperties();
+        noCache.setQueryCacheSize(0);
+        uncached = new QueryCompiler(noCache);
+        cached = new QueryCompiler(new SearchProperties());
+        cached.compile(keywords);
+    }
+
+    @Benchmark
+    public CompiledQuery compile() {
+        return uncached.compile(keywords);
+    }
+
+    @Benchmark
+    public CompiledQuery compileCached() {
+        return cached.compile(keywords);
+    }
+}
@@ -0,0 +1,106 @@
+package com.news.service.benchmark;
+
+import com.news.service.util.Bm25Scorer;
+import com.news.service.util.DocumentScorer;
+import com.news.service.util.KeywordAutomaton;
+import com.news.service.util.RelevanceScorer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 相关度评分基准
+ *
+ * 按分数排序时每条匹配的记录都要评分，评分是扫描阶段的主要CPU开销。
+ * 对比原加权公式的逐关键词计算、预构建自动机的计算和BM25，每次调用评一批（batchSize条）摘要。
+ *
+ * 运行：java -jar target/benchmarks.jar ScoringBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+
+    @Param({"1", "3", "5"})
+    public int keywordCount;
+
+    @Param({"500"})
+    public int textLength;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private List<String> keywords;
+    private String[] titles;
+    private String[] texts;
+
+    private KeywordAutomaton automaton;
+    private DocumentScorer classic;
+    private DocumentScorer bm25;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keywords = new ArrayList<>(Arrays.asList(SyntheticCorpus.VOCABULARY).subList(0, keywordCount));
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        titles = new String[batchSize];
+        texts = new String[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            titles[i] = corpus.title();
+            texts[i] = corpus.content(textLength);
+        }
+
+        automaton = KeywordAutomaton.build(keywords);
+        classic = RelevanceScorer.classic(automaton);
+        long[] frequencies = new long[automaton.keywordCount()];
+        Arrays.fill(frequencies, batchSize / 4);
+        bm25 = new Bm25Scorer(automaton, batchSize * 10L, frequencies, 12.0, textLength,
+                1.2, 3.0, 0.75, 0.75);
+    }
+
+    /**
+     * 原实现的入口：每次评分都按关键词列表构建自动机
+     */
+    @Benchmark
+    public double classicKeywordList() {
+        double total = 0;
+        for (int i = 0; i < batchSize; i++) {
+            total += RelevanceScorer.calculateScore(titles[i], texts[i], keywords);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double classic() {
+        double total = 0;
+        for (int i = 0; i < batchSize; i++) {
+            total += classic.score(titles[i], texts[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double bm25() {
+        double total = 0;
+        for (int i = 0; i < batchSize; i++) {
+            total += bm25.score(titles[i], texts[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,139 @@
+package com.news.service.benchmark;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchRequest;
+import com.news.service.model.SearchResult;
+import com.news.service.query.QueryCompiler;
+import com.news.service.service.CorpusStatisticsService;
+import com.news.service.service.CursorQuery;
+import com.news.service.service.FullTextSupport;
+import com.news.service.service.ParallelRowProcessor;
+import com.news.service.service.SearchMetrics;
+import com.news.service.service.SearchResultCache;
+import com.news.service.service.SearchServiceImpl;
+import com.news.service.service.SearchTraceLogger;
+import com.news.service.service.SlowQueryLog;
+import com.news.service.util.XmlContentExtractor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端搜索基准
+ *
+ * 在内嵌的H2内存库中写入 docCount 条合成记录，直接构造 {@link SearchServiceImpl} 及其依赖（不启动Spring容器），
+ * 测量 search() 和 count() 的吞吐量和延迟分布。查询结果缓存关闭，每次调用都执行完整的查询。
+ * 语料规模可在运行时覆盖，如 -p docCount=100000。
+ *
+ * 运行：java -jar target/benchmarks.jar SearchBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"10000"})
+    public int docCount;
+
+    @Param({"2000"})
+    public int contentLength;
+
+    @Param({"经济 市场", "北京 OR 上海, 科技"})
+    public String keywords;
+
+    @Param({"score", "created"})
+    public String sortField;
+
+    @Param({"classic", "bm25"})
+    public String ranking;
+
+    @Param({"0"})
+    public int page;
+
+    @Param({"20"})
+    public int size;
+
+    private HikariDataSource dataSource;
+    private ParallelRowProcessor rowProcessor;
+    private SearchServiceImpl searchService;
+    private SearchRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 同一JVM中多次运行（-f 0）时每次使用独立的内存库
+        String url = "jdbc:h2:mem:search-benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setMaximumPoolSize(4);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        SyntheticCorpus.load(jdbcTemplate, docCount, contentLength, 42);
+
+        AppConfig appConfig = new AppConfig();
+        appConfig.setEnabled(true);
+        appConfig.setUrl(url);
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getCache().setEnabled(false);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        XmlContentExtractor xmlContentExtractor = new XmlContentExtractor();
+        QueryCompiler queryCompiler = new QueryCompiler(searchProperties);
+        SearchResultCache searchResultCache = new SearchResultCache(searchProperties, meterRegistry);
+        // H2在任何兼容模式下都使用LIKE匹配
+        FullTextSupport fullTextSupport = new FullTextSupport(jdbcTemplate, appConfig, searchProperties);
+        CorpusStatisticsService corpusStatisticsService = new CorpusStatisticsService(appConfig, searchProperties,
+                xmlContentExtractor, queryCompiler, fullTextSupport);
+        corpusStatisticsService.setJdbcTemplate(jdbcTemplate);
+        rowProcessor = new ParallelRowProcessor(searchProperties);
+        CursorQuery cursorQuery = new CursorQuery(jdbcTemplate, appConfig, searchProperties);
+
+        searchService = new SearchServiceImpl(appConfig, searchProperties, xmlContentExtractor, searchResultCache,
+                queryCompiler, corpusStatisticsService, rowProcessor, cursorQuery,
+                new SearchMetrics(meterRegistry, new SearchTraceLogger(searchProperties),
+                        new SlowQueryLog(searchProperties)), fullTextSupport);
+        searchService.setJdbcTemplate(jdbcTemplate);
+
+        request = new SearchRequest();
+        request.setKeywords(keywords);
+        request.setSortField(sortField);
+        request.setRanking(ranking);
+        request.setPage(page);
+        request.setSize(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rowProcessor.shutdown();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public PageResult<SearchResult> search() {
+        return searchService.search(request);
+    }
+
+    @Benchmark
+    public long count() {
+        return searchService.count(keywords);
+    }
+}
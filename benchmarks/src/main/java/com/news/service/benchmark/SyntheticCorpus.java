@@ -0,0 +1,126 @@
+package com.news.service.benchmark;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Random;
+
+/**
+ * 基准使用的合成语料
+ *
+ * 标题和正文由固定词表随机组合，词的选取偏向词表前部，常用词和生僻词的命中率不同；
+ * XML 与线上 FIELD1079 的结构一致，Content 前后带有若干元数据标签。
+ * 相同的种子生成相同的语料，不同次运行的结果可以直接比较。
+ */
+public final class SyntheticCorpus {
+
+    public static final String[] VOCABULARY = {
+            "新闻", "记者", "报道", "经济", "发展", "市场", "政策", "会议", "北京", "上海",
+            "科技", "创新", "教育", "医疗", "环境", "交通", "文化", "体育", "国际", "合作",
+            "Beijing", "Shanghai", "economy", "market", "policy", "technology", "GDP", "AI"
+    };
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final long START_MILLIS = Timestamp.valueOf("2020-01-01 00:00:00").getTime();
+
+    private final Random random;
+
+    public SyntheticCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 随机选一个词，序号越小的词出现越多
+     */
+    public String word() {
+        return VOCABULARY[random.nextInt(random.nextInt(VOCABULARY.length) + 1)];
+    }
+
+    public String title() {
+        StringBuilder sb = new StringBuilder();
+        int words = 3 + random.nextInt(6);
+        for (int i = 0; i < words; i++) {
+            sb.append(word());
+        }
+        return sb.toString();
+    }
+
+    public String content(int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(word());
+            sb.append(random.nextInt(4) == 0 ? "，" : "的");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成与 FIELD1079 结构相同的XML
+     */
+    public static String xml(String title, String content) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<Program>"
+                + "<Title>" + title + "</Title>"
+                + "<Author>新闻中心</Author>"
+                + "<Source>本台记者</Source>"
+                + "<Keywords>新闻,报道</Keywords>"
+                + "<Content>" + content + "</Content>"
+                + "<Editor>编辑部</Editor>"
+                + "<Status>1</Status>"
+                + "</Program>";
+    }
+
+    /**
+     * 创建 cob_program/com_basicinfo 表并写入 docCount 条记录，CREATED 按ID递增
+     *
+     * @param contentLength 每条记录正文的字符数
+     */
+    public static void load(JdbcTemplate jdbcTemplate, int docCount, int contentLength, long seed) {
+        jdbcTemplate.execute("CREATE TABLE com_basicinfo (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), CREATED TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE cob_program (objectid BIGINT PRIMARY KEY, FIELD1079 CLOB)");
+        jdbcTemplate.execute("CREATE INDEX idx_basicinfo_created ON com_basicinfo (CREATED)");
+
+        SyntheticCorpus corpus = new SyntheticCorpus(seed);
+        for (int start = 1; start <= docCount; start += INSERT_BATCH_SIZE) {
+            int count = Math.min(INSERT_BATCH_SIZE, docCount - start + 1);
+            String[] titles = new String[count];
+            String[] xmls = new String[count];
+            for (int i = 0; i < count; i++) {
+                titles[i] = corpus.title();
+                xmls[i] = xml(titles[i], corpus.content(contentLength));
+            }
+            int first = start;
+            jdbcTemplate.batchUpdate("INSERT INTO com_basicinfo (ID, NAME, CREATED) VALUES (?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, first + i);
+                            ps.setString(2, titles[i]);
+                            ps.setTimestamp(3, new Timestamp(START_MILLIS + (first + i) * 60_000L));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    });
+            jdbcTemplate.batchUpdate("INSERT INTO cob_program (objectid, FIELD1079) VALUES (?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, first + i);
+                            ps.setString(2, xmls[i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    });
+        }
+    }
+}
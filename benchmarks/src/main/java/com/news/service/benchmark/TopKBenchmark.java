@@ -0,0 +1,97 @@
+package com.news.service.benchmark;
+
+import com.news.service.service.TopKCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 排序和分页基准
+ *
+ * 对比原实现的“全部结果排序后取子列表”与有界堆只保留到当前页末尾的前k项，
+ * 分别取第一页和较深的一页。
+ *
+ * 运行：java -jar target/benchmarks.jar TopKBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+
+    /**
+     * 带分数的结果项
+     */
+    public static final class Scored {
+        final long id;
+        final double score;
+
+        Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    @Param({"10000", "100000"})
+    public int matches;
+
+    @Param({"0", "50"})
+    public int page;
+
+    @Param({"20"})
+    public int size;
+
+    private Scored[] results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        results = new Scored[matches];
+        for (int i = 0; i < matches; i++) {
+            // 分数取值有限，存在大量相同分数
+            results[i] = new Scored(i, random.nextInt(200) / 10.0);
+        }
+    }
+
+    /**
+     * 原实现：全部结果按分数降序排序后取当前页
+     */
+    @Benchmark
+    public List<Scored> sortAll() {
+        List<Scored> all = new ArrayList<>(matches);
+        for (Scored result : results) {
+            all.add(result);
+        }
+        all.sort(Comparator.comparingDouble((Scored s) -> s.score).reversed());
+        int from = Math.min(page * size, all.size());
+        return new ArrayList<>(all.subList(from, Math.min(from + size, all.size())));
+    }
+
+    @Benchmark
+    public List<Scored> topK() {
+        TopKCollector<Scored> top = TopKCollector.byKey((page + 1) * size, false);
+        for (Scored result : results) {
+            top.offer(result.score, result);
+        }
+        List<Scored> sorted = top.drainSorted();
+        int from = Math.min(page * size, sorted.size());
+        return sorted.subList(from, sorted.size());
+    }
+}
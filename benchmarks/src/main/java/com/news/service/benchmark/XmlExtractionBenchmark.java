@@ -0,0 +1,100 @@
+package com.news.service.benchmark;
+
+import com.news.service.util.XmlContentExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XML内容提取基准
+ *
+ * 对比原来的DOM解析（每次新建 DocumentBuilderFactory）与现在的StAX流式提取处理一页结果的耗时：
+ * 截取摘要时流式提取读满长度即停止，导出完整内容时读到文档末尾。
+ *
+ * 运行：java -jar target/benchmarks.jar XmlExtractionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlExtractionBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    public int contentLength;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private String[] xmls;
+    private XmlContentExtractor extractor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        xmls = new String[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            xmls[i] = SyntheticCorpus.xml(corpus.title(), corpus.content(contentLength));
+        }
+        extractor = new XmlContentExtractor();
+    }
+
+    /**
+     * 原实现：DOM解析整个文档后取第一个 Content
+     */
+    @Benchmark
+    public int dom() throws Exception {
+        int total = 0;
+        for (String xml : xmls) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document doc = builder.parse(new InputSource(new StringReader(xml)));
+            NodeList contentNodes = doc.getElementsByTagName("Content");
+            String content = contentNodes.item(0).getTextContent().trim();
+            total += XmlContentExtractor.truncate(content, XmlContentExtractor.SNIPPET_LENGTH).length();
+        }
+        return total;
+    }
+
+    /**
+     * StAX流式提取摘要，读满摘要长度后停止
+     */
+    @Benchmark
+    public int streamingSnippet() {
+        int total = 0;
+        for (String xml : xmls) {
+            total += extractor.extractContent(xml, XmlContentExtractor.SNIPPET_LENGTH).length();
+        }
+        return total;
+    }
+
+    /**
+     * StAX流式提取完整内容（导出）
+     */
+    @Benchmark
+    public int streamingFull() {
+        int total = 0;
+        for (String xml : xmls) {
+            total += extractor.extractContent(xml, 0).length();
+        }
+        return total;
+    }
+}
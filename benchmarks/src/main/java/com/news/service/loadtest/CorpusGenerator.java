@@ -0,0 +1,130 @@
+package com.news.service.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+
+/**
+ * 合成新闻语料生成器
+ *
+ * 在给定的库中创建 cob_program/com_basicinfo 表并写入指定条数的记录：
+ * 标题和正文为中英文混合文本，每个 FIELD1079 含1到3个 Content 标签；
+ * CREATED 偏向时间范围的末尾，越近的日期记录越多，与新闻库的实际分布相近。
+ * 相同的种子生成相同的语料。
+ *
+ * 运行：java -cp target/benchmarks.jar com.news.service.loadtest.CorpusGenerator \
+ *      --url=jdbc:h2:file:./data/news --docs=1000000
+ *
+ * 参数：
+ * <ul>
+ *     <li>--url：JDBC URL，默认 jdbc:h2:file:./data/news</li>
+ *     <li>--user、--password：数据库用户名和密码，默认 sa 和空密码</li>
+ *     <li>--docs：记录数，默认 1000000</li>
+ *     <li>--content-length：每条记录正文的平均字符数，默认 1500</li>
+ *     <li>--days：CREATED 覆盖的天数，截止到当前时间，默认 3650</li>
+ *     <li>--skew：CREATED 的偏斜程度，1为均匀分布，越大越集中在近期，默认 3</li>
+ *     <li>--zipf：词频的Zipf指数，默认 1.0</li>
+ *     <li>--seed：随机种子，默认 42</li>
+ *     <li>--batch：每批写入的记录数，默认 1000</li>
+ *     <li>--append：在已有的表中追加，ID从现有最大值之后开始</li>
+ * </ul>
+ */
+public final class CorpusGenerator {
+
+    private CorpusGenerator() {
+    }
+
+    public static void main(String[] argv) throws SQLException {
+        Args args = new Args(argv);
+        String url = args.get("url", "jdbc:h2:file:./data/news");
+        long docs = args.getLong("docs", 1_000_000);
+        int contentLength = args.getInt("content-length", 1500);
+        long days = args.getLong("days", 3650);
+        double skew = args.getDouble("skew", 3.0);
+        int batchSize = args.getInt("batch", 1000);
+        Random random = new Random(args.getLong("seed", 42));
+        TextGenerator text = new TextGenerator(random, args.getDouble("zipf", 1.0));
+
+        long end = System.currentTimeMillis();
+        long span = days * 24 * 3600 * 1000;
+
+        try (Connection con = DriverManager.getConnection(url, args.get("user", "sa"), args.get("password", ""))) {
+            long firstId = args.has("append") ? maxId(con) + 1 : createTables(con);
+            con.setAutoCommit(false);
+
+            long start = System.nanoTime();
+            try (PreparedStatement basic = con.prepareStatement(
+                    "INSERT INTO com_basicinfo (ID, NAME, CREATED) VALUES (?, ?, ?)");
+                 PreparedStatement program = con.prepareStatement(
+                         "INSERT INTO cob_program (objectid, FIELD1079) VALUES (?, ?)")) {
+                for (long i = 0; i < docs; i++) {
+                    long id = firstId + i;
+                    String title = text.title();
+                    // u^skew 集中在0附近，CREATED 集中在时间范围末尾
+                    long created = end - (long) (Math.pow(random.nextDouble(), skew) * span);
+
+                    basic.setLong(1, id);
+                    basic.setString(2, title);
+                    basic.setTimestamp(3, new Timestamp(created));
+                    basic.addBatch();
+                    program.setLong(1, id);
+                    program.setString(2, xml(text, random, title, contentLength));
+                    program.addBatch();
+
+                    if ((i + 1) % batchSize == 0 || i + 1 == docs) {
+                        basic.executeBatch();
+                        program.executeBatch();
+                        con.commit();
+                    }
+                    if ((i + 1) % 100_000 == 0) {
+                        System.out.printf("已写入 %d 条记录，%.0f 条/秒%n", i + 1,
+                                (i + 1) / ((System.nanoTime() - start) / 1e9));
+                    }
+                }
+            }
+            System.out.printf("完成：写入 %d 条记录（ID %d-%d），耗时 %.1f 秒%n", docs, firstId, firstId + docs - 1,
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * 生成 FIELD1079 的XML，正文分为1到3个 Content 标签
+     */
+    static String xml(TextGenerator text, Random random, String title, int contentLength) {
+        int parts = 1 + random.nextInt(3);
+        // 正文长度在平均值的一半到一倍半之间
+        int length = contentLength / 2 + random.nextInt(Math.max(1, contentLength));
+        StringBuilder sb = new StringBuilder(length * 2 + 256);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Program>");
+        sb.append("<Title>").append(title).append("</Title>");
+        sb.append("<Author>本台记者</Author>");
+        sb.append("<Source>新闻中心</Source>");
+        for (int part = 0; part < parts; part++) {
+            sb.append("<Content>").append(text.paragraph(length / parts)).append("</Content>");
+        }
+        sb.append("<Status>1</Status></Program>");
+        return sb.toString();
+    }
+
+    private static long createTables(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE com_basicinfo (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), CREATED TIMESTAMP)");
+            st.execute("CREATE TABLE cob_program (objectid BIGINT PRIMARY KEY, FIELD1079 CLOB)");
+            st.execute("CREATE INDEX idx_basicinfo_created ON com_basicinfo (CREATED)");
+            st.execute("CREATE INDEX idx_basicinfo_name ON com_basicinfo (NAME)");
+        }
+        return 1;
+    }
+
+    private static long maxId(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(ID) FROM com_basicinfo")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.news.service.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一个接口的延迟和错误统计，线程安全
+ *
+ * 延迟按微秒全部保存，结束时排序求百分位，压测规模（数百万次请求）下占用几十MB以内。
+ */
+final class LatencyStats {
+
+    private final String name;
+    private long[] latencies = new long[4096];
+    private int count;
+    private final Map<String, Long> errors = new TreeMap<>();
+    private long errorCount;
+
+    LatencyStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void success(long latencyMicros) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyMicros;
+    }
+
+    /**
+     * @param kind 错误类型，如HTTP状态码或异常类名
+     */
+    synchronized void error(String kind) {
+        errors.merge(kind, 1L, Long::sum);
+        errorCount++;
+    }
+
+    synchronized long total() {
+        return count + errorCount;
+    }
+
+    synchronized String report(double seconds) {
+        long total = count + errorCount;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s 请求 %d，成功 %d，错误 %d（%.2f%%），%.1f 次/秒%n", name, total, count, errorCount,
+                total > 0 ? errorCount * 100.0 / total : 0.0, total / seconds));
+        if (count > 0) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            sb.append(String.format("         延迟(ms) p50 %.1f  p90 %.1f  p95 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[count - 1] / 1000.0));
+        }
+        for (Map.Entry<String, Long> error : errors.entrySet()) {
+            sb.append(String.format("         错误 %s: %d%n", error.getKey(), error.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
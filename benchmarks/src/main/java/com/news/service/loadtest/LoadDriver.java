@@ -0,0 +1,232 @@
+package com.news.service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 压测驱动
+ *
+ * 按目标QPS以固定间隔（开环）向 /api/search 和 /api/count 发出请求，查询从按热度排列的查询表中以Zipf分布抽取，
+ * 少数热门查询占大部分请求。延迟从计划发出的时刻算起，服务变慢导致请求排队时排队时间也计入延迟，
+ * 不会因为驱动自身等待而低估尾延迟。结束时按接口输出延迟百分位和错误率。
+ *
+ * 运行：java -cp target/benchmarks.jar com.news.service.loadtest.LoadDriver \
+ *      --url=http://localhost:8080 --qps=200 --duration=60
+ *
+ * 参数：
+ * <ul>
+ *     <li>--url：服务地址，默认 http://localhost:8080</li>
+ *     <li>--qps：目标请求速率，默认 100</li>
+ *     <li>--duration：计入统计的压测时长（秒），默认 60</li>
+ *     <li>--warmup：预热时长（秒），预热期间的请求不计入统计，默认 10</li>
+ *     <li>--connections：并发连接数（工作线程数），默认 64</li>
+ *     <li>--count-ratio：count 请求的比例，默认 0.2</li>
+ *     <li>--queries：查询表的大小，默认 1000</li>
+ *     <li>--zipf：查询热度的Zipf指数，默认 1.0</li>
+ *     <li>--sort：search 请求的排序字段，默认 score</li>
+ *     <li>--size：search 请求的每页条数，默认 10</li>
+ *     <li>--timeout：单个请求的读取超时（秒），默认 30</li>
+ *     <li>--seed：随机种子，默认 42</li>
+ * </ul>
+ */
+public final class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final int size;
+    private final String sortField;
+    private final int timeoutMillis;
+
+    private LoadDriver(String baseUrl, int size, String sortField, int timeoutMillis) {
+        this.baseUrl = baseUrl;
+        this.size = size;
+        this.sortField = sortField;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static void main(String[] argv) throws InterruptedException {
+        Args args = new Args(argv);
+        double qps = args.getDouble("qps", 100);
+        long durationSeconds = args.getLong("duration", 60);
+        long warmupSeconds = args.getLong("warmup", 10);
+        int connections = args.getInt("connections", 64);
+        double countRatio = args.getDouble("count-ratio", 0.2);
+        Random random = new Random(args.getLong("seed", 42));
+        List<String> queries = queryTable(args.getInt("queries", 1000), random);
+        ZipfSampler popularity = new ZipfSampler(queries.size(), args.getDouble("zipf", 1.0));
+
+        LoadDriver driver = new LoadDriver(args.get("url", "http://localhost:8080"), args.getInt("size", 10),
+                args.get("sort", "score"), args.getInt("timeout", 30) * 1000);
+        LatencyStats search = new LatencyStats("search");
+        LatencyStats count = new LatencyStats("count");
+        LatencyStats discarded = new LatencyStats("warmup");
+
+        System.out.printf("目标 %.0f 次/秒，预热 %d 秒，压测 %d 秒，%d 个连接，%d 个查询，最热的查询: %s%n",
+                qps, warmupSeconds, durationSeconds, connections, queries.size(), queries.get(0));
+
+        ExecutorService workers = Executors.newFixedThreadPool(connections, r -> {
+            Thread thread = new Thread(r, "load-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = (long) (1e9 / qps);
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long nextReport = measureFrom + TimeUnit.SECONDS.toNanos(10);
+
+        for (long i = 0; ; i++) {
+            long intended = startNanos + i * intervalNanos;
+            if (intended >= endNanos) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            String keywords = queries.get(popularity.sample(random));
+            boolean isCount = random.nextDouble() < countRatio;
+            boolean measured = intended >= measureFrom;
+            LatencyStats stats = !measured ? discarded : isCount ? count : search;
+            workers.execute(() -> driver.execute(isCount, keywords, intended, stats));
+
+            if (intended >= nextReport) {
+                System.out.printf("[%3d 秒] search %d，count %d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(intended - measureFrom), search.total(), count.total());
+                nextReport += TimeUnit.SECONDS.toNanos(10);
+            }
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(driver.timeoutMillis / 1000 + 5, TimeUnit.SECONDS)) {
+            System.out.println("部分请求在结束时仍未返回，不计入统计");
+        }
+
+        System.out.println();
+        System.out.print(search.report(durationSeconds));
+        System.out.print(count.report(durationSeconds));
+    }
+
+    private void execute(boolean isCount, String keywords, long intendedNanos, LatencyStats stats) {
+        try {
+            HttpURLConnection connection = isCount ? count(keywords) : search(keywords);
+            int status = connection.getResponseCode();
+            byte[] body = readFully(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            long latencyMicros = (System.nanoTime() - intendedNanos) / 1000;
+            if (status != HttpURLConnection.HTTP_OK) {
+                stats.error("HTTP " + status);
+                return;
+            }
+            JsonNode response = MAPPER.readTree(body);
+            if (!response.path("success").asBoolean(false)) {
+                stats.error("success=false");
+                return;
+            }
+            stats.success(latencyMicros);
+        } catch (IOException e) {
+            stats.error(e.getClass().getSimpleName());
+        }
+    }
+
+    private HttpURLConnection search(String keywords) throws IOException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("keywords", keywords);
+        request.put("page", 0);
+        request.put("size", size);
+        request.put("sortField", sortField);
+        byte[] json = MAPPER.writeValueAsBytes(request);
+
+        HttpURLConnection connection = open(baseUrl + "/api/search");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setFixedLengthStreamingMode(json.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json);
+        }
+        return connection;
+    }
+
+    private HttpURLConnection count(String keywords) throws IOException {
+        return open(baseUrl + "/api/count?keywords=" + URLEncoder.encode(keywords, "UTF-8"));
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setRequestProperty("Accept", "application/json");
+        return connection;
+    }
+
+    /**
+     * 读完响应体，连接才能回到keep-alive缓存中复用
+     */
+    private static byte[] readFully(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 生成按热度排列的查询表：单个关键词、空格分隔的AND、OR组合和逗号分隔的条件组，
+     * 组成查询的词按词频的Zipf分布抽取，热门查询多由常见词组成
+     */
+    static List<String> queryTable(int size, Random random) {
+        List<String> terms = TextGenerator.rankedTerms();
+        ZipfSampler termSampler = new ZipfSampler(terms.size(), 1.0);
+        Set<String> queries = new LinkedHashSet<>();
+        // 单个关键词的查询最热门
+        for (int i = 0; i < Math.min(size, terms.size() / 2); i++) {
+            queries.add(terms.get(i));
+        }
+        int attempts = 0;
+        while (queries.size() < size && attempts++ < size * 20) {
+            String a = terms.get(termSampler.sample(random));
+            String b = terms.get(termSampler.sample(random));
+            String c = terms.get(termSampler.sample(random));
+            if (a.equals(b)) {
+                continue;
+            }
+            int shape = random.nextInt(10);
+            if (shape < 5) {
+                queries.add(a + " " + b);
+            } else if (shape < 8) {
+                queries.add(a + " OR " + b);
+            } else {
+                queries.add(a + " OR " + b + ", " + c);
+            }
+        }
+        return new ArrayList<>(queries);
+    }
+}
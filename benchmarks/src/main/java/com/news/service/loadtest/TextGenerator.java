@@ -0,0 +1,103 @@
+package com.news.service.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 新闻风格的中英文混合文本
+ *
+ * 词按Zipf分布从词表中抽取，词表越靠前的词越常见；中文词直接相连，英文词前后加空格，
+ * 句末随机加标点。查询的关键词也从同一词表中抽取，常见词的命中数大，生僻词的命中数小。
+ */
+final class TextGenerator {
+
+    static final String[] CJK_WORDS = {
+            "新闻", "记者", "报道", "发展", "经济", "市场", "政策", "会议", "北京", "上海",
+            "科技", "创新", "教育", "医疗", "环境", "交通", "文化", "体育", "国际", "合作",
+            "企业", "投资", "消费", "增长", "城市", "农村", "就业", "改革", "安全", "能源",
+            "数据", "平台", "服务", "建设", "项目", "社会", "产业", "金融", "银行", "贸易",
+            "广州", "深圳", "杭州", "成都", "武汉", "南京", "天津", "重庆", "西安", "长沙",
+            "人工智能", "新能源汽车", "碳中和", "乡村振兴", "数字经济", "芯片", "半导体", "物流", "旅游", "住房",
+            "养老", "疫苗", "气候", "防汛", "航天", "高铁", "电商", "直播", "短视频", "区块链"
+    };
+
+    static final String[] LATIN_WORDS = {
+            "China", "Beijing", "Shanghai", "economy", "market", "policy", "technology", "GDP", "AI", "WTO",
+            "COVID", "5G", "Internet", "Apple", "Huawei", "Tesla", "NASA", "Olympic", "World Cup", "Xinhua",
+            "trade", "energy", "climate", "chip", "EV", "ChatGPT", "OpenAI", "IMF", "G20", "APEC"
+    };
+
+    private static final String[] PUNCTUATION = {"，", "，", "，", "。", "；", "、"};
+
+    private final Random random;
+    private final ZipfSampler cjk;
+    private final ZipfSampler latin;
+
+    TextGenerator(Random random, double exponent) {
+        this.random = random;
+        this.cjk = new ZipfSampler(CJK_WORDS.length, exponent);
+        this.latin = new ZipfSampler(LATIN_WORDS.length, exponent);
+    }
+
+    /**
+     * 抽取一个词，约八分之一为英文词
+     */
+    String word() {
+        return random.nextInt(8) == 0 ? LATIN_WORDS[latin.sample(random)] : CJK_WORDS[cjk.sample(random)];
+    }
+
+    String title() {
+        StringBuilder sb = new StringBuilder();
+        int words = 3 + random.nextInt(6);
+        for (int i = 0; i < words; i++) {
+            append(sb, word());
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * 生成约 length 个字符的段落
+     */
+    String paragraph(int length) {
+        StringBuilder sb = new StringBuilder(length + 32);
+        while (sb.length() < length) {
+            int words = 3 + random.nextInt(8);
+            for (int i = 0; i < words; i++) {
+                append(sb, word());
+            }
+            sb.append(PUNCTUATION[random.nextInt(PUNCTUATION.length)]);
+        }
+        sb.setCharAt(sb.length() - 1, '。');
+        return sb.toString();
+    }
+
+    /**
+     * 按热度排列的查询词表：中英文词按各自的序号交错排列
+     */
+    static List<String> rankedTerms() {
+        List<String> terms = new ArrayList<>(CJK_WORDS.length + LATIN_WORDS.length);
+        int latin = 0;
+        for (int i = 0; i < CJK_WORDS.length; i++) {
+            terms.add(CJK_WORDS[i]);
+            if (i % 2 == 1 && latin < LATIN_WORDS.length) {
+                terms.add(LATIN_WORDS[latin++]);
+            }
+        }
+        while (latin < LATIN_WORDS.length) {
+            terms.add(LATIN_WORDS[latin++]);
+        }
+        return terms;
+    }
+
+    private static void append(StringBuilder sb, String word) {
+        boolean latinWord = word.charAt(0) < 0x80;
+        if (latinWord && sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+            sb.append(' ');
+        }
+        sb.append(word);
+        if (latinWord) {
+            sb.append(' ');
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.news.service.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf分布抽样
+ *
+ * 序号 k（从0开始）被抽中的概率与 1/(k+1)^exponent 成正比，预先计算累积分布，抽样时二分查找。
+ * 词频和查询热度都近似服从这一分布：少数词和查询占了大部分出现次数。
+ */
+public final class ZipfSampler {
+
+    private final double[] cdf;
+
+    /**
+     * @param size     取值个数
+     * @param exponent 指数，越大越集中在前几个序号，0为均匀分布
+     */
+    public ZipfSampler(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("取值个数必须大于0");
+        }
+        cdf = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cdf.length - 1);
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+}
@@ -9,6 +9,28 @@ public class AppConfig {
 
     private boolean enabled;
 
+    /**
+     * 当前生效的连接信息，替换数据源后由 {@link DataSourceManager} 更新
+     */
+    private String driverClassName;
+    private String url;
+    private String username;
+
+    /**
+     * 每个连接的驱动级预编译语句缓存大小，0表示不开启
+     */
+    private int statementCacheSize = 256;
+
+    /**
+     * 替换数据源时等待新连接池建立最小空闲连接的最长时间（毫秒）
+     */
+    private long swapWarmupTimeoutMs = 10000;
+
+    /**
+     * 替换数据源后等待旧连接池上的查询结束的最长时间（毫秒），超时后强制关闭
+     */
+    private long swapDrainTimeoutMs = 120000;
+
     public boolean isDataSourceEnabled() {
         return enabled;
     }
@@ -16,4 +38,52 @@ public class AppConfig {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public long getSwapWarmupTimeoutMs() {
+        return swapWarmupTimeoutMs;
+    }
+
+    public void setSwapWarmupTimeoutMs(long swapWarmupTimeoutMs) {
+        this.swapWarmupTimeoutMs = swapWarmupTimeoutMs;
+    }
+
+    public long getSwapDrainTimeoutMs() {
+        return swapDrainTimeoutMs;
+    }
+
+    public void setSwapDrainTimeoutMs(long swapDrainTimeoutMs) {
+        this.swapDrainTimeoutMs = swapDrainTimeoutMs;
+    }
 }
@@ -0,0 +1,26 @@
+package com.news.service.config;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 数据源已替换
+ *
+ * 只修改连接池参数或账号时目标库不变，依赖库中数据的缓存、统计和索引可以保留。
+ */
+public class DataSourceChangedEvent extends ApplicationEvent {
+
+    private final boolean targetChanged;
+
+    /**
+     * @param source        发布者
+     * @param targetChanged 启用状态或数据库地址是否变化
+     */
+    public DataSourceChangedEvent(Object source, boolean targetChanged) {
+        super(source);
+        this.targetChanged = targetChanged;
+    }
+
+    public boolean isTargetChanged() {
+        return targetChanged;
+    }
+}
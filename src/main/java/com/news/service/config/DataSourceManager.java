@@ -0,0 +1,273 @@
+package com.news.service.config;
+
+import com.news.service.util.SqlDialect;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据源管理器
+ *
+ * 按 spring.datasource.* 创建HikariCP连接池，配置页面保存的配置文件优先于启动时的环境配置。
+ * 重新加载配置时先建立新连接池并预热到最小空闲连接数，再原子替换到 {@link RefreshableDataSource}，
+ * 旧连接池立即淘汰空闲连接，在后台等待已借出的连接归还后关闭，替换过程中搜索不中断。
+ * 新配置无法连接时抛出异常，继续使用原连接池；配置页面提交的配置在替换成功后才由调用方写入配置文件。
+ * 每个连接池使用带序号的池名，指标按 pool 标签区分，旧连接池关闭时移除其指标。
+ */
+@Slf4j
+@Component
+public class DataSourceManager implements DisposableBean {
+
+    private static final String POOL_NAME = "newsSearchPool";
+
+    private final AppConfig appConfig;
+    private final ConfigurableEnvironment environment;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String configFilePath;
+
+    private final RefreshableDataSource dataSource = new RefreshableDataSource();
+    private final AtomicInteger poolSequence = new AtomicInteger();
+
+    @Autowired
+    public DataSourceManager(AppConfig appConfig, ConfigurableEnvironment environment, MeterRegistry meterRegistry,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.config.file}") String configFilePath) {
+        this.appConfig = appConfig;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.configFilePath = configFilePath;
+
+        Binder binder = binder(loadSavedProperties());
+        ConnectionSettings settings = ConnectionSettings.bind(binder);
+        if (settings.enabled) {
+            // 启动时连接池在第一次获取连接时才建立，数据库暂时不可用不影响应用启动
+            HikariDataSource pool = new HikariDataSource();
+            poolConfig(binder, settings).copyStateTo(pool);
+            dataSource.swap(pool);
+            log.info("数据源连接池已创建: pool={}, url={}", pool.getPoolName(), settings.url);
+        }
+        apply(settings);
+    }
+
+    public RefreshableDataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * 按保存的配置重建连接池并替换当前连接池
+     *
+     * @throws IllegalStateException 新配置无法建立连接，此时继续使用原连接池
+     */
+    public void reload() {
+        reload(loadSavedProperties());
+    }
+
+    /**
+     * 按给定的配置（与配置文件内容相同的键）重建连接池并替换当前连接池，不读取配置文件
+     *
+     * @param saved 优先于启动时环境配置的属性
+     * @throws IllegalStateException 新配置无法建立连接，此时继续使用原连接池
+     */
+    public synchronized void reload(Properties saved) {
+        log.info("====> 开始重新加载数据源");
+        long start = System.currentTimeMillis();
+        Binder binder = binder(saved);
+        ConnectionSettings settings = ConnectionSettings.bind(binder);
+
+        HikariDataSource next = null;
+        if (settings.enabled) {
+            HikariConfig config = poolConfig(binder, settings);
+            try {
+                // 立即建立连接，连接失败时抛出异常
+                next = new HikariDataSource(config);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("新数据源连接失败，继续使用原数据源: " + e.getMessage(), e);
+            }
+            warmUp(next);
+        }
+
+        boolean targetChanged = settings.enabled != appConfig.isDataSourceEnabled()
+                || !Objects.equals(settings.url, appConfig.getUrl());
+        HikariDataSource previous = dataSource.swap(next);
+        apply(settings);
+        log.info("<==== 数据源已替换: pool={}, url={}, 耗时: {} ms",
+                next != null ? next.getPoolName() : "无", settings.url, System.currentTimeMillis() - start);
+
+        if (previous != null) {
+            drainInBackground(previous);
+        }
+        eventPublisher.publishEvent(new DataSourceChangedEvent(this, targetChanged));
+    }
+
+    @Override
+    public void destroy() {
+        HikariDataSource current = dataSource.swap(null);
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void apply(ConnectionSettings settings) {
+        appConfig.setEnabled(settings.enabled);
+        appConfig.setDriverClassName(settings.driverClassName);
+        appConfig.setUrl(settings.url);
+        appConfig.setUsername(settings.username);
+    }
+
+    private HikariConfig poolConfig(Binder binder, ConnectionSettings settings) {
+        HikariConfig config = new HikariConfig();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(config));
+        if (settings.driverClassName != null && !settings.driverClassName.isEmpty()) {
+            config.setDriverClassName(settings.driverClassName);
+        }
+        config.setJdbcUrl(settings.url);
+        config.setUsername(settings.username);
+        config.setPassword(settings.password);
+        config.setPoolName(POOL_NAME + "-" + poolSequence.incrementAndGet());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        int statementCacheSize = binder.bind("spring.datasource.statement-cache-size", Integer.class)
+                .orElse(appConfig.getStatementCacheSize());
+        SqlDialect.fromUrl(settings.url).statementCacheProperties(statementCacheSize)
+                .forEach(config::addDataSourceProperty);
+        return config;
+    }
+
+    /**
+     * 预热新连接池：验证一个连接，并等待空闲连接达到最小空闲数
+     */
+    private void warmUp(HikariDataSource pool) {
+        long deadline = System.currentTimeMillis() + appConfig.getSwapWarmupTimeoutMs();
+        try (Connection connection = pool.getConnection()) {
+            if (!connection.isValid(5)) {
+                throw new IllegalStateException("新数据源的连接校验失败");
+            }
+
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            int minimumIdle = Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+            // 校验用的连接未归还前不计入空闲连接
+            while (poolBean.getIdleConnections() + 1 < minimumIdle && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            log.info("新连接池预热完成: pool={}, 空闲连接: {}", pool.getPoolName(), poolBean.getIdleConnections() + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.close();
+            throw new IllegalStateException("预热新数据源时被中断", e);
+        } catch (Exception e) {
+            pool.close();
+            throw new IllegalStateException("新数据源预热失败，继续使用原数据源: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在后台等待旧连接池上已借出的连接归还后关闭，超时后强制关闭
+     */
+    private void drainInBackground(HikariDataSource previous) {
+        Thread drainer = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            long deadline = start + appConfig.getSwapDrainTimeoutMs();
+            HikariPoolMXBean poolBean = previous.getHikariPoolMXBean();
+            if (poolBean != null) {
+                // 不再补充空闲连接，空闲连接立即关闭，借出的连接归还时关闭
+                previous.getHikariConfigMXBean().setMinimumIdle(0);
+                poolBean.softEvictConnections();
+                try {
+                    while (poolBean.getActiveConnections() > 0 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(100);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (poolBean.getActiveConnections() > 0) {
+                    log.warn("旧连接池 {} 在 {} ms 内仍有 {} 个连接未归还，强制关闭", previous.getPoolName(),
+                            appConfig.getSwapDrainTimeoutMs(), poolBean.getActiveConnections());
+                }
+            }
+            previous.close();
+            log.info("旧连接池 {} 已关闭，排空耗时: {} ms", previous.getPoolName(), System.currentTimeMillis() - start);
+        }, "datasource-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * 配置页面保存（或提交）的配置在前，启动时的环境配置在后
+     */
+    private Binder binder(Properties saved) {
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+        if (!saved.isEmpty()) {
+            sources.add(new MapConfigurationPropertySource(saved));
+        }
+        ConfigurationPropertySources.get(environment).forEach(sources::add);
+        return new Binder(sources, new PropertySourcesPlaceholdersResolver(environment));
+    }
+
+    private Properties loadSavedProperties() {
+        Properties properties = new Properties();
+        File configFile = new File(configFilePath);
+        if (!configFile.isFile()) {
+            return properties;
+        }
+        try (InputStream in = Files.newInputStream(configFile.toPath())) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("读取配置文件 {} 失败，使用启动时的配置: {}", configFilePath, e.getMessage());
+        }
+        return properties;
+    }
+
+    private static final class ConnectionSettings {
+        private final boolean enabled;
+        private final String driverClassName;
+        private final String url;
+        private final String username;
+        private final String password;
+
+        private ConnectionSettings(boolean enabled, String driverClassName, String url, String username,
+                                   String password) {
+            this.enabled = enabled;
+            this.driverClassName = driverClassName;
+            this.url = url;
+            this.username = username;
+            this.password = password;
+        }
+
+        static ConnectionSettings bind(Binder binder) {
+            return new ConnectionSettings(
+                    binder.bind("spring.datasource.enabled", Boolean.class).orElse(false),
+                    binder.bind("spring.datasource.driver-class-name", String.class).orElse(""),
+                    binder.bind("spring.datasource.url", String.class).orElse(""),
+                    binder.bind("spring.datasource.username", String.class).orElse(""),
+                    binder.bind("spring.datasource.password", String.class).orElse(""));
+        }
+    }
+}
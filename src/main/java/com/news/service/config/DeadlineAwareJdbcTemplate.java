@@ -0,0 +1,43 @@
+package com.news.service.config;
+
+import com.news.service.service.SearchDeadline;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * 按当前线程的搜索截止时间设置查询超时的JdbcTemplate
+ *
+ * 查询超时取剩余时间（向上取整到秒），并登记语句以便截止时间到达时直接取消；
+ * 截止时间已过时不再执行语句。线程未绑定截止时间时与JdbcTemplate相同。
+ */
+public class DeadlineAwareJdbcTemplate extends JdbcTemplate {
+
+    public DeadlineAwareJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+
+        SearchDeadline deadline = SearchDeadline.current();
+        if (deadline == null) {
+            return;
+        }
+        long remaining = deadline.remainingMillis();
+        if (deadline.isExpired() || remaining <= 0) {
+            throw new SQLTimeoutException("搜索已超时，不再执行查询");
+        }
+
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+        int configured = stmt.getQueryTimeout();
+        if (configured == 0 || seconds < configured) {
+            stmt.setQueryTimeout(seconds);
+        }
+        deadline.register(stmt);
+    }
+}
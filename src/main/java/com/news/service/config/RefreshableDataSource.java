@@ -0,0 +1,110 @@
+package com.news.service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * 可替换目标连接池的数据源
+ *
+ * JdbcTemplate 绑定在本数据源上，每次取连接时读取当前的连接池，替换后新查询立即使用新连接池，
+ * 已借出的连接仍归还给原连接池。
+ */
+public class RefreshableDataSource implements DataSource {
+
+    private final AtomicReference<HikariDataSource> target = new AtomicReference<>();
+
+    /**
+     * 当前的连接池，未启用数据库时返回null
+     */
+    public HikariDataSource current() {
+        return target.get();
+    }
+
+    /**
+     * 原子替换连接池
+     *
+     * @param next 新连接池，null表示停用数据库
+     * @return 被替换的连接池，由调用方负责排空后关闭
+     */
+    HikariDataSource swap(HikariDataSource next) {
+        return target.getAndSet(next);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        while (true) {
+            HikariDataSource current = target.get();
+            if (current == null) {
+                throw new SQLException("数据库未启用");
+            }
+            try {
+                return current.getConnection();
+            } catch (SQLException e) {
+                // 取到旧连接池后它恰好被关闭时改用新连接池重试
+                if (!current.isClosed() || current == target.get()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("不支持指定用户名获取连接");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        HikariDataSource current = target.get();
+        return current != null ? current.getLogWriter() : null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        throw new SQLFeatureNotSupportedException("不支持设置日志输出");
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        throw new SQLFeatureNotSupportedException("登录超时通过 spring.datasource.hikari.connection-timeout 配置");
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        HikariDataSource current = target.get();
+        return current != null ? current.getLoginTimeout() : 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        HikariDataSource current = target.get();
+        if (current == null) {
+            throw new SQLException("数据库未启用");
+        }
+        return current.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return true;
+        }
+        HikariDataSource current = target.get();
+        return current != null && current.isWrapperFor(iface);
+    }
+}
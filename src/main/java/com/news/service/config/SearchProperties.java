@@ -0,0 +1,720 @@
+package com.news.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索相关配置
+ */
+@Component
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /**
+     * 是否启用两阶段查询：先取候选集（ID/NAME/CREATED），再只为当前页加载XML内容
+     */
+    private boolean twoPhaseEnabled = true;
+
+    /**
+     * 第二阶段按ID加载内容时，每条IN语句包含的最大ID数
+     */
+    private int pageLoadBatchSize = 500;
+
+    /**
+     * 按名称/时间排序时是否用 COUNT(*) OVER() 在分页查询中同时取总数，方言不支持时自动退回单独的COUNT查询
+     */
+    private boolean windowCountEnabled = true;
+
+    /**
+     * 编译后关键词查询的LRU缓存容量
+     */
+    private int queryCacheSize = 1000;
+
+    /**
+     * 数据库全文检索配置
+     */
+    private final FullText fullText = new FullText();
+
+    /**
+     * 内存倒排索引配置
+     */
+    private final Index index = new Index();
+
+    /**
+     * 查询结果缓存配置
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * 相关度排序模型配置
+     */
+    private final Ranking ranking = new Ranking();
+
+    /**
+     * 异步搜索接口配置
+     */
+    private final Async async = new Async();
+
+    /**
+     * 结果行并行处理配置
+     */
+    private final Parallel parallel = new Parallel();
+
+    /**
+     * 流式结果输出配置
+     */
+    private final Stream stream = new Stream();
+
+    /**
+     * 批量导出配置
+     */
+    private final Export export = new Export();
+
+    /**
+     * 搜索概况日志配置
+     */
+    private final Trace trace = new Trace();
+
+    public boolean isTwoPhaseEnabled() {
+        return twoPhaseEnabled;
+    }
+
+    public void setTwoPhaseEnabled(boolean twoPhaseEnabled) {
+        this.twoPhaseEnabled = twoPhaseEnabled;
+    }
+
+    public int getPageLoadBatchSize() {
+        return pageLoadBatchSize;
+    }
+
+    public void setPageLoadBatchSize(int pageLoadBatchSize) {
+        this.pageLoadBatchSize = pageLoadBatchSize;
+    }
+
+    public boolean isWindowCountEnabled() {
+        return windowCountEnabled;
+    }
+
+    public void setWindowCountEnabled(boolean windowCountEnabled) {
+        this.windowCountEnabled = windowCountEnabled;
+    }
+
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    public void setQueryCacheSize(int queryCacheSize) {
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    public FullText getFullText() {
+        return fullText;
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Ranking getRanking() {
+        return ranking;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Trace getTrace() {
+        return trace;
+    }
+
+    public static class FullText {
+
+        /**
+         * 关键词匹配方言：auto 按数据库类型探测全文索引（Oracle Text、MySQL FULLTEXT、SQL Server CONTAINS），
+         * 没有索引时使用LIKE（PostgreSQL为ILIKE）；也可指定 like、ilike、oracle_text、mysql_fulltext、
+         * postgresql_tsquery、sqlserver_contains 强制使用某一种，PostgreSQL的tsvector匹配只能这样启用
+         */
+        private String dialect = "auto";
+
+        public String getDialect() {
+            return dialect;
+        }
+
+        public void setDialect(String dialect) {
+            this.dialect = dialect;
+        }
+    }
+
+    public static class Trace {
+
+        /**
+         * 是否输出每次搜索的概况日志
+         */
+        private boolean enabled = true;
+
+        /**
+         * 正常完成的搜索按此比例抽样输出，0到1之间
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * 耗时达到此值（毫秒）的搜索总是输出，失败的搜索也总是输出
+         */
+        private long slowThresholdMs = 1000;
+
+        /**
+         * 最近慢查询的执行剖析保留条数，通过 /actuator/slowqueries 查看，0表示不保留
+         */
+        private int slowQueryCapacity = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getSlowThresholdMs() {
+            return slowThresholdMs;
+        }
+
+        public void setSlowThresholdMs(long slowThresholdMs) {
+            this.slowThresholdMs = slowThresholdMs;
+        }
+
+        public int getSlowQueryCapacity() {
+            return slowQueryCapacity;
+        }
+
+        public void setSlowQueryCapacity(int slowQueryCapacity) {
+            this.slowQueryCapacity = slowQueryCapacity;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * 客户端接受gzip时是否边导出边压缩
+         */
+        private boolean gzipEnabled = true;
+
+        /**
+         * 每写出多少条记录刷新一次输出
+         */
+        private int flushRows = 500;
+
+        public boolean isGzipEnabled() {
+            return gzipEnabled;
+        }
+
+        public void setGzipEnabled(boolean gzipEnabled) {
+            this.gzipEnabled = gzipEnabled;
+        }
+
+        public int getFlushRows() {
+            return flushRows;
+        }
+
+        public void setFlushRows(int flushRows) {
+            this.flushRows = flushRows;
+        }
+    }
+
+    public static class Stream {
+
+        /**
+         * 只进游标每次从数据库取回的行数（MySQL驱动固定逐行读取）
+         */
+        private int fetchSize = 500;
+
+        /**
+         * 每写出多少条结果刷新一次输出，第一条结果总是立即刷新
+         */
+        private int flushRows = 50;
+
+        /**
+         * 按分数排序时必须读完全部匹配行才能确定顺序，最多保留的候选项数
+         */
+        private int maxScoredRows = 10000;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getFlushRows() {
+            return flushRows;
+        }
+
+        public void setFlushRows(int flushRows) {
+            this.flushRows = flushRows;
+        }
+
+        public int getMaxScoredRows() {
+            return maxScoredRows;
+        }
+
+        public void setMaxScoredRows(int maxScoredRows) {
+            this.maxScoredRows = maxScoredRows;
+        }
+    }
+
+    public static class Parallel {
+
+        /**
+         * 是否把结果行的XML解析、评分分发到并行线程池
+         */
+        private boolean enabled = true;
+
+        /**
+         * 并行线程数，0表示CPU核数
+         */
+        private int parallelism = 0;
+
+        /**
+         * 结果行数达到该值才并行处理，行数较少时在JDBC线程上逐行处理
+         */
+        private int thresholdRows = 512;
+
+        /**
+         * 每个并行任务处理的行数
+         */
+        private int batchSize = 128;
+
+        /**
+         * 已读取未处理完的批数上限，达到后JDBC线程等待最早的一批完成，0表示并行线程数的2倍
+         */
+        private int maxPendingBatches = 0;
+
+        /**
+         * 生成搜索摘要时JDBC线程从每行XML读取的最大字符数，逐行和并行处理相同，摘要只需要开头的内容，0表示读取完整XML
+         */
+        private int xmlPrefixChars = 32768;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getThresholdRows() {
+            return thresholdRows;
+        }
+
+        public void setThresholdRows(int thresholdRows) {
+            this.thresholdRows = thresholdRows;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPendingBatches() {
+            return maxPendingBatches;
+        }
+
+        public void setMaxPendingBatches(int maxPendingBatches) {
+            this.maxPendingBatches = maxPendingBatches;
+        }
+
+        public int getXmlPrefixChars() {
+            return xmlPrefixChars;
+        }
+
+        public void setXmlPrefixChars(int xmlPrefixChars) {
+            this.xmlPrefixChars = xmlPrefixChars;
+        }
+    }
+
+    public static class Async {
+
+        /**
+         * 执行异步搜索的工作线程数
+         */
+        private int poolSize = 8;
+
+        /**
+         * 等待执行的搜索数上限，队列满时直接返回503
+         */
+        private int queueCapacity = 32;
+
+        /**
+         * 每个搜索从提交起的截止时间（毫秒），超时后取消正在执行的SQL语句并返回503
+         */
+        private long timeoutMs = 10000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class Ranking {
+
+        /**
+         * 请求未指定时使用的排序模型：classic（原有加权公式）或 bm25
+         */
+        private String defaultModel = "classic";
+
+        /**
+         * BM25 词频饱和参数
+         */
+        private double k1 = 1.2;
+
+        /**
+         * BM25F 标题字段权重
+         */
+        private double titleWeight = 3.0;
+
+        /**
+         * BM25F 标题字段长度归一化参数
+         */
+        private double titleB = 0.75;
+
+        /**
+         * BM25F 内容字段长度归一化参数
+         */
+        private double contentB = 0.75;
+
+        /**
+         * 未启用内存索引时，文档总数和平均字段长度的刷新间隔（毫秒）
+         */
+        private long statsRefreshIntervalMs = 300000;
+
+        /**
+         * 未启用内存索引时，估算平均内容长度抽样的文档数
+         */
+        private int statsSampleSize = 500;
+
+        public String getDefaultModel() {
+            return defaultModel;
+        }
+
+        public void setDefaultModel(String defaultModel) {
+            this.defaultModel = defaultModel;
+        }
+
+        public double getK1() {
+            return k1;
+        }
+
+        public void setK1(double k1) {
+            this.k1 = k1;
+        }
+
+        public double getTitleWeight() {
+            return titleWeight;
+        }
+
+        public void setTitleWeight(double titleWeight) {
+            this.titleWeight = titleWeight;
+        }
+
+        public double getTitleB() {
+            return titleB;
+        }
+
+        public void setTitleB(double titleB) {
+            this.titleB = titleB;
+        }
+
+        public double getContentB() {
+            return contentB;
+        }
+
+        public void setContentB(double contentB) {
+            this.contentB = contentB;
+        }
+
+        public long getStatsRefreshIntervalMs() {
+            return statsRefreshIntervalMs;
+        }
+
+        public void setStatsRefreshIntervalMs(long statsRefreshIntervalMs) {
+            this.statsRefreshIntervalMs = statsRefreshIntervalMs;
+        }
+
+        public int getStatsSampleSize() {
+            return statsSampleSize;
+        }
+
+        public void setStatsSampleSize(int statsSampleSize) {
+            this.statsSampleSize = statsSampleSize;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * 是否启用查询结果缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存总容量上限（估算字节数）
+         */
+        private long maxWeightBytes = 64L * 1024 * 1024;
+
+        /**
+         * 结果总数不超过该值的查询才缓存排序结果
+         */
+        private int maxCachedIds = 10000;
+
+        /**
+         * 写入后过期时间，兜底已有文档被修改的情况
+         */
+        private long expireAfterWriteMs = 60000;
+
+        /**
+         * 未启用内存索引时，轮询新文档高水位的间隔
+         */
+        private long pollIntervalMs = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxWeightBytes() {
+            return maxWeightBytes;
+        }
+
+        public void setMaxWeightBytes(long maxWeightBytes) {
+            this.maxWeightBytes = maxWeightBytes;
+        }
+
+        public int getMaxCachedIds() {
+            return maxCachedIds;
+        }
+
+        public void setMaxCachedIds(int maxCachedIds) {
+            this.maxCachedIds = maxCachedIds;
+        }
+
+        public long getExpireAfterWriteMs() {
+            return expireAfterWriteMs;
+        }
+
+        public void setExpireAfterWriteMs(long expireAfterWriteMs) {
+            this.expireAfterWriteMs = expireAfterWriteMs;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+    }
+
+    public static class Index {
+
+        /**
+         * 是否启用内存倒排索引，启用后查询优先走索引，索引未就绪时回退到SQL查询
+         */
+        private boolean enabled = false;
+
+        /**
+         * 全量构建时JDBC游标每次抓取的行数
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * 是否启用增量刷新
+         */
+        private boolean refreshEnabled = true;
+
+        /**
+         * 增量刷新间隔（毫秒）
+         */
+        private long refreshIntervalMs = 30000;
+
+        /**
+         * 增量刷新时每个新段包含的最大行数
+         */
+        private int refreshBatchSize = 5000;
+
+        /**
+         * 高水位回退的重叠窗口（毫秒），用于补读提交晚于高水位的行；重复读到的未变化行会被跳过
+         */
+        private long refreshOverlapMs = 5000;
+
+        /**
+         * 可选的更新时间列（com_basicinfo中的列名），配置后修改过的行也会被增量刷新
+         */
+        private String updateColumn;
+
+        /**
+         * 段数上限，超过后在后台合并最小的段
+         */
+        private int maxSegments = 10;
+
+        /**
+         * 是否把索引段持久化为内存映射文件，重启时直接加载
+         */
+        private boolean persistent = false;
+
+        /**
+         * 段文件目录
+         */
+        private String directory = "data/index";
+
+        /**
+         * 启动加载段文件时是否逐字节校验CRC32
+         */
+        private boolean verifyChecksums = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public boolean isRefreshEnabled() {
+            return refreshEnabled;
+        }
+
+        public void setRefreshEnabled(boolean refreshEnabled) {
+            this.refreshEnabled = refreshEnabled;
+        }
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+
+        public int getRefreshBatchSize() {
+            return refreshBatchSize;
+        }
+
+        public void setRefreshBatchSize(int refreshBatchSize) {
+            this.refreshBatchSize = refreshBatchSize;
+        }
+
+        public long getRefreshOverlapMs() {
+            return refreshOverlapMs;
+        }
+
+        public void setRefreshOverlapMs(long refreshOverlapMs) {
+            this.refreshOverlapMs = refreshOverlapMs;
+        }
+
+        public String getUpdateColumn() {
+            return updateColumn;
+        }
+
+        public void setUpdateColumn(String updateColumn) {
+            this.updateColumn = updateColumn;
+        }
+
+        public int getMaxSegments() {
+            return maxSegments;
+        }
+
+        public void setMaxSegments(int maxSegments) {
+            this.maxSegments = maxSegments;
+        }
+
+        public boolean isPersistent() {
+            return persistent;
+        }
+
+        public void setPersistent(boolean persistent) {
+            this.persistent = persistent;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public boolean isVerifyChecksums() {
+            return verifyChecksums;
+        }
+
+        public void setVerifyChecksums(boolean verifyChecksums) {
+            this.verifyChecksums = verifyChecksums;
+        }
+    }
+}
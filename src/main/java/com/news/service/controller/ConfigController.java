@@ -1,24 +1,16 @@
 package com.news.service.controller;
 
-import com.news.service.config.AppConfig;
 import com.news.service.model.ApiResponse;
 import com.news.service.model.DatabaseConfig;
 import com.news.service.model.DatabaseInfo;
+import com.news.service.service.ConfigService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Properties;
-
 /**
  * 配置管理控制器
  */
@@ -26,23 +18,11 @@ import java.util.Properties;
 @Controller
 public class ConfigController {
     
-    private final AppConfig appConfig;
-    
-    @Value("${app.config.file}")
-    private String configFilePath;
-    
-    @Value("${spring.datasource.driver-class-name:}")
-    private String driverClassName;
-    
-    @Value("${spring.datasource.url:}")
-    private String url;
-    
-    @Value("${spring.datasource.username:}")
-    private String username;
+    private final ConfigService configService;
     
     @Autowired
-    public ConfigController(AppConfig appConfig) {
-        this.appConfig = appConfig;
+    public ConfigController(ConfigService configService) {
+        this.configService = configService;
     }
     
     /**
@@ -50,18 +30,12 @@ public class ConfigController {
      */
     @GetMapping("/config")
     public String configPage(Model model) {
-        DatabaseInfo info = new DatabaseInfo();
-        info.setDriverClassName(driverClassName);
-        info.setUrl(url);
-        info.setUsername(username);
-        info.setEnabled(appConfig.isDataSourceEnabled());
-        
-        model.addAttribute("databaseInfo", info);
+        model.addAttribute("databaseInfo", configService.getDatabaseInfo());
         return "config";
     }
     
     /**
-     * 更新数据库配置
+     * 更新数据库配置，保存后立即替换数据源，无需重启
      */
     @PostMapping("/api/config/database")
     @ResponseBody
@@ -69,49 +43,8 @@ public class ConfigController {
         log.info("接收到数据库配置更新请求");
         
         try {
-            // 验证配置文件路径
-            File configFile = new File(configFilePath);
-            if (!configFile.exists()) {
-                File parentDir = configFile.getParentFile();
-                if (parentDir != null && !parentDir.exists()) {
-                    if (!parentDir.mkdirs()) {
-                        throw new IOException("创建配置文件目录失败");
-                    }
-                }
-                if (!configFile.createNewFile()) {
-                    throw new IOException("创建配置文件失败");
-                }
-            }
-            
-            // 读取现有配置
-            Properties properties = new Properties();
-            if (configFile.length() > 0) {
-                properties.load(Files.newInputStream(Paths.get(configFilePath)));
-            }
-            
-            // 更新配置
-            properties.setProperty("spring.datasource.enabled", String.valueOf(config.isEnabled()));
-            if (config.isEnabled()) {
-                properties.setProperty("spring.datasource.driver-class-name", config.getDriverClassName());
-                properties.setProperty("spring.datasource.url", config.getUrl());
-                properties.setProperty("spring.datasource.username", config.getUsername());
-                if (config.getPassword() != null && !config.getPassword().isEmpty()) {
-                    properties.setProperty("spring.datasource.password", config.getPassword());
-                }
-            } else {
-                properties.remove("spring.datasource.driver-class-name");
-                properties.remove("spring.datasource.url");
-                properties.remove("spring.datasource.username");
-                properties.remove("spring.datasource.password");
-            }
-            
-            // 保存配置
-            try (FileOutputStream out = new FileOutputStream(configFile)) {
-                properties.store(out, "数据库配置");
-            }
-            
-            // 重新加载配置
-            appConfig.reloadConfig();
+            // 新连接池建立成功并替换当前数据源后才写入配置文件
+            configService.updateDatabaseConfig(config);
             
             log.info("数据库配置更新成功");
             return ResponseEntity.ok(ApiResponse.success(null));
@@ -123,6 +56,32 @@ public class ConfigController {
         }
     }
     
+    /**
+     * 测试数据库连接
+     */
+    @PostMapping("/api/config/database/test")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Void>> testDatabaseConnection(@RequestBody DatabaseConfig config) {
+        String message = configService.testDatabaseConnection(config);
+        return ResponseEntity.ok(new ApiResponse<>("数据库连接测试成功".equals(message), message));
+    }
+    
+    /**
+     * 按已保存的配置重新加载数据源
+     */
+    @PostMapping("/api/config/reload")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Void>> reloadConfig() {
+        try {
+            configService.reloadConfig();
+            return ResponseEntity.ok(ApiResponse.success(null));
+        } catch (Exception e) {
+            log.error("重新加载配置失败: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("重新加载配置失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取当前数据库配置信息
      */
@@ -130,13 +89,7 @@ public class ConfigController {
     @ResponseBody
     public ResponseEntity<ApiResponse<DatabaseInfo>> getDatabaseConfig() {
         try {
-            DatabaseInfo info = new DatabaseInfo();
-            info.setDriverClassName(driverClassName);
-            info.setUrl(url);
-            info.setUsername(username);
-            info.setEnabled(appConfig.isDataSourceEnabled());
-            
-            return ResponseEntity.ok(ApiResponse.success(info));
+            return ResponseEntity.ok(ApiResponse.success(configService.getDatabaseInfo()));
             
         } catch (Exception e) {
             log.error("获取数据库配置失败: {}", e.getMessage(), e);
@@ -0,0 +1,119 @@
+package com.news.service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.news.service.config.SearchProperties;
+import com.news.service.model.ApiResponse;
+import com.news.service.query.CompiledQuery;
+import com.news.service.service.ExportCursor;
+import com.news.service.service.ExportService;
+import com.news.service.util.ExportFormat;
+import com.news.service.util.ExportWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 批量导出控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final SearchProperties searchProperties;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportController(ExportService exportService, SearchProperties searchProperties, ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        this.searchProperties = searchProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 导出全部匹配记录为CSV或JSONL
+     *
+     * 关键词语法与搜索相同；after 为上次收到的最后一条记录的 cursor，从其后继续导出。
+     * 客户端接受gzip时边导出边压缩。开始输出后状态码已经发出，导出失败时连接被中断，客户端按最后的 cursor 续传。
+     */
+    @GetMapping("/export")
+    public ResponseEntity<ApiResponse<Void>> export(@RequestParam String keywords,
+                                                    @RequestParam(required = false) String format,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                    HttpServletResponse response) throws IOException {
+        log.info("收到导出请求: keywords={}, format={}, after={}", keywords, format, after);
+
+        if (keywords == null || keywords.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("关键词不能为空"));
+        }
+        if (!exportService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error("服务暂时不可用"));
+        }
+        ExportFormat exportFormat;
+        ExportCursor cursor;
+        try {
+            exportFormat = ExportFormat.of(format);
+            cursor = after != null && !after.trim().isEmpty() ? ExportCursor.decode(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+        CompiledQuery query = exportService.compile(keywords);
+        if (query.isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("无有效搜索条件"));
+        }
+
+        SearchProperties.Export config = searchProperties.getExport();
+        boolean gzip = config.isGzipEnabled() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setContentType(exportFormat.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"export." + exportFormat.getExtension() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (gzip) {
+            // 已设置Content-Encoding的响应不会再被Tomcat压缩
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        // 同步刷新的GZIP流在每次刷新时输出已压缩的数据，客户端不必等到导出结束
+        OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024, true)
+                : response.getOutputStream();
+        ExportWriter writer = new ExportWriter(objectMapper, exportFormat, out, config.getFlushRows());
+        try {
+            if (cursor == null) {
+                // 续传的片段拼接到原文件后，不再输出BOM和表头
+                writer.writeHeader();
+            }
+            long count = exportService.export(query, cursor, writer);
+            writer.close();
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+            log.info("导出完成，共写出 {} 条记录", count);
+        } catch (UncheckedIOException e) {
+            log.warn("客户端已断开，导出中止，已写出 {} 条记录: {}", writer.getWritten(), e.getMessage());
+        } catch (RuntimeException e) {
+            // 不写出完整的压缩尾部，客户端能发现导出不完整并续传
+            log.error("导出失败，已写出 {} 条记录: {}", writer.getWritten(), e.getMessage(), e);
+            throw e;
+        }
+        // 记录已直接写入响应
+        return null;
+    }
+}
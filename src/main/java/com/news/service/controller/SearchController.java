@@ -1,16 +1,32 @@
 package com.news.service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.news.service.config.SearchProperties;
 import com.news.service.model.ApiResponse;
 import com.news.service.model.PageResult;
 import com.news.service.model.SearchRequest;
 import com.news.service.model.SearchResult;
+import com.news.service.service.AsyncSearchService;
+import com.news.service.service.SearchAfter;
 import com.news.service.service.SearchService;
+import com.news.service.service.SearchTimeoutException;
+import com.news.service.util.ResultStreamWriter;
+import com.news.service.util.StreamFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api")
 public class SearchController {
@@ -20,42 +36,181 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private AsyncSearchService asyncSearchService;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/search")
-    public ResponseEntity<?> search(@RequestBody SearchRequest request) {
+    public ResponseEntity<ApiResponse<PageResult<SearchResult>>> search(@RequestBody SearchRequest request) {
         logger.info("收到搜索请求：{}", request);
 
         if (request.getKeywords() == null || request.getKeywords().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "关键词不能为空"));
+            return ResponseEntity.badRequest().body(ApiResponse.error("关键词不能为空"));
+        }
+        String invalid = invalidSearchAfter(request);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(invalid));
         }
+        if (!searchService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error("服务暂时不可用"));
+        }
+
+        PageResult<SearchResult> results = searchService.search(request);
 
-        PageResult<SearchResult> results = searchService.search(
-                request.getKeywords(),
-                request.getPage(),
-                request.getSize()
-        );
+        logger.info("搜索完成，共找到 {} 条结果", results.getTotalElements());
+        return ResponseEntity.ok(new ApiResponse<>(true, "搜索成功", results));
+    }
+
+    /**
+     * 异步搜索：在专用线程池上执行，不占用请求线程；排队已满或超过截止时间时返回503
+     */
+    @PostMapping("/search/async")
+    public CompletableFuture<ResponseEntity<ApiResponse<PageResult<SearchResult>>>> searchAsync(
+            @RequestBody SearchRequest request) {
+        logger.info("收到异步搜索请求：{}", request);
 
-        if (results == null) {
-            return ResponseEntity.status(503).body(new ApiResponse(false, "服务暂时不可用"));
+        if (request.getKeywords() == null || request.getKeywords().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error("关键词不能为空")));
+        }
+        String invalid = invalidSearchAfter(request);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error(invalid)));
+        }
+        if (!searchService.isAvailable()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error("服务暂时不可用")));
         }
 
-        logger.info("搜索完成，共找到 {} 条结果", results.getTotalElements());
-        return ResponseEntity.ok(new ApiResponse(true, "搜索成功", results));
+        return asyncSearchService.search(request)
+                .thenApply(results -> {
+                    logger.info("异步搜索完成，共找到 {} 条结果", results.getTotalElements());
+                    return ResponseEntity.ok(new ApiResponse<>(true, "搜索成功", results));
+                })
+                .exceptionally(SearchController::asyncFailure);
+    }
+
+    /**
+     * 流式搜索：结果以NDJSON或SSE逐条写出，不等待完整的分页结果。
+     * 格式由 format 参数（ndjson/sse）或Accept请求头选择，limit 限制返回条数，分页参数被忽略
+     */
+    @PostMapping("/search/stream")
+    public ResponseEntity<ApiResponse<Void>> searchStream(@RequestBody SearchRequest request,
+                                                          @RequestParam(required = false) String format,
+                                                          @RequestParam(defaultValue = "0") long limit,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                          HttpServletResponse response) throws IOException {
+        return stream(request, format, limit, accept, response);
+    }
+
+    /**
+     * 流式搜索的GET形式，供浏览器的EventSource使用，搜索条件通过查询参数传递
+     */
+    @GetMapping("/search/stream")
+    public ResponseEntity<ApiResponse<Void>> searchStreamGet(SearchRequest request,
+                                                             @RequestParam(required = false) String format,
+                                                             @RequestParam(defaultValue = "0") long limit,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                             HttpServletResponse response) throws IOException {
+        return stream(request, format, limit, accept, response);
     }
 
     @GetMapping("/count")
-    public ResponseEntity<?> count(@RequestParam String keywords) {
+    public ResponseEntity<ApiResponse<Long>> count(@RequestParam String keywords) {
         logger.info("收到统计请求，关键词：{}", keywords);
 
         if (keywords == null || keywords.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "关键词不能为空"));
+            return ResponseEntity.badRequest().body(ApiResponse.error("关键词不能为空"));
         }
-
-        int count = searchService.count(keywords);
-        if (count < 0) {
-            return ResponseEntity.status(503).body(new ApiResponse(false, "服务暂时不可用"));
+        if (!searchService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error("服务暂时不可用"));
         }
 
+        long count = searchService.count(keywords);
+
         logger.info("统计完成，共找到 {} 条结果", count);
-        return ResponseEntity.ok(new ApiResponse(true, "统计成功", count));
+        return ResponseEntity.ok(new ApiResponse<>(true, "统计成功", count));
+    }
+
+    /**
+     * 参数有误时返回JSON错误；开始输出后状态码已经发出，失败时写出 error 记录结束输出，客户端断开时直接停止查询
+     */
+    private ResponseEntity<ApiResponse<Void>> stream(SearchRequest request, String format, long limit, String accept,
+                                                     HttpServletResponse response) throws IOException {
+        logger.info("收到流式搜索请求：{}, format={}, limit={}", request, format, limit);
+
+        if (request.getKeywords() == null || request.getKeywords().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("关键词不能为空"));
+        }
+        if (!searchService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error("服务暂时不可用"));
+        }
+        StreamFormat streamFormat;
+        try {
+            streamFormat = StreamFormat.of(format, accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        response.setContentType(streamFormat.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // 关闭Nginx等反向代理的响应缓冲，结果到达客户端不被延迟
+        response.setHeader("X-Accel-Buffering", "no");
+
+        ResultStreamWriter writer = new ResultStreamWriter(objectMapper, streamFormat, response.getOutputStream(),
+                searchProperties.getStream().getFlushRows());
+        try {
+            long count = searchService.stream(request, limit, result -> {
+                try {
+                    writer.writeResult(result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.writeDone(count);
+            logger.info("流式搜索完成，共写出 {} 条结果", count);
+        } catch (UncheckedIOException e) {
+            logger.warn("客户端已断开，流式搜索中止，已写出 {} 条结果: {}", writer.getWritten(), e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            logger.error("流式搜索失败，已写出 {} 条结果: {}", writer.getWritten(), e.getMessage(), e);
+            writer.writeError("搜索失败: " + e.getMessage());
+        }
+        writer.close();
+        // 结果已直接写入响应
+        return null;
+    }
+
+    /**
+     * 检查游标分页令牌
+     *
+     * @return 令牌无效或与排序方式不一致时的错误信息，否则为null
+     */
+    private static String invalidSearchAfter(SearchRequest request) {
+        try {
+            SearchAfter.from(request);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> asyncFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error("搜索繁忙，请稍后重试"));
+        }
+        if (cause instanceof SearchTimeoutException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error(cause.getMessage()));
+        }
+        logger.error("异步搜索失败: {}", cause.getMessage(), cause);
+        return ResponseEntity.internalServerError().body(ApiResponse.error("搜索失败: " + cause.getMessage()));
     }
 }
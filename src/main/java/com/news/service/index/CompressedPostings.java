@@ -0,0 +1,112 @@
+package com.news.service.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 压缩倒排表
+ *
+ * 升序文档号做差分后按变长字节（VByte）编码，每个差值通常只占1~2字节
+ */
+public final class CompressedPostings {
+
+    private final byte[] data;
+    private final int docCount;
+
+    private CompressedPostings(byte[] data, int docCount) {
+        this.data = data;
+        this.docCount = docCount;
+    }
+
+    /**
+     * 编码升序且不重复的文档号
+     *
+     * @param docs 文档号数组
+     * @param size 有效长度
+     * @return 压缩后的倒排表
+     */
+    public static CompressedPostings encode(int[] docs, int size) {
+        byte[] buffer = new byte[Math.max(8, size * 2)];
+        int pos = 0;
+        int prev = 0;
+        for (int i = 0; i < size; i++) {
+            int delta = docs[i] - prev;
+            prev = docs[i];
+            if (pos + 5 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                buffer[pos++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[pos++] = (byte) delta;
+        }
+        return new CompressedPostings(Arrays.copyOf(buffer, pos), size);
+    }
+
+    /**
+     * 解码为升序文档号数组
+     */
+    public int[] decode() {
+        int[] docs = new int[docCount];
+        int pos = 0;
+        int doc = 0;
+        for (int i = 0; i < docCount; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            doc += delta;
+            docs[i] = doc;
+        }
+        return docs;
+    }
+
+    /**
+     * 从字节缓冲区（如内存映射的段文件）中解码倒排表，使用绝对位置读取，不修改缓冲区状态
+     *
+     * @param buffer   缓冲区
+     * @param offset   倒排表起始位置
+     * @param docCount 文档数
+     * @return 升序文档号数组
+     */
+    public static int[] decode(ByteBuffer buffer, int offset, int docCount) {
+        int[] docs = new int[docCount];
+        int pos = offset;
+        int doc = 0;
+        for (int i = 0; i < docCount; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(pos++);
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            doc += delta;
+            docs[i] = doc;
+        }
+        return docs;
+    }
+
+    /**
+     * 写出编码后的字节
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(data);
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public int sizeInBytes() {
+        return data.length;
+    }
+}
@@ -0,0 +1,17 @@
+package com.news.service.index;
+
+import java.io.IOException;
+
+/**
+ * 索引文件损坏异常，段文件或清单校验失败时抛出
+ */
+public class CorruptIndexException extends IOException {
+
+    public CorruptIndexException(String message) {
+        super(message);
+    }
+
+    public CorruptIndexException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,48 @@
+package com.news.service.index;
+
+import java.util.Date;
+
+/**
+ * 待写入索引的文档
+ */
+public final class IndexDocument {
+    private final String id;
+    private final String name;
+    private final Date created;
+    private final long modified;        // 版本时间戳：CREATED与更新时间列中较大者
+    private final String fullContent;   // 完整正文，用于分词；未提取到内容时为空
+    private final String snippet;       // 截断后的摘要，用于评分、高亮和展示
+
+    public IndexDocument(String id, String name, Date created, long modified, String fullContent, String snippet) {
+        this.id = id;
+        this.name = name;
+        this.created = created;
+        this.modified = modified;
+        this.fullContent = fullContent;
+        this.snippet = snippet;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public String getFullContent() {
+        return fullContent;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
@@ -0,0 +1,137 @@
+package com.news.service.index;
+
+import com.news.service.config.SearchProperties;
+import com.news.service.util.XmlContentExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 索引加载器
+ *
+ * 通过只进游标扫描 cob_program/com_basicinfo，逐行提取正文并转换为索引文档。
+ * 支持全量扫描和按版本时间戳（CREATED及可配置的更新时间列）的增量扫描。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.index.enabled", havingValue = "true")
+public class IndexLoader {
+
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final XmlContentExtractor xmlContentExtractor;
+    private final SearchProperties searchProperties;
+
+    @Autowired
+    public IndexLoader(JdbcTemplate jdbcTemplate, XmlContentExtractor xmlContentExtractor,
+                       SearchProperties searchProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.xmlContentExtractor = xmlContentExtractor;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * 全量扫描
+     *
+     * @param consumer 文档接收器
+     * @return 扫描的行数
+     */
+    public long scanAll(Consumer<IndexDocument> consumer) {
+        return scan(selectClause(), null, consumer);
+    }
+
+    /**
+     * 增量扫描版本时间戳不早于指定时间的行
+     *
+     * @param since    起始时间（毫秒，包含）
+     * @param consumer 文档接收器
+     * @return 扫描的行数
+     */
+    public long scanSince(long since, Consumer<IndexDocument> consumer) {
+        String updateColumn = updateColumn();
+        String sql = selectClause() + " WHERE b.CREATED >= ?";
+        if (updateColumn != null) {
+            sql += " OR b." + updateColumn + " >= ?";
+        }
+        return scan(sql, new Timestamp(since), consumer);
+    }
+
+    private long scan(String sql, Timestamp since, Consumer<IndexDocument> consumer) {
+        int fetchSize = searchProperties.getIndex().getFetchSize();
+        boolean hasUpdateColumn = updateColumn() != null;
+        long[] rows = new long[1];
+
+        log.debug("执行索引扫描: {}", sql);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+                if (hasUpdateColumn) {
+                    ps.setTimestamp(2, since);
+                }
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(toDocument(rs, hasUpdateColumn));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private IndexDocument toDocument(ResultSet rs, boolean hasUpdateColumn) throws SQLException {
+        String id = rs.getString("ID");
+        String name = rs.getString("NAME");
+        Timestamp created = rs.getTimestamp("CREATED");
+
+        long modified = created != null ? created.getTime() : IndexSegment.NO_TIMESTAMP;
+        if (hasUpdateColumn) {
+            Timestamp updated = rs.getTimestamp("modified_at");
+            if (updated != null) {
+                modified = Math.max(modified, updated.getTime());
+            }
+        }
+
+        String fullContent = xmlContentExtractor.extractContent(rs, "xml_content", 0);
+        String snippet = XmlContentExtractor.truncate(fullContent, XmlContentExtractor.SNIPPET_LENGTH);
+        String indexedText = XmlContentExtractor.isPlaceholder(fullContent) ? null : fullContent;
+
+        return new IndexDocument(id, name, created != null ? new Date(created.getTime()) : null,
+                modified, indexedText, snippet);
+    }
+
+    private String selectClause() {
+        String updateColumn = updateColumn();
+        return "SELECT b.ID, b.NAME, b.CREATED, p.FIELD1079 as xml_content"
+                + (updateColumn != null ? ", b." + updateColumn + " as modified_at" : "")
+                + " FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id";
+    }
+
+    /**
+     * 配置的更新时间列名，未配置时返回null
+     */
+    private String updateColumn() {
+        String column = searchProperties.getIndex().getUpdateColumn();
+        if (!StringUtils.hasText(column)) {
+            return null;
+        }
+        column = column.trim();
+        if (!COLUMN_NAME.matcher(column).matches()) {
+            throw new IllegalStateException("非法的更新时间列名: " + column);
+        }
+        return column;
+    }
+}
@@ -0,0 +1,357 @@
+package com.news.service.index;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.DataSourceChangedEvent;
+import com.news.service.config.SearchProperties;
+import com.news.service.service.SearchResultCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 索引管理器
+ *
+ * 持有当前发布的索引快照，负责全量重建、增量刷新和段合并。
+ * 写操作串行执行，每批新文档构建为新段后生成新快照并整体替换，查询线程不会被阻塞。
+ * 启用持久化时，新段写入段文件并以内存映射方式打开，每次发布后提交清单；
+ * 重启时直接按清单映射已有段，清单或段文件校验失败则回退到SQL查询并在后台全量重建。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.index.enabled", havingValue = "true")
+public class IndexManager {
+
+    private final IndexLoader indexLoader;
+    private final SegmentStore segmentStore;
+    private final SearchResultCache searchResultCache;
+    private final SearchProperties searchProperties;
+    private final AppConfig appConfig;
+
+    private final Object writeLock = new Object();
+    private volatile IndexSnapshot snapshot;
+
+    @Autowired
+    public IndexManager(IndexLoader indexLoader, SegmentStore segmentStore, SearchResultCache searchResultCache,
+                        SearchProperties searchProperties, AppConfig appConfig) {
+        this.indexLoader = indexLoader;
+        this.segmentStore = segmentStore;
+        this.searchResultCache = searchResultCache;
+        this.searchProperties = searchProperties;
+        this.appConfig = appConfig;
+    }
+
+    /**
+     * 应用启动完成后优先加载已持久化的段，否则在后台线程全量构建索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!appConfig.isDataSourceEnabled()) {
+            log.warn("数据库未启用，跳过内存索引构建");
+            return;
+        }
+
+        if (segmentStore.isEnabled()) {
+            long start = System.currentTimeMillis();
+            try {
+                IndexSnapshot loaded = segmentStore.load();
+                if (loaded != null) {
+                    snapshot = loaded;
+                    searchResultCache.advanceHighWaterMark(loaded.highWaterMark());
+                    log.info("已加载持久化索引，段数: {}, 有效文档数: {}, 耗时: {} ms",
+                            loaded.segmentCount(), loaded.liveDocCount(), System.currentTimeMillis() - start);
+                    return;
+                }
+                log.info("未找到持久化索引，开始全量构建");
+            } catch (IOException e) {
+                log.error("持久化索引校验失败，回退到SQL查询并在后台重建: {}", e.getMessage(), e);
+            }
+        }
+
+        Thread builder = new Thread(this::rebuild, "index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * 切换到其他数据库后撤下当前索引（查询回退到SQL），在后台按新数据库全量重建
+     */
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        if (!event.isTargetChanged()) {
+            return;
+        }
+        snapshot = null;
+        if (!appConfig.isDataSourceEnabled()) {
+            log.warn("数据库已停用，撤下内存索引");
+            return;
+        }
+
+        log.info("数据源已切换，后台重建内存索引");
+        Thread builder = new Thread(this::rebuild, "index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * 当前发布的快照，索引尚未就绪时返回null
+     */
+    public IndexSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 全量重建索引，构建完成后原子替换
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            log.info("====> 开始全量构建内存索引");
+            long start = System.currentTimeMillis();
+            try {
+                IndexSegment.Builder builder = new IndexSegment.Builder();
+                long[] highWaterMark = {Long.MIN_VALUE};
+
+                indexLoader.scanAll(doc -> {
+                    builder.addDocument(doc);
+                    highWaterMark[0] = Math.max(highWaterMark[0], doc.getModified());
+                    if (builder.docCount() % 10000 == 0) {
+                        log.info("内存索引构建中，已处理 {} 行", builder.docCount());
+                    }
+                });
+
+                IndexSegment segment = persist(builder.build());
+                IndexSnapshot built = IndexSnapshot.EMPTY.withSegment(segment, highWaterMark[0]);
+                snapshot = built;
+                searchResultCache.advanceHighWaterMark(highWaterMark[0]);
+                commit(built);
+                log.info("<==== 内存索引构建完成，文档数: {}, 词项数: {}, 倒排表大小: {} 字节, 耗时: {} ms",
+                        segment.docCount(), segment.termCount(), segment.postingsSizeInBytes(),
+                        System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.error("内存索引构建失败，继续使用SQL查询: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 增量刷新：读取高水位之后新增或修改的行，按批构建新段并逐批发布
+     *
+     * @return 本次刷新的统计信息，索引未就绪时返回null
+     */
+    public RefreshStats refresh() {
+        synchronized (writeLock) {
+            IndexSnapshot base = snapshot;
+            if (base == null) {
+                return null;
+            }
+
+            SearchProperties.Index config = searchProperties.getIndex();
+            long since = base.highWaterMark() == Long.MIN_VALUE
+                    ? 0L : base.highWaterMark() - config.getRefreshOverlapMs();
+            int batchSize = Math.max(1, config.getRefreshBatchSize());
+
+            long start = System.currentTimeMillis();
+            Map<String, IndexDocument> pending = new LinkedHashMap<>();
+            List<Integer> batchSizes = new ArrayList<>();
+            IndexSnapshot[] current = {base};
+
+            long scanned = indexLoader.scanSince(since, doc -> {
+                if (isUnchanged(current[0], doc)) {
+                    return;
+                }
+                pending.remove(doc.getId());
+                pending.put(doc.getId(), doc);
+                if (pending.size() >= batchSize) {
+                    current[0] = publish(current[0], pending, batchSizes);
+                }
+            });
+            if (!pending.isEmpty()) {
+                current[0] = publish(current[0], pending, batchSizes);
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            int applied = 0;
+            for (int size : batchSizes) {
+                applied += size;
+            }
+            if (applied > 0) {
+                log.info("内存索引增量刷新完成，扫描 {} 行，写入 {} 行，批次 {}，段数 {}，耗时 {} ms",
+                        scanned, applied, batchSizes.size(), current[0].segmentCount(), elapsed);
+            } else {
+                log.debug("内存索引增量刷新完成，无新数据，扫描 {} 行，耗时 {} ms", scanned, elapsed);
+            }
+            return new RefreshStats(scanned, applied, Collections.unmodifiableList(batchSizes), elapsed);
+        }
+    }
+
+    /**
+     * 重叠窗口内重复读到的行，如果索引中已有相同或更新的版本则跳过
+     */
+    private static boolean isUnchanged(IndexSnapshot snapshot, IndexDocument doc) {
+        long ref = snapshot.findLive(doc.getId());
+        if (ref < 0) {
+            return false;
+        }
+        IndexSegment segment = snapshot.segment(IndexSnapshot.segmentOf(ref));
+        return segment.getModified(IndexSnapshot.docOf(ref)) >= doc.getModified();
+    }
+
+    private IndexSnapshot publish(IndexSnapshot base, Map<String, IndexDocument> pending, List<Integer> batchSizes) {
+        IndexSegment.Builder builder = new IndexSegment.Builder();
+        long highWaterMark = base.highWaterMark();
+        for (IndexDocument doc : pending.values()) {
+            builder.addDocument(doc);
+            highWaterMark = Math.max(highWaterMark, doc.getModified());
+        }
+
+        IndexSnapshot next = base.withSegment(persist(builder.build()), highWaterMark);
+        snapshot = next;
+        searchResultCache.advanceHighWaterMark(next.highWaterMark());
+        next = commit(next);
+        batchSizes.add(pending.size());
+        pending.clear();
+        return next;
+    }
+
+    /**
+     * 段数超过上限时，把最小的若干段合并为一个，使段数回到上限以内
+     *
+     * @return 是否执行了合并
+     */
+    public boolean maybeMerge() {
+        synchronized (writeLock) {
+            IndexSnapshot base = snapshot;
+            int maxSegments = Math.max(1, searchProperties.getIndex().getMaxSegments());
+            if (base == null || base.segmentCount() <= maxSegments) {
+                return false;
+            }
+
+            long start = System.currentTimeMillis();
+            int mergeCount = base.segmentCount() - maxSegments + 1;
+            Integer[] order = new Integer[base.segmentCount()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(base.segment(a).docCount(), base.segment(b).docCount()));
+
+            int[] indices = new int[mergeCount];
+            for (int i = 0; i < mergeCount; i++) {
+                indices[i] = order[i];
+            }
+            Arrays.sort(indices);
+
+            IndexSegment merged = persist(SegmentMerger.merge(base, indices));
+            IndexSnapshot next = base.withMerged(merged, indices);
+            snapshot = next;
+            next = commit(next);
+
+            log.info("索引段合并完成，合并 {} 个段为 {} 个文档，当前段数: {}, 耗时: {} ms",
+                    mergeCount, merged.docCount(), next.segmentCount(), System.currentTimeMillis() - start);
+            return true;
+        }
+    }
+
+    /**
+     * 启用持久化时把段写入段文件并映射回来，写入失败时保留堆内段继续服务，下次提交清单前重试
+     */
+    private IndexSegment persist(IndexSegment segment) {
+        if (!segmentStore.isEnabled()) {
+            return segment;
+        }
+        try {
+            return segmentStore.persist(segment);
+        } catch (IOException e) {
+            log.error("写入段文件失败，该段保留在内存中: {}", e.getMessage(), e);
+            return segment;
+        }
+    }
+
+    /**
+     * 启用持久化时提交快照清单，失败只记录日志，下次发布时重试
+     *
+     * 清单只能引用段文件，之前写入失败而留在堆内的段先重新写入并替换进快照；
+     * 仍有段写入失败时本次不提交，已写入的段照常发布
+     *
+     * @return 替换堆内段之后发布的快照
+     */
+    private IndexSnapshot commit(IndexSnapshot next) {
+        if (!segmentStore.isEnabled()) {
+            return next;
+        }
+        IndexSnapshot current = next;
+        boolean complete = true;
+        for (int i = 0; i < current.segmentCount(); i++) {
+            if (current.segment(i) instanceof MappedSegment) {
+                continue;
+            }
+            try {
+                current = current.withReplaced(i, segmentStore.persist(current.segment(i)));
+            } catch (IOException e) {
+                log.error("重新写入段文件失败，暂不提交索引清单: {}", e.getMessage(), e);
+                complete = false;
+                break;
+            }
+        }
+        // 数据源切换时快照已被撤下，不再发布
+        if (current != next && snapshot == next) {
+            snapshot = current;
+        }
+        if (!complete) {
+            return current;
+        }
+
+        try {
+            segmentStore.commit(current);
+        } catch (IOException | IllegalStateException e) {
+            log.error("提交索引清单失败: {}", e.getMessage(), e);
+        }
+        return current;
+    }
+
+    /**
+     * 增量刷新统计
+     */
+    public static final class RefreshStats {
+        private final long rowsScanned;
+        private final int rowsApplied;
+        private final List<Integer> batchSizes;
+        private final long elapsedMillis;
+
+        RefreshStats(long rowsScanned, int rowsApplied, List<Integer> batchSizes, long elapsedMillis) {
+            this.rowsScanned = rowsScanned;
+            this.rowsApplied = rowsApplied;
+            this.batchSizes = batchSizes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getRowsScanned() {
+            return rowsScanned;
+        }
+
+        public int getRowsApplied() {
+            return rowsApplied;
+        }
+
+        public List<Integer> getBatchSizes() {
+            return batchSizes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
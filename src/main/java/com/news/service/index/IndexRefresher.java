@@ -0,0 +1,103 @@
+package com.news.service.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 索引增量刷新任务
+ *
+ * 定时轮询高水位之后的新增/修改行并写入索引，随后按需合并段以控制段数，
+ * 同时通过actuator导出摄入指标：摄入延迟、批次大小、每秒行数等
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"app.search.index.enabled", "app.search.index.refresh-enabled"}, havingValue = "true")
+public class IndexRefresher {
+
+    private final IndexManager indexManager;
+
+    private final Timer refreshTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rowsCounter;
+    private volatile double lastRowsPerSecond;
+
+    @Autowired
+    public IndexRefresher(IndexManager indexManager, MeterRegistry meterRegistry) {
+        this.indexManager = indexManager;
+
+        this.refreshTimer = Timer.builder("news.index.refresh")
+                .description("增量刷新耗时")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("news.index.ingest.batch.size")
+                .description("每批写入索引的行数")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.rowsCounter = Counter.builder("news.index.ingest.rows")
+                .description("累计写入索引的行数")
+                .baseUnit("rows")
+                .register(meterRegistry);
+
+        Gauge.builder("news.index.ingest.rows.per.second", this, r -> r.lastRowsPerSecond)
+                .description("最近一次增量刷新的写入速度")
+                .register(meterRegistry);
+        Gauge.builder("news.index.ingest.lag", indexManager, IndexRefresher::ingestLagSeconds)
+                .description("当前时间与已索引最新文档版本时间的差值")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("news.index.documents", indexManager,
+                        m -> m.isReady() ? m.snapshot().liveDocCount() : Double.NaN)
+                .description("索引中的有效文档数")
+                .register(meterRegistry);
+        Gauge.builder("news.index.segments", indexManager,
+                        m -> m.isReady() ? m.snapshot().segmentCount() : Double.NaN)
+                .description("索引段数")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval-ms:30000}",
+            initialDelayString = "${app.search.index.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!indexManager.isReady()) {
+            log.debug("内存索引尚未就绪，跳过增量刷新");
+            return;
+        }
+
+        try {
+            IndexManager.RefreshStats stats = indexManager.refresh();
+            if (stats == null) {
+                return;
+            }
+
+            refreshTimer.record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+            for (int size : stats.getBatchSizes()) {
+                batchSizeSummary.record(size);
+            }
+            rowsCounter.increment(stats.getRowsApplied());
+            lastRowsPerSecond = stats.getElapsedMillis() > 0
+                    ? stats.getRowsApplied() * 1000.0 / stats.getElapsedMillis()
+                    : 0.0;
+
+            indexManager.maybeMerge();
+        } catch (Exception e) {
+            log.error("内存索引增量刷新失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private static double ingestLagSeconds(IndexManager manager) {
+        IndexSnapshot current = manager.snapshot();
+        if (current == null || current.highWaterMark() == Long.MIN_VALUE) {
+            return Double.NaN;
+        }
+        return Math.max(0, System.currentTimeMillis() - current.highWaterMark()) / 1000.0;
+    }
+}
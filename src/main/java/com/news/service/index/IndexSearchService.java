@@ -0,0 +1,590 @@
+package com.news.service.index;
+
+import com.news.service.config.SearchProperties;
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchRequest;
+import com.news.service.model.SearchResult;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryCompiler;
+import com.news.service.query.QueryNode;
+import com.news.service.service.QueryKey;
+import com.news.service.service.RankedResult;
+import com.news.service.service.SearchAfter;
+import com.news.service.service.SearchCandidate;
+import com.news.service.service.SearchDeadline;
+import com.news.service.service.SearchMetrics;
+import com.news.service.service.SearchResultCache;
+import com.news.service.service.SearchService;
+import com.news.service.service.SearchServiceImpl;
+import com.news.service.service.SearchTimeoutException;
+import com.news.service.service.SearchTrace;
+import com.news.service.service.TopKCollector;
+import com.news.service.util.Bm25Scorer;
+import com.news.service.util.DocumentScorer;
+import com.news.service.util.KeywordAutomaton;
+import com.news.service.util.KeywordHighlighter;
+import com.news.service.util.RankingModel;
+import com.news.service.util.RelevanceScorer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 基于内存倒排索引的搜索服务
+ *
+ * 启用后作为首选的 {@link SearchService} 实现，查询完全在内存中完成，不访问数据库；
+ * 索引尚未构建完成时回退到 {@link SearchServiceImpl} 的SQL查询。
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "app.search.index.enabled", havingValue = "true")
+public class IndexSearchService implements SearchService {
+
+    private static final String CACHE_BACKEND = "index";
+
+    private final SearchServiceImpl sqlSearchService;
+    private final IndexManager indexManager;
+    private final SearchResultCache searchResultCache;
+    private final QueryCompiler queryCompiler;
+    private final SearchProperties searchProperties;
+    private final SearchMetrics searchMetrics;
+
+    @Autowired
+    public IndexSearchService(SearchServiceImpl sqlSearchService, IndexManager indexManager,
+                              SearchResultCache searchResultCache, QueryCompiler queryCompiler,
+                              SearchProperties searchProperties, SearchMetrics searchMetrics) {
+        this.sqlSearchService = sqlSearchService;
+        this.indexManager = indexManager;
+        this.searchResultCache = searchResultCache;
+        this.queryCompiler = queryCompiler;
+        this.searchProperties = searchProperties;
+        this.searchMetrics = searchMetrics;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return sqlSearchService.isAvailable();
+    }
+
+    @Override
+    public PageResult<SearchResult> search(SearchRequest request) {
+        SearchTrace trace = SearchTrace.begin(SearchAfter.sortField(request));
+        if (request.isProfile()) {
+            trace.profile();
+        }
+        PageResult<SearchResult> result = null;
+        try {
+            result = executeSearch(request);
+            return result;
+        } catch (RuntimeException e) {
+            SearchTrace.fail(e);
+            throw e;
+        } finally {
+            searchMetrics.finish(trace, result);
+        }
+    }
+
+    private PageResult<SearchResult> executeSearch(SearchRequest request) {
+        // 先取缓存代数再取快照，保证写入缓存的结果不早于该代数
+        long cacheGeneration = searchResultCache.generation();
+        IndexSnapshot current = indexManager.snapshot();
+        if (current == null) {
+            log.debug("内存索引尚未就绪，使用SQL查询");
+            return sqlSearchService.search(request);
+        }
+
+        try {
+            return searchIndex(current, request, cacheGeneration);
+        } catch (SearchTimeoutException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // 映射的段文件在运行中被截断或损坏时，读取会抛出越界等异常
+            log.error("索引搜索失败，回退到SQL查询: {}", e.getMessage(), e);
+            SearchTrace.backend("sql");
+            return sqlSearchService.search(request);
+        }
+    }
+
+    /**
+     * 流式搜索需要按游标顺序读取内容，直接使用SQL查询
+     */
+    @Override
+    public long stream(SearchRequest request, long limit, Consumer<SearchResult> sink) {
+        return sqlSearchService.stream(request, limit, sink);
+    }
+
+    private PageResult<SearchResult> searchIndex(IndexSnapshot current, SearchRequest request, long cacheGeneration) {
+        log.debug("====> 开始执行索引搜索: keywords={}, page={}, size={}, sortField={}, sortDirection={}",
+                request.getKeywords(), request.getPage(), request.getSize(),
+                request.getSortField(), request.getSortDirection());
+
+        SearchTrace.backend("index");
+        CompiledQuery query = queryCompiler.compile(request.getKeywords());
+        if (query.isEmpty()) {
+            log.warn("关键词为空，返回空结果");
+            return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), 0);
+        }
+        SearchTrace.query(query);
+
+        // 每个段中各关键词匹配的文档，求值、统计文档频率和估算分数上界共用
+        List<Map<String, int[]>> keywordDocs = new ArrayList<>(current.segmentCount());
+        for (int seg = 0; seg < current.segmentCount(); seg++) {
+            keywordDocs.add(new HashMap<>());
+        }
+
+        RankingModel ranking = sqlSearchService.rankingModel(request);
+        DocumentScorer scorer = scorer(current, query, ranking, keywordDocs);
+
+        if (SearchAfter.isRequested(request)) {
+            return searchIndexAfter(current, request, query, scorer, keywordDocs, SearchAfter.from(request));
+        }
+
+        QueryKey cacheKey = searchResultCache.isEnabled() ? QueryKey.of(CACHE_BACKEND, query, request, ranking) : null;
+        long from = (long) request.getPage() * request.getSize();
+        if (cacheKey != null) {
+            RankedResult cached = searchResultCache.get(cacheKey);
+            boolean hit = cached != null && cached.covers(from, request.getSize());
+            SearchTrace.cache(hit);
+            if (hit) {
+                log.debug("查询结果缓存命中: {}", cacheKey);
+                return loadPage(current, request, cached, scorer, query);
+            }
+        }
+
+        String sortField = request.getSortField();
+        boolean asc = "asc".equalsIgnoreCase(request.getSortDirection());
+        boolean nameSort = "NAME".equalsIgnoreCase(sortField);
+        boolean createdSort = "CREATED".equalsIgnoreCase(sortField);
+        boolean scoreSort = !nameSort && !createdSort;
+
+        // 只保留到当前页末尾的 (page+1)*size 个候选项
+        int limit = (int) Math.min(from + request.getSize(), Integer.MAX_VALUE);
+        TopKCollector<SearchCandidate> top = nameSort
+                ? TopKCollector.byComparator(limit, nameComparator(asc))
+                : TopKCollector.byKey(limit, asc);
+        ScoreBounds bounds = scoreSort && !asc ? ScoreBounds.of(scorer, query.getAutomaton()) : null;
+
+        long total = 0;
+        long skipped = 0;
+        for (int seg = 0; seg < current.segmentCount(); seg++) {
+            SearchDeadline.checkpoint();
+            IndexSegment segment = current.segment(seg);
+            Map<String, int[]> segmentKeywordDocs = keywordDocs.get(seg);
+            int[] docs = match(segment, query.getRoot(), segmentKeywordDocs);
+            if (bounds != null) {
+                bounds.startSegment(segment, segmentKeywordDocs);
+            }
+
+            for (int doc : docs) {
+                if (current.isDeleted(seg, doc)) {
+                    continue;
+                }
+                total++;
+
+                // 排序键不可能进入前k项的文档不读取存储字段，按分数排序时也不计算分数
+                long created = segment.getCreated(doc);
+                double createdKey = created != IndexSegment.NO_TIMESTAMP ? created : Double.POSITIVE_INFINITY;
+                if (createdSort && !top.wouldAccept(createdKey)) {
+                    skipped++;
+                    continue;
+                }
+                if (bounds != null && top.isFull() && !top.wouldAccept(bounds.upperBound(doc))) {
+                    skipped++;
+                    continue;
+                }
+
+                SearchCandidate candidate = new SearchCandidate(IndexSnapshot.docRef(seg, doc), segment.getId(doc),
+                        segment.getName(doc), created != IndexSegment.NO_TIMESTAMP ? new Date(created) : null);
+                if (scoreSort) {
+                    candidate.setScore(score(scorer, candidate.getName(), segment.getSnippet(doc)));
+                }
+                long sortStart = SearchTrace.start();
+                if (scoreSort) {
+                    top.offer(candidate.getScore(), candidate);
+                } else if (createdSort) {
+                    top.offer(createdKey, candidate);
+                } else {
+                    top.offer(candidate);
+                }
+                SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+            }
+        }
+        log.debug("索引命中文档数: {}, 跳过: {}, 排序模型: {}", total, skipped, ranking);
+        SearchTrace.rows(total);
+
+        long sortStart = SearchTrace.start();
+        List<SearchCandidate> candidates = top.drainSorted();
+        SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+        RankedResult ranked = new RankedResult(candidates, total);
+        if (cacheKey != null && candidates.size() <= searchResultCache.getMaxCachedIds()) {
+            searchResultCache.put(cacheKey, ranked, cacheGeneration);
+        }
+        return loadPage(current, request, ranked, scorer, query);
+    }
+
+    /**
+     * 为查询创建评分器，BM25的文档频率和平均字段长度直接从索引快照统计
+     */
+    private DocumentScorer scorer(IndexSnapshot current, CompiledQuery query, RankingModel ranking,
+                                  List<Map<String, int[]>> keywordDocs) {
+        KeywordAutomaton automaton = query.getAutomaton();
+        if (ranking != RankingModel.BM25) {
+            return RelevanceScorer.classic(automaton);
+        }
+
+        long start = SearchTrace.start();
+        long[] frequencies = new long[automaton.keywordCount()];
+        for (int keyword = 0; keyword < frequencies.length; keyword++) {
+            for (int seg = 0; seg < current.segmentCount(); seg++) {
+                int[] docs = keywordDocs(current.segment(seg), automaton.keyword(keyword), keywordDocs.get(seg));
+                for (int doc : docs) {
+                    if (!current.isDeleted(seg, doc)) {
+                        frequencies[keyword]++;
+                    }
+                }
+            }
+        }
+
+        SearchTrace.stage(SearchTrace.Stage.MATCH, start);
+
+        SearchProperties.Ranking config = searchProperties.getRanking();
+        return new Bm25Scorer(automaton, current.liveDocCount(), frequencies,
+                current.avgNameLength(), current.avgSnippetLength(),
+                config.getK1(), config.getTitleWeight(), config.getTitleB(), config.getContentB());
+    }
+
+    /**
+     * 从排序结果中取当前页，读取摘要并高亮。
+     * 缓存的结果可能来自合并前的快照，文档按ID在当前快照中重新定位。
+     */
+    private PageResult<SearchResult> loadPage(IndexSnapshot current, SearchRequest request, RankedResult ranked,
+                                              DocumentScorer scorer, CompiledQuery query) {
+        List<SearchCandidate> pageCandidates = ranked.page((long) request.getPage() * request.getSize(),
+                request.getSize());
+        if (pageCandidates.isEmpty()) {
+            log.warn("请求的页码超出范围，返回空结果");
+            return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), ranked.getTotal());
+        }
+
+        List<SearchResult> pagedResults = toResults(current, pageCandidates, scorer, query);
+        log.debug("<==== 结束执行索引搜索，共返回 {} 条结果", pagedResults.size());
+        return PageResult.of(pagedResults, request.getPage(), request.getSize(), ranked.getTotal());
+    }
+
+    /**
+     * 游标分页：扫描全部命中文档，跳过排在令牌之前的文档，只保留 size+1 个候选项，
+     * 多取的一个用于判断是否还有下一页
+     *
+     * @param after 上一页的令牌，第一页为null
+     */
+    private PageResult<SearchResult> searchIndexAfter(IndexSnapshot current, SearchRequest request,
+                                                      CompiledQuery query, DocumentScorer scorer,
+                                                      List<Map<String, int[]>> keywordDocs, SearchAfter after) {
+        int size = request.getSize();
+        if (size <= 0) {
+            log.warn("分页参数无效，返回空结果");
+            return PageResult.of(new ArrayList<>(), request.getPage(), size, 0);
+        }
+
+        String sortField = SearchAfter.sortField(request);
+        boolean scoreSort = SearchAfter.SCORE.equals(sortField);
+        Comparator<SearchCandidate> order = SearchAfter.order(sortField, "asc".equalsIgnoreCase(request.getSortDirection()));
+        TopKCollector<SearchCandidate> top = TopKCollector.byComparator(size + 1, order);
+
+        long total = 0;
+        for (int seg = 0; seg < current.segmentCount(); seg++) {
+            SearchDeadline.checkpoint();
+            IndexSegment segment = current.segment(seg);
+            for (int doc : match(segment, query.getRoot(), keywordDocs.get(seg))) {
+                if (current.isDeleted(seg, doc)) {
+                    continue;
+                }
+                total++;
+
+                long created = segment.getCreated(doc);
+                SearchCandidate candidate = new SearchCandidate(IndexSnapshot.docRef(seg, doc), segment.getId(doc),
+                        segment.getName(doc), created != IndexSegment.NO_TIMESTAMP ? new Date(created) : null);
+                if (scoreSort) {
+                    candidate.setScore(score(scorer, candidate.getName(), segment.getSnippet(doc)));
+                }
+                long sortStart = SearchTrace.start();
+                if (after == null || after.admits(candidate, order)) {
+                    top.offer(candidate);
+                }
+                SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+            }
+        }
+        SearchTrace.rows(total);
+
+        long sortStart = SearchTrace.start();
+        List<SearchCandidate> rows = top.drainSorted();
+        SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+        boolean hasMore = rows.size() > size;
+        List<SearchCandidate> pageCandidates = hasMore ? rows.subList(0, size) : rows;
+        List<SearchResult> pagedResults = toResults(current, pageCandidates, scorer, query);
+
+        PageResult<SearchResult> result = PageResult.of(pagedResults, request.getPage(), size, total);
+        if (hasMore) {
+            // 令牌中的ID必须能被SQL后端使用，不保存索引内部的文档引用
+            SearchCandidate last = pageCandidates.get(pageCandidates.size() - 1);
+            SearchCandidate anchor = new SearchCandidate(last.getId(), last.getId(), last.getName(), last.getCreated());
+            anchor.setScore(last.getScore());
+            result.setSearchAfter(SearchAfter.of(request, anchor).encode());
+        }
+        log.debug("<==== 结束执行索引搜索（游标分页），共返回 {} 条结果", pagedResults.size());
+        return result;
+    }
+
+    /**
+     * 读取候选项的摘要，评分并高亮
+     */
+    private List<SearchResult> toResults(IndexSnapshot current, List<SearchCandidate> pageCandidates,
+                                         DocumentScorer scorer, CompiledQuery query) {
+        List<SearchResult> pagedResults = new ArrayList<>(pageCandidates.size());
+        for (SearchCandidate candidate : pageCandidates) {
+            long ref = current.findLive(candidate.getId());
+            if (ref < 0) {
+                log.warn("结果 [{}] 已不在索引中，跳过", candidate.getId());
+                continue;
+            }
+            String snippet = current.segment(IndexSnapshot.segmentOf(ref)).getSnippet(IndexSnapshot.docOf(ref));
+
+            SearchResult result = new SearchResult();
+            result.setId(candidate.getId());
+            result.setName(candidate.getName());
+            result.setCreated(candidate.getCreated());
+            result.setContent(snippet);
+            if (candidate.isScored()) {
+                result.setScore(candidate.getScore());
+            } else {
+                result.setScore(score(scorer, candidate.getName(), snippet));
+            }
+            long start = SearchTrace.start();
+            result.setHighlightedContent(KeywordHighlighter.highlight(snippet, query.getAutomaton()));
+            SearchTrace.stage(SearchTrace.Stage.HIGHLIGHT, start);
+            pagedResults.add(result);
+        }
+        return pagedResults;
+    }
+
+    @Override
+    public long count(String keywords) {
+        SearchTrace trace = SearchTrace.begin("none");
+        long count = -1;
+        try {
+            count = executeCount(keywords);
+            return count;
+        } finally {
+            searchMetrics.finish(trace, count);
+        }
+    }
+
+    private long executeCount(String keywords) {
+        IndexSnapshot current = indexManager.snapshot();
+        if (current == null) {
+            log.debug("内存索引尚未就绪，使用SQL计数");
+            return sqlSearchService.count(keywords);
+        }
+
+        SearchTrace.backend("index");
+        CompiledQuery query = queryCompiler.compile(keywords);
+        if (query.isEmpty()) {
+            return 0;
+        }
+        SearchTrace.query(query);
+
+        try {
+            long total = 0;
+            for (int seg = 0; seg < current.segmentCount(); seg++) {
+                for (int doc : match(current.segment(seg), query.getRoot(), new HashMap<>())) {
+                    if (!current.isDeleted(seg, doc)) {
+                        total++;
+                    }
+                }
+            }
+            return total;
+        } catch (RuntimeException e) {
+            log.error("索引计数失败，回退到SQL计数: {}", e.getMessage(), e);
+            SearchTrace.backend("sql");
+            return sqlSearchService.count(keywords);
+        }
+    }
+
+    /**
+     * 对一个索引段求值并记录匹配耗时
+     */
+    private static int[] match(IndexSegment segment, QueryNode root, Map<String, int[]> keywordDocs) {
+        long start = SearchTrace.start();
+        int[] docs = evaluate(segment, root, keywordDocs);
+        SearchTrace.stage(SearchTrace.Stage.MATCH, start);
+        return docs;
+    }
+
+    /**
+     * 计算分数并记录耗时，零分按0.1计入排序
+     */
+    private static double score(DocumentScorer scorer, String name, String snippet) {
+        long start = SearchTrace.start();
+        double score = scorer.score(name, snippet);
+        SearchTrace.stage(SearchTrace.Stage.SCORE, start);
+        return score == 0.0 ? 0.1 : score;
+    }
+
+    /**
+     * 在索引段上对语法树求值：AND求交集（结果为空时提前结束），OR求并集
+     *
+     * @param keywordDocs 本段各关键词的匹配结果，按需计算并写入
+     */
+    private static int[] evaluate(IndexSegment segment, QueryNode node, Map<String, int[]> keywordDocs) {
+        switch (node.getType()) {
+            case KEYWORD:
+                return keywordDocs(segment, node.getKeyword(), keywordDocs);
+            case AND: {
+                int[] result = null;
+                for (QueryNode child : node.getChildren()) {
+                    int[] childDocs = evaluate(segment, child, keywordDocs);
+                    result = result == null ? childDocs : PostingOps.intersect(result, childDocs);
+                    if (result.length == 0) {
+                        break;
+                    }
+                }
+                return result;
+            }
+            default: {
+                int[] result = PostingOps.EMPTY;
+                for (QueryNode child : node.getChildren()) {
+                    result = PostingOps.union(result, evaluate(segment, child, keywordDocs));
+                }
+                return result;
+            }
+        }
+    }
+
+    private static int[] keywordDocs(IndexSegment segment, String keyword, Map<String, int[]> keywordDocs) {
+        int[] docs = keywordDocs.get(keyword);
+        if (docs == null) {
+            docs = matchKeyword(segment, keyword);
+            keywordDocs.put(keyword, docs);
+        }
+        return docs;
+    }
+
+    /**
+     * 匹配单个关键词：关键词的所有词项都出现的文档，拉丁单词按前缀匹配
+     */
+    private static int[] matchKeyword(IndexSegment segment, String keyword) {
+        List<String> terms = Tokenizer.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return PostingOps.EMPTY;
+        }
+
+        int[] docs = null;
+        for (String term : terms) {
+            int[] termDocs = Tokenizer.isCjkTerm(term) ? segment.lookup(term) : segment.lookupPrefix(term);
+            docs = docs == null ? termDocs : PostingOps.intersect(docs, termDocs);
+            if (docs.length == 0) {
+                break;
+            }
+        }
+        return docs;
+    }
+
+    private static Comparator<SearchCandidate> nameComparator(boolean asc) {
+        Comparator<SearchCandidate> comparator = Comparator.comparing(SearchCandidate::getName,
+                Comparator.nullsLast(String::compareTo));
+        return asc ? comparator : comparator.reversed();
+    }
+
+    /**
+     * 按分数降序取前k项时的文档分数上界（MaxScore）
+     *
+     * 文档的上界是它包含的各关键词贡献上界之和，关键词是否出现在文档中以索引匹配结果为准；
+     * 索引不能保证查到全部子串出现位置的关键词（见 {@link Tokenizer#indexCoversSubstring}），对所有文档都计入上界。
+     * 堆满后上界不超过堆顶分数的文档不可能进入前k项，直接跳过，不读取摘要也不评分。
+     */
+    private static final class ScoreBounds {
+
+        /**
+         * 放宽上界，抵消浮点求和顺序不同带来的舍入误差
+         */
+        private static final double SLACK = 1.0 + 1e-9;
+
+        private final KeywordAutomaton automaton;
+        private final double[] maxContribution;
+        private final boolean[] indexed;
+        private final double baseline;
+        private final int[][] docs;
+        private final int[] cursors;
+
+        private ScoreBounds(KeywordAutomaton automaton, double[] maxContribution, boolean[] indexed, double baseline) {
+            this.automaton = automaton;
+            this.maxContribution = maxContribution;
+            this.indexed = indexed;
+            this.baseline = baseline;
+            this.docs = new int[maxContribution.length][];
+            this.cursors = new int[maxContribution.length];
+        }
+
+        /**
+         * @return 上界，评分器无法给出有限上界时返回null
+         */
+        static ScoreBounds of(DocumentScorer scorer, KeywordAutomaton automaton) {
+            int keywordCount = automaton.keywordCount();
+            double[] maxContribution = new double[keywordCount];
+            boolean[] indexed = new boolean[keywordCount];
+            double baseline = 0.0;
+            for (int keyword = 0; keyword < keywordCount; keyword++) {
+                maxContribution[keyword] = scorer.maxContribution(keyword) * SLACK;
+                if (Double.isInfinite(maxContribution[keyword]) || Double.isNaN(maxContribution[keyword])) {
+                    return null;
+                }
+                indexed[keyword] = Tokenizer.indexCoversSubstring(automaton.keyword(keyword));
+                if (!indexed[keyword]) {
+                    baseline += maxContribution[keyword];
+                }
+            }
+            return new ScoreBounds(automaton, maxContribution, indexed, baseline);
+        }
+
+        void startSegment(IndexSegment segment, Map<String, int[]> keywordDocs) {
+            for (int keyword = 0; keyword < docs.length; keyword++) {
+                docs[keyword] = indexed[keyword] ? keywordDocs(segment, automaton.keyword(keyword), keywordDocs) : null;
+                cursors[keyword] = 0;
+            }
+        }
+
+        /**
+         * 文档分数的上界，调用时文档号必须递增
+         */
+        double upperBound(int doc) {
+            double bound = baseline;
+            for (int keyword = 0; keyword < docs.length; keyword++) {
+                int[] keywordDocs = docs[keyword];
+                if (keywordDocs == null) {
+                    continue;
+                }
+                int cursor = cursors[keyword];
+                while (cursor < keywordDocs.length && keywordDocs[cursor] < doc) {
+                    cursor++;
+                }
+                cursors[keyword] = cursor;
+                if (cursor < keywordDocs.length && keywordDocs[cursor] == doc) {
+                    bound += maxContribution[keyword];
+                }
+            }
+            // 零分按0.1计入排序
+            return Math.max(bound, 0.1);
+        }
+    }
+}
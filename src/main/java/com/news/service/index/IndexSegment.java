@@ -0,0 +1,261 @@
+package com.news.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 倒排索引段
+ *
+ * 构建完成后不可变，可被多个查询线程无锁并发读取。
+ * 词典按字典序排列，支持精确查找和前缀展开；文档号为段内从0开始的连续整数。
+ * 数据可以在堆内（{@link MemorySegment}），也可以在内存映射的段文件中（{@link MappedSegment}）。
+ */
+public abstract class IndexSegment {
+
+    /**
+     * CREATED为空时的占位值
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * 标题和摘要的总字符数，首次使用时计算
+     */
+    private volatile long[] fieldLengths;
+
+    public abstract int docCount();
+
+    public abstract int termCount();
+
+    /**
+     * 按字典序的第index个词项
+     */
+    public abstract String termAt(int index);
+
+    /**
+     * 第index个词项的倒排表
+     */
+    public abstract int[] postingsAt(int index);
+
+    public abstract String getId(int doc);
+
+    public abstract String getName(int doc);
+
+    public abstract long getCreated(int doc);
+
+    public abstract long getModified(int doc);
+
+    public abstract String getSnippet(int doc);
+
+    /**
+     * 按ID排序后第index个文档的文档号
+     */
+    abstract int docAtIdOrder(int index);
+
+    /**
+     * 倒排表占用的字节数
+     */
+    public abstract long postingsSizeInBytes();
+
+    /**
+     * 所有文档标题的总字符数（含已删除文档），供BM25计算平均字段长度
+     */
+    public long totalNameLength() {
+        return fieldLengths()[0];
+    }
+
+    /**
+     * 所有文档摘要的总字符数（含已删除文档），供BM25计算平均字段长度
+     */
+    public long totalSnippetLength() {
+        return fieldLengths()[1];
+    }
+
+    private long[] fieldLengths() {
+        long[] lengths = fieldLengths;
+        if (lengths == null) {
+            // 段不可变，并发首次调用时重复计算的结果相同
+            lengths = new long[2];
+            for (int doc = 0; doc < docCount(); doc++) {
+                String name = getName(doc);
+                String snippet = getSnippet(doc);
+                lengths[0] += name != null ? name.length() : 0;
+                lengths[1] += snippet != null ? snippet.length() : 0;
+            }
+            fieldLengths = lengths;
+        }
+        return lengths;
+    }
+
+    /**
+     * 二分查找词项
+     *
+     * @return 词项序号；不存在时返回 -(插入点) - 1
+     */
+    public int findTerm(String term) {
+        int lo = 0;
+        int hi = termCount() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = termAt(mid).compareTo(term);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * 精确查找词项的倒排表
+     */
+    public int[] lookup(String term) {
+        int idx = findTerm(term);
+        return idx >= 0 ? postingsAt(idx) : PostingOps.EMPTY;
+    }
+
+    /**
+     * 查找所有以指定前缀开头的词项并合并其倒排表
+     */
+    public int[] lookupPrefix(String prefix) {
+        int idx = findTerm(prefix);
+        int start = idx >= 0 ? idx : -idx - 1;
+        int end = start;
+        int termCount = termCount();
+        while (end < termCount && termAt(end).startsWith(prefix)) {
+            end++;
+        }
+
+        if (end - start == 0) {
+            return PostingOps.EMPTY;
+        }
+        if (end - start == 1) {
+            return postingsAt(start);
+        }
+
+        BitSet bits = new BitSet(docCount());
+        for (int i = start; i < end; i++) {
+            for (int doc : postingsAt(i)) {
+                bits.set(doc);
+            }
+        }
+        return bits.stream().toArray();
+    }
+
+    /**
+     * 按ID查找文档号，ID重复时返回文档号最大（最后写入）的一个
+     *
+     * @return 文档号，不存在时返回-1
+     */
+    public int findDoc(String id) {
+        int lo = 0;
+        int hi = docCount() - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int doc = docAtIdOrder(mid);
+            int cmp = getId(doc).compareTo(id);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                found = doc;
+                lo = mid + 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 索引段构建器，非线程安全
+     */
+    public static final class Builder {
+
+        private final Map<String, IntList> postingMap = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private long[] createdValues = new long[1024];
+        private long[] modifiedValues = new long[1024];
+        private final List<String> snippets = new ArrayList<>();
+
+        /**
+         * 添加一篇文档
+         *
+         * @param document 文档
+         * @return 段内文档号
+         */
+        public int addDocument(IndexDocument document) {
+            int doc = addStoredFields(document.getId(), document.getName(), document.getCreated(),
+                    document.getModified(), document.getSnippet());
+
+            Set<String> docTerms = new HashSet<>();
+            Tokenizer.tokenize(document.getName(), docTerms::add);
+            Tokenizer.tokenize(document.getFullContent(), docTerms::add);
+            for (String term : docTerms) {
+                addPosting(term, doc);
+            }
+            return doc;
+        }
+
+        /**
+         * 只写入存储字段，倒排表由调用方通过 {@link #addPosting} 直接追加（段合并时使用）
+         */
+        int addStoredFields(String id, String name, Date created, long modified, String snippet) {
+            return addStoredFields(id, name, created != null ? created.getTime() : NO_TIMESTAMP, modified, snippet);
+        }
+
+        int addStoredFields(String id, String name, long created, long modified, String snippet) {
+            int doc = ids.size();
+            ids.add(id);
+            names.add(name);
+            if (doc == createdValues.length) {
+                createdValues = Arrays.copyOf(createdValues, doc * 2);
+                modifiedValues = Arrays.copyOf(modifiedValues, doc * 2);
+            }
+            createdValues[doc] = created;
+            modifiedValues[doc] = modified;
+            snippets.add(snippet);
+            return doc;
+        }
+
+        /**
+         * 追加倒排记录，同一词项的文档号必须升序追加
+         */
+        void addPosting(String term, int doc) {
+            IntList list = postingMap.computeIfAbsent(term, k -> new IntList());
+            if (list.last() != doc) {
+                list.add(doc);
+            }
+        }
+
+        public int docCount() {
+            return ids.size();
+        }
+
+        public IndexSegment build() {
+            String[] sortedTerms = postingMap.keySet().toArray(new String[0]);
+            Arrays.sort(sortedTerms);
+
+            CompressedPostings[] encoded = new CompressedPostings[sortedTerms.length];
+            for (int i = 0; i < sortedTerms.length; i++) {
+                IntList list = postingMap.get(sortedTerms[i]);
+                encoded[i] = CompressedPostings.encode(list.toArray(), list.size());
+            }
+
+            return new MemorySegment(sortedTerms, encoded,
+                    ids.toArray(new String[0]), names.toArray(new String[0]),
+                    Arrays.copyOf(createdValues, ids.size()), Arrays.copyOf(modifiedValues, ids.size()),
+                    snippets.toArray(new String[0]));
+        }
+    }
+}
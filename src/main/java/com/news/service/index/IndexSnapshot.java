@@ -0,0 +1,206 @@
+package com.news.service.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 索引快照
+ *
+ * 由若干不可变索引段和各段的删除标记组成，发布后不再修改。
+ * 写入方基于当前快照生成新快照后整体替换，读取方始终看到一致的视图，无需加锁。
+ */
+public final class IndexSnapshot {
+
+    public static final IndexSnapshot EMPTY = new IndexSnapshot(new IndexSegment[0], new BitSet[0], Long.MIN_VALUE);
+
+    private final IndexSegment[] segments;
+    private final BitSet[] deleted;
+    private final long highWaterMark;
+    private final int liveDocCount;
+    private volatile double[] averageFieldLengths;
+
+    IndexSnapshot(IndexSegment[] segments, BitSet[] deleted, long highWaterMark) {
+        this.segments = segments;
+        this.deleted = deleted;
+        this.highWaterMark = highWaterMark;
+
+        int live = 0;
+        for (int i = 0; i < segments.length; i++) {
+            live += segments[i].docCount() - deleted[i].cardinality();
+        }
+        this.liveDocCount = live;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public IndexSegment segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * 段内文档是否已被后续写入的同ID文档替换
+     */
+    public boolean isDeleted(int segment, int doc) {
+        return deleted[segment].get(doc);
+    }
+
+    /**
+     * 段的删除标记，调用方不得修改
+     */
+    BitSet deletedDocs(int segment) {
+        return deleted[segment];
+    }
+
+    /**
+     * 已索引文档的最大版本时间戳（毫秒），增量刷新从这里继续
+     */
+    public long highWaterMark() {
+        return highWaterMark;
+    }
+
+    public int liveDocCount() {
+        return liveDocCount;
+    }
+
+    /**
+     * 平均标题长度（字符），按段内全部文档计算，被替换的旧版本文档也计入
+     */
+    public double avgNameLength() {
+        return averageFieldLengths()[0];
+    }
+
+    /**
+     * 平均摘要长度（字符），计算方式同 {@link #avgNameLength()}
+     */
+    public double avgSnippetLength() {
+        return averageFieldLengths()[1];
+    }
+
+    private double[] averageFieldLengths() {
+        double[] averages = averageFieldLengths;
+        if (averages == null) {
+            long docs = 0;
+            long nameLength = 0;
+            long snippetLength = 0;
+            for (IndexSegment segment : segments) {
+                docs += segment.docCount();
+                nameLength += segment.totalNameLength();
+                snippetLength += segment.totalSnippetLength();
+            }
+            averages = docs > 0
+                    ? new double[]{(double) nameLength / docs, (double) snippetLength / docs}
+                    : new double[]{0.0, 0.0};
+            averageFieldLengths = averages;
+        }
+        return averages;
+    }
+
+    /**
+     * 查找ID对应的有效文档
+     *
+     * @return 文档引用，不存在时返回-1
+     */
+    public long findLive(String id) {
+        for (int i = segments.length - 1; i >= 0; i--) {
+            int doc = segments[i].findDoc(id);
+            if (doc >= 0 && !deleted[i].get(doc)) {
+                return docRef(i, doc);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 追加一个新段，并将旧段中同ID的文档标记为删除
+     *
+     * @param segment       新段
+     * @param highWaterMark 新的高水位
+     * @return 新快照，当前快照保持不变
+     */
+    public IndexSnapshot withSegment(IndexSegment segment, long highWaterMark) {
+        IndexSegment[] newSegments = Arrays.copyOf(segments, segments.length + 1);
+        newSegments[segments.length] = segment;
+
+        BitSet[] newDeleted = Arrays.copyOf(deleted, deleted.length + 1);
+        newDeleted[deleted.length] = new BitSet(segment.docCount());
+        boolean[] copied = new boolean[segments.length];
+
+        for (int doc = 0; doc < segment.docCount(); doc++) {
+            String id = segment.getId(doc);
+            for (int i = 0; i < segments.length; i++) {
+                int old = segments[i].findDoc(id);
+                if (old >= 0 && !newDeleted[i].get(old)) {
+                    if (!copied[i]) {
+                        newDeleted[i] = (BitSet) deleted[i].clone();
+                        copied[i] = true;
+                    }
+                    newDeleted[i].set(old);
+                }
+            }
+        }
+
+        return new IndexSnapshot(newSegments, newDeleted, Math.max(this.highWaterMark, highWaterMark));
+    }
+
+    /**
+     * 用内容相同的段（如写入段文件后映射回来的段）替换一个段，文档号不变，删除标记沿用
+     *
+     * @param index   段序号
+     * @param segment 文档顺序与原段完全相同的段
+     * @return 新快照，当前快照保持不变
+     */
+    public IndexSnapshot withReplaced(int index, IndexSegment segment) {
+        if (segment.docCount() != segments[index].docCount()) {
+            throw new IllegalArgumentException("替换的段文档数不一致");
+        }
+        IndexSegment[] newSegments = segments.clone();
+        newSegments[index] = segment;
+        return new IndexSnapshot(newSegments, deleted, highWaterMark);
+    }
+
+    /**
+     * 用合并后的段替换若干旧段
+     *
+     * @param merged  旧段中全部有效文档合并得到的新段
+     * @param indices 被合并的段序号，升序
+     * @return 新快照，当前快照保持不变
+     */
+    public IndexSnapshot withMerged(IndexSegment merged, int[] indices) {
+        int remaining = segments.length - indices.length;
+        IndexSegment[] newSegments = new IndexSegment[remaining + 1];
+        BitSet[] newDeleted = new BitSet[remaining + 1];
+
+        int n = 0;
+        int skip = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (skip < indices.length && indices[skip] == i) {
+                skip++;
+                continue;
+            }
+            newSegments[n] = segments[i];
+            newDeleted[n] = deleted[i];
+            n++;
+        }
+        newSegments[n] = merged;
+        newDeleted[n] = new BitSet(merged.docCount());
+
+        return new IndexSnapshot(newSegments, newDeleted, highWaterMark);
+    }
+
+    /**
+     * 将段序号和段内文档号打包为文档引用
+     */
+    public static long docRef(int segment, int doc) {
+        return ((long) segment << 32) | (doc & 0xFFFFFFFFL);
+    }
+
+    public static int segmentOf(long docRef) {
+        return (int) (docRef >>> 32);
+    }
+
+    public static int docOf(long docRef) {
+        return (int) docRef;
+    }
+}
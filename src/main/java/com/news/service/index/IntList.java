@@ -0,0 +1,43 @@
+package com.news.service.index;
+
+import java.util.Arrays;
+
+/**
+ * 可增长的int数组，避免构建倒排表时对Integer装箱
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int last() {
+        return size > 0 ? values[size - 1] : -1;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,229 @@
+package com.news.service.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射的只读索引段
+ *
+ * 每个段由三个不可变文件组成，通过 {@link FileChannel#map} 映射到堆外内存，打开时只校验文件头和尾部偏移，
+ * 数据按需由操作系统换页加载，因此重启几乎不需要等待。所有读取均使用绝对位置，可被多线程并发访问。
+ *
+ * <pre>
+ * .tim 词典：  头部 | 词项字节(len + UTF-8)... | 词项表(termOffset:long, postingsOffset:long, docFreq:int)... | tableOffset:long
+ * .pst 倒排表：头部 | VByte差分编码的倒排表...
+ * .doc 文档：  头部 | 存储字段(ID、NAME、摘要，各为 len + UTF-8)... | ID排序文档号(int)...
+ *             | 文档表(created:long, modified:long, dataOffset:long)... | idOrderOffset:long | tableOffset:long
+ * </pre>
+ *
+ * 单个文件不能超过2GB。
+ */
+final class MappedSegment extends IndexSegment {
+
+    static final String TERMS_EXTENSION = ".tim";
+    static final String POSTINGS_EXTENSION = ".pst";
+    static final String DOCS_EXTENSION = ".doc";
+
+    static final int TERMS_MAGIC = 0x4E535449;     // "NSTI"
+    static final int POSTINGS_MAGIC = 0x4E535350;  // "NSSP"
+    static final int DOCS_MAGIC = 0x4E535344;      // "NSSD"
+    static final int FORMAT_VERSION = 1;
+
+    static final int TERM_ENTRY_BYTES = 20;
+    static final int DOC_ENTRY_BYTES = 24;
+
+    private final String name;
+    private final long[] checksums;
+
+    private final ByteBuffer terms;
+    private final ByteBuffer postings;
+    private final ByteBuffer docs;
+
+    private final int termCount;
+    private final int termTableOffset;
+    private final int docCount;
+    private final int idOrderOffset;
+    private final int docTableOffset;
+
+    private MappedSegment(String name, long[] checksums, ByteBuffer terms, ByteBuffer postings, ByteBuffer docs)
+            throws CorruptIndexException {
+        this.name = name;
+        this.checksums = checksums;
+        this.terms = terms;
+        this.postings = postings;
+        this.docs = docs;
+
+        checkHeader(terms, TERMS_MAGIC, TERMS_EXTENSION);
+        checkHeader(postings, POSTINGS_MAGIC, POSTINGS_EXTENSION);
+        checkHeader(docs, DOCS_MAGIC, DOCS_EXTENSION);
+
+        this.termCount = terms.getInt(8);
+        this.termTableOffset = checkOffset(terms, terms.getLong(terms.capacity() - 8),
+                (long) termCount * TERM_ENTRY_BYTES + 8, TERMS_EXTENSION);
+
+        this.docCount = docs.getInt(8);
+        this.idOrderOffset = checkOffset(docs, docs.getLong(docs.capacity() - 16),
+                (long) docCount * (4 + DOC_ENTRY_BYTES) + 16, DOCS_EXTENSION);
+        this.docTableOffset = checkOffset(docs, docs.getLong(docs.capacity() - 8),
+                (long) docCount * DOC_ENTRY_BYTES + 16, DOCS_EXTENSION);
+    }
+
+    /**
+     * 打开段文件
+     *
+     * @param directory       索引目录
+     * @param name            段名
+     * @param checksums       清单中记录的三个文件的CRC32（词典、倒排表、文档）
+     * @param verifyChecksums 是否逐字节校验CRC32
+     * @return 映射后的段
+     * @throws CorruptIndexException 文件头、偏移或校验和不一致时
+     */
+    static MappedSegment open(Path directory, String name, long[] checksums, boolean verifyChecksums)
+            throws IOException {
+        ByteBuffer terms = map(directory.resolve(name + TERMS_EXTENSION));
+        ByteBuffer postings = map(directory.resolve(name + POSTINGS_EXTENSION));
+        ByteBuffer docs = map(directory.resolve(name + DOCS_EXTENSION));
+
+        if (verifyChecksums) {
+            verify(terms, checksums[0], name + TERMS_EXTENSION);
+            verify(postings, checksums[1], name + POSTINGS_EXTENSION);
+            verify(docs, checksums[2], name + DOCS_EXTENSION);
+        }
+        return new MappedSegment(name, checksums.clone(), terms, postings, docs);
+    }
+
+    String name() {
+        return name;
+    }
+
+    long[] checksums() {
+        return checksums.clone();
+    }
+
+    @Override
+    public int docCount() {
+        return docCount;
+    }
+
+    @Override
+    public int termCount() {
+        return termCount;
+    }
+
+    @Override
+    public String termAt(int index) {
+        int entry = termTableOffset + index * TERM_ENTRY_BYTES;
+        return readString(terms, (int) terms.getLong(entry));
+    }
+
+    @Override
+    public int[] postingsAt(int index) {
+        int entry = termTableOffset + index * TERM_ENTRY_BYTES;
+        int offset = (int) terms.getLong(entry + 8);
+        int docFreq = terms.getInt(entry + 16);
+        return CompressedPostings.decode(postings, offset, docFreq);
+    }
+
+    @Override
+    public String getId(int doc) {
+        return readString(docs, dataOffset(doc));
+    }
+
+    @Override
+    public String getName(int doc) {
+        int pos = skipString(docs, dataOffset(doc));
+        return readString(docs, pos);
+    }
+
+    @Override
+    public long getCreated(int doc) {
+        return docs.getLong(docTableOffset + doc * DOC_ENTRY_BYTES);
+    }
+
+    @Override
+    public long getModified(int doc) {
+        return docs.getLong(docTableOffset + doc * DOC_ENTRY_BYTES + 8);
+    }
+
+    @Override
+    public String getSnippet(int doc) {
+        int pos = skipString(docs, skipString(docs, dataOffset(doc)));
+        return readString(docs, pos);
+    }
+
+    @Override
+    int docAtIdOrder(int index) {
+        return docs.getInt(idOrderOffset + index * 4);
+    }
+
+    @Override
+    public long postingsSizeInBytes() {
+        return postings.capacity();
+    }
+
+    private int dataOffset(int doc) {
+        return (int) docs.getLong(docTableOffset + doc * DOC_ENTRY_BYTES + 16);
+    }
+
+    private static String readString(ByteBuffer buffer, int pos) {
+        int length = buffer.getInt(pos);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int skipString(ByteBuffer buffer, int pos) {
+        int length = buffer.getInt(pos);
+        return pos + 4 + Math.max(0, length);
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new CorruptIndexException("段文件超过2GB: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return buffer;
+        }
+    }
+
+    private static void verify(ByteBuffer buffer, long expected, String file) throws CorruptIndexException {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != expected) {
+            throw new CorruptIndexException("段文件校验和不一致: " + file);
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, int magic, String extension) throws CorruptIndexException {
+        if (buffer.capacity() < 12 || buffer.getInt(0) != magic) {
+            throw new CorruptIndexException("段文件头无效: " + extension);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new CorruptIndexException("不支持的段文件版本: " + buffer.getInt(4) + " (" + extension + ")");
+        }
+    }
+
+    /**
+     * 校验尾部记录的表偏移落在文件范围内，且表的长度与记录数一致
+     */
+    private static int checkOffset(ByteBuffer buffer, long offset, long tailBytes, String extension)
+            throws CorruptIndexException {
+        if (offset < 12 || offset + tailBytes > buffer.capacity()) {
+            throw new CorruptIndexException("段文件偏移越界: " + extension);
+        }
+        return (int) offset;
+    }
+}
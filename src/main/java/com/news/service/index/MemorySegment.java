@@ -0,0 +1,112 @@
+package com.news.service.index;
+
+import java.util.Arrays;
+
+/**
+ * 堆内索引段，由 {@link IndexSegment.Builder} 构建
+ */
+final class MemorySegment extends IndexSegment {
+
+    private final String[] terms;
+    private final CompressedPostings[] postings;
+
+    private final String[] ids;
+    private final String[] names;
+    private final long[] created;
+    private final long[] modified;
+    private final String[] snippets;
+
+    // 按ID排序的文档号，用于按ID定位文档
+    private final int[] docsById;
+
+    MemorySegment(String[] terms, CompressedPostings[] postings,
+                  String[] ids, String[] names, long[] created, long[] modified, String[] snippets) {
+        this.terms = terms;
+        this.postings = postings;
+        this.ids = ids;
+        this.names = names;
+        this.created = created;
+        this.modified = modified;
+        this.snippets = snippets;
+        this.docsById = sortDocsById(ids);
+    }
+
+    @Override
+    public int docCount() {
+        return ids.length;
+    }
+
+    @Override
+    public int termCount() {
+        return terms.length;
+    }
+
+    @Override
+    public String termAt(int index) {
+        return terms[index];
+    }
+
+    @Override
+    public int[] postingsAt(int index) {
+        return postings[index].decode();
+    }
+
+    @Override
+    public int findTerm(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    @Override
+    public String getId(int doc) {
+        return ids[doc];
+    }
+
+    @Override
+    public String getName(int doc) {
+        return names[doc];
+    }
+
+    @Override
+    public long getCreated(int doc) {
+        return created[doc];
+    }
+
+    @Override
+    public long getModified(int doc) {
+        return modified[doc];
+    }
+
+    @Override
+    public String getSnippet(int doc) {
+        return snippets[doc];
+    }
+
+    @Override
+    int docAtIdOrder(int index) {
+        return docsById[index];
+    }
+
+    @Override
+    public long postingsSizeInBytes() {
+        long bytes = 0;
+        for (CompressedPostings p : postings) {
+            bytes += p.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static int[] sortDocsById(String[] ids) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // 稳定排序，ID相同时保持文档号升序
+        Arrays.sort(order, (a, b) -> ids[a].compareTo(ids[b]));
+
+        int[] docs = new int[order.length];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = order[i];
+        }
+        return docs;
+    }
+}
@@ -0,0 +1,98 @@
+package com.news.service.index;
+
+import java.util.Arrays;
+
+/**
+ * 倒排表集合运算
+ *
+ * 所有输入输出均为升序、无重复的文档号数组
+ */
+public final class PostingOps {
+
+    static final int[] EMPTY = new int[0];
+
+    private PostingOps() {
+    }
+
+    /**
+     * 求交集，长度悬殊时对长表做二分跳跃
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return EMPTY;
+        }
+        if (a.length > b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+
+        int[] out = new int[a.length];
+        int n = 0;
+        if (b.length / a.length >= 32) {
+            int from = 0;
+            for (int doc : a) {
+                int idx = Arrays.binarySearch(b, from, b.length, doc);
+                if (idx >= 0) {
+                    out[n++] = doc;
+                    from = idx + 1;
+                } else {
+                    from = -idx - 1;
+                }
+                if (from >= b.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * 求并集
+     */
+    public static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+
+        int[] out = new int[a.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else {
+                out[n++] = b[j++];
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
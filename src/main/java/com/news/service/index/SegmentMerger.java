@@ -0,0 +1,54 @@
+package com.news.service.index;
+
+/**
+ * 段合并
+ *
+ * 直接合并存储字段和倒排表，跳过已删除的文档，不需要原文重新分词
+ */
+final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    /**
+     * 合并快照中的若干段
+     *
+     * @param snapshot 快照
+     * @param indices  待合并的段序号，升序
+     * @return 合并后的堆内段
+     */
+    static IndexSegment merge(IndexSnapshot snapshot, int[] indices) {
+        IndexSegment.Builder builder = new IndexSegment.Builder();
+        int[][] docMaps = new int[indices.length][];
+
+        for (int s = 0; s < indices.length; s++) {
+            int seg = indices[s];
+            IndexSegment segment = snapshot.segment(seg);
+            int[] docMap = new int[segment.docCount()];
+            for (int doc = 0; doc < docMap.length; doc++) {
+                if (snapshot.isDeleted(seg, doc)) {
+                    docMap[doc] = -1;
+                } else {
+                    docMap[doc] = builder.addStoredFields(segment.getId(doc), segment.getName(doc),
+                            segment.getCreated(doc), segment.getModified(doc), segment.getSnippet(doc));
+                }
+            }
+            docMaps[s] = docMap;
+        }
+
+        // 按段顺序追加，新文档号在各段之间单调递增，倒排表保持升序
+        for (int s = 0; s < indices.length; s++) {
+            IndexSegment segment = snapshot.segment(indices[s]);
+            int[] docMap = docMaps[s];
+            for (int t = 0; t < segment.termCount(); t++) {
+                String term = segment.termAt(t);
+                for (int doc : segment.postingsAt(t)) {
+                    if (docMap[doc] >= 0) {
+                        builder.addPosting(term, docMap[doc]);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,347 @@
+package com.news.service.index;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 索引段持久化存储
+ *
+ * 段文件一经写入不再修改；清单文件（segments.manifest）记录当前快照包含的段、各文件的CRC32、
+ * 删除标记、高水位和建立索引的数据源URL，先写临时文件再原子替换，是快照落盘的提交点。
+ * 清单中未引用的段文件会在提交后清理。数据源URL与当前配置不同的清单不会加载，按全新目录处理。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.index.enabled", havingValue = "true")
+public class SegmentStore {
+
+    private static final String MANIFEST = "segments.manifest";
+    private static final String SEGMENT_PREFIX = "seg_";
+    private static final int MANIFEST_VERSION = 1;
+
+    private final SearchProperties searchProperties;
+    private final AppConfig appConfig;
+
+    private long nextSegmentId = 1;
+
+    @Autowired
+    public SegmentStore(SearchProperties searchProperties, AppConfig appConfig) {
+        this.searchProperties = searchProperties;
+        this.appConfig = appConfig;
+    }
+
+    /**
+     * 是否启用段文件持久化
+     */
+    public boolean isEnabled() {
+        return searchProperties.getIndex().isPersistent();
+    }
+
+    private Path directory() {
+        return Paths.get(searchProperties.getIndex().getDirectory());
+    }
+
+    /**
+     * 按清单加载快照
+     *
+     * @return 快照，清单不存在或属于其他数据源时返回null
+     * @throws CorruptIndexException 清单或段文件校验失败时
+     */
+    public synchronized IndexSnapshot load() throws IOException {
+        Path manifestFile = directory().resolve(MANIFEST);
+        if (!Files.exists(manifestFile)) {
+            return null;
+        }
+
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(manifestFile)) {
+            manifest.load(in);
+        }
+
+        String checksum = manifest.getProperty("checksum");
+        if (checksum == null || !checksum.equals(Long.toString(manifestChecksum(manifest)))) {
+            throw new CorruptIndexException("索引清单校验和不一致: " + manifestFile);
+        }
+        if (!Integer.toString(MANIFEST_VERSION).equals(manifest.getProperty("format.version"))) {
+            throw new CorruptIndexException("不支持的索引清单版本: " + manifest.getProperty("format.version"));
+        }
+        // 切换过数据库（或清单早于记录数据源的版本）时，已有段与当前数据库的内容无关
+        String indexedUrl = manifest.getProperty("datasource.url");
+        if (!datasourceUrl().equals(indexedUrl)) {
+            log.warn("持久化索引属于其他数据源 [{}]，当前为 [{}]，不加载", indexedUrl, datasourceUrl());
+            return null;
+        }
+
+        try {
+            nextSegmentId = Long.parseLong(manifest.getProperty("next.segment"));
+            long highWaterMark = Long.parseLong(manifest.getProperty("high.water.mark"));
+            String segmentList = manifest.getProperty("segments", "");
+
+            List<IndexSegment> segments = new ArrayList<>();
+            List<BitSet> deleted = new ArrayList<>();
+            boolean verify = searchProperties.getIndex().isVerifyChecksums();
+            for (String name : segmentList.isEmpty() ? new String[0] : segmentList.split(",")) {
+                long[] checksums = {
+                        Long.parseLong(manifest.getProperty(name + ".crc.terms")),
+                        Long.parseLong(manifest.getProperty(name + ".crc.postings")),
+                        Long.parseLong(manifest.getProperty(name + ".crc.docs"))
+                };
+                MappedSegment segment = MappedSegment.open(directory(), name, checksums, verify);
+                if (segment.docCount() != Integer.parseInt(manifest.getProperty(name + ".docs"))) {
+                    throw new CorruptIndexException("段文档数与清单不一致: " + name);
+                }
+                segments.add(segment);
+                deleted.add(BitSet.valueOf(Base64.getDecoder().decode(manifest.getProperty(name + ".deleted", ""))));
+            }
+
+            return new IndexSnapshot(segments.toArray(new IndexSegment[0]), deleted.toArray(new BitSet[0]),
+                    highWaterMark);
+        } catch (CorruptIndexException e) {
+            throw e;
+        } catch (RuntimeException | IOException e) {
+            throw new CorruptIndexException("索引清单或段文件无法读取: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将段写入新的段文件并以内存映射方式重新打开，之后段数据不再占用堆内存
+     *
+     * @param segment 段
+     * @return 映射后的段
+     */
+    public synchronized IndexSegment persist(IndexSegment segment) throws IOException {
+        Files.createDirectories(directory());
+        String name;
+        do {
+            name = String.format("%s%010d", SEGMENT_PREFIX, nextSegmentId++);
+        } while (Files.exists(directory().resolve(name + MappedSegment.DOCS_EXTENSION)));
+        long[] termChecksums = writeTerms(segment, directory().resolve(name + MappedSegment.TERMS_EXTENSION),
+                directory().resolve(name + MappedSegment.POSTINGS_EXTENSION));
+        long docsChecksum = writeDocs(segment, directory().resolve(name + MappedSegment.DOCS_EXTENSION));
+        long[] checksums = {termChecksums[0], termChecksums[1], docsChecksum};
+        return MappedSegment.open(directory(), name, checksums, false);
+    }
+
+    /**
+     * 写出快照清单并清理未引用的段文件
+     *
+     * @param snapshot 快照，所有段必须已持久化
+     */
+    public synchronized void commit(IndexSnapshot snapshot) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("format.version", Integer.toString(MANIFEST_VERSION));
+        manifest.setProperty("next.segment", Long.toString(nextSegmentId));
+        manifest.setProperty("high.water.mark", Long.toString(snapshot.highWaterMark()));
+        manifest.setProperty("datasource.url", datasourceUrl());
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < snapshot.segmentCount(); i++) {
+            IndexSegment segment = snapshot.segment(i);
+            if (!(segment instanceof MappedSegment)) {
+                throw new IllegalStateException("快照中存在未持久化的段");
+            }
+            MappedSegment mapped = (MappedSegment) segment;
+            String name = mapped.name();
+            long[] checksums = mapped.checksums();
+            names.add(name);
+            manifest.setProperty(name + ".docs", Integer.toString(mapped.docCount()));
+            manifest.setProperty(name + ".crc.terms", Long.toString(checksums[0]));
+            manifest.setProperty(name + ".crc.postings", Long.toString(checksums[1]));
+            manifest.setProperty(name + ".crc.docs", Long.toString(checksums[2]));
+            manifest.setProperty(name + ".deleted",
+                    Base64.getEncoder().encodeToString(snapshot.deletedDocs(i).toByteArray()));
+        }
+        manifest.setProperty("segments", String.join(",", names));
+        manifest.setProperty("checksum", Long.toString(manifestChecksum(manifest)));
+
+        Path dir = directory();
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(MANIFEST + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            manifest.store(out, "索引段清单");
+            out.getFD().sync();
+        }
+        Files.move(temp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        deleteUnreferenced(new HashSet<>(names));
+    }
+
+    private String datasourceUrl() {
+        return appConfig.getUrl() != null ? appConfig.getUrl() : "";
+    }
+
+    /**
+     * 写出倒排表文件和词典文件
+     *
+     * @return 词典文件和倒排表文件的CRC32
+     */
+    private long[] writeTerms(IndexSegment segment, Path termsFile, Path postingsFile) throws IOException {
+        int termCount = segment.termCount();
+        long[] postingsOffsets = new long[termCount];
+        int[] docFreqs = new int[termCount];
+
+        CRC32 postingsCrc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(postingsFile.toFile());
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(file, postingsCrc), 1 << 16))) {
+            out.writeInt(MappedSegment.POSTINGS_MAGIC);
+            out.writeInt(MappedSegment.FORMAT_VERSION);
+            out.writeInt(0);
+            for (int i = 0; i < termCount; i++) {
+                int[] docs = segment.postingsAt(i);
+                postingsOffsets[i] = out.size();
+                docFreqs[i] = docs.length;
+                CompressedPostings.encode(docs, docs.length).writeTo(out);
+            }
+            checkSize(out, postingsFile);
+            out.flush();
+            file.getFD().sync();
+        }
+
+        CRC32 termsCrc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(termsFile.toFile());
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(file, termsCrc), 1 << 16))) {
+            out.writeInt(MappedSegment.TERMS_MAGIC);
+            out.writeInt(MappedSegment.FORMAT_VERSION);
+            out.writeInt(termCount);
+
+            long[] termOffsets = new long[termCount];
+            for (int i = 0; i < termCount; i++) {
+                termOffsets[i] = out.size();
+                writeString(out, segment.termAt(i));
+            }
+            long tableOffset = out.size();
+            for (int i = 0; i < termCount; i++) {
+                out.writeLong(termOffsets[i]);
+                out.writeLong(postingsOffsets[i]);
+                out.writeInt(docFreqs[i]);
+            }
+            out.writeLong(tableOffset);
+            checkSize(out, termsFile);
+            out.flush();
+            file.getFD().sync();
+        }
+        return new long[]{termsCrc.getValue(), postingsCrc.getValue()};
+    }
+
+    private long writeDocs(IndexSegment segment, Path docsFile) throws IOException {
+        int docCount = segment.docCount();
+        long[] dataOffsets = new long[docCount];
+
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(docsFile.toFile());
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16))) {
+            out.writeInt(MappedSegment.DOCS_MAGIC);
+            out.writeInt(MappedSegment.FORMAT_VERSION);
+            out.writeInt(docCount);
+
+            for (int doc = 0; doc < docCount; doc++) {
+                dataOffsets[doc] = out.size();
+                writeString(out, segment.getId(doc));
+                writeString(out, segment.getName(doc));
+                writeString(out, segment.getSnippet(doc));
+            }
+
+            long idOrderOffset = out.size();
+            for (int i = 0; i < docCount; i++) {
+                out.writeInt(segment.docAtIdOrder(i));
+            }
+
+            long tableOffset = out.size();
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeLong(segment.getCreated(doc));
+                out.writeLong(segment.getModified(doc));
+                out.writeLong(dataOffsets[doc]);
+            }
+            out.writeLong(idOrderOffset);
+            out.writeLong(tableOffset);
+            checkSize(out, docsFile);
+            out.flush();
+            file.getFD().sync();
+        }
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * DataOutputStream.size() 在超过2GB时停留在Integer.MAX_VALUE，此时偏移已不可信
+     */
+    private static void checkSize(DataOutputStream out, Path file) throws IOException {
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("段文件超过2GB: " + file);
+        }
+    }
+
+    /**
+     * 清单内容的校验和：除checksum外的所有键值按键排序后计算CRC32
+     */
+    private static long manifestChecksum(Properties manifest) {
+        StringBuilder content = new StringBuilder();
+        for (String key : new TreeSet<>(manifest.stringPropertyNames())) {
+            if (!"checksum".equals(key)) {
+                content.append(key).append('=').append(manifest.getProperty(key)).append('\n');
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private void deleteUnreferenced(Set<String> referenced) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory(), SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                int dot = fileName.lastIndexOf('.');
+                String name = dot > 0 ? fileName.substring(0, dot) : fileName;
+                if (!referenced.contains(name)) {
+                    try {
+                        Files.deleteIfExists(file);
+                        log.debug("删除未引用的段文件: {}", file);
+                    } catch (IOException e) {
+                        // 仍被映射的文件在部分平台上无法删除，下次提交时重试
+                        log.debug("段文件暂时无法删除: {}, {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理段文件失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.news.service.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分词器
+ *
+ * 中日韩文字按单字和相邻二元组切分，拉丁字母和数字按连续单词切分并转为小写，
+ * 其余字符视为分隔符
+ */
+public final class Tokenizer {
+
+    /**
+     * 词项接收器
+     */
+    public interface TermConsumer {
+        void accept(String term);
+    }
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 对文档文本分词，中日韩文字同时产出单字和二元组，保证单字关键词也能命中
+     *
+     * @param text     文本
+     * @param consumer 词项接收器，同一词项可能被多次回调
+     */
+    public static void tokenize(String text, TermConsumer consumer) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        StringBuilder word = new StringBuilder();
+        int prevCjk = -1;
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (isCjk(cp)) {
+                flushWord(word, consumer);
+                consumer.accept(new String(Character.toChars(cp)));
+                if (prevCjk >= 0) {
+                    consumer.accept(new StringBuilder(4).appendCodePoint(prevCjk).appendCodePoint(cp).toString());
+                }
+                prevCjk = cp;
+            } else if (Character.isLetterOrDigit(cp)) {
+                prevCjk = -1;
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                prevCjk = -1;
+                flushWord(word, consumer);
+            }
+        }
+        flushWord(word, consumer);
+    }
+
+    /**
+     * 对查询关键词分词
+     *
+     * 连续中日韩文字长度大于1时只取二元组（二元组已隐含单字），长度为1时取单字；
+     * 拉丁单词原样返回，由索引按前缀展开
+     *
+     * @param keyword 关键词
+     * @return 词项列表，关键词中没有可索引字符时为空
+     */
+    public static List<String> queryTerms(String keyword) {
+        List<String> terms = new ArrayList<>();
+        if (keyword == null || keyword.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder word = new StringBuilder();
+        int prevCjk = -1;
+        boolean runHasBigram = false;
+        int i = 0;
+        while (i < keyword.length()) {
+            int cp = keyword.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (isCjk(cp)) {
+                flushWord(word, terms::add);
+                if (prevCjk >= 0) {
+                    terms.add(new StringBuilder(4).appendCodePoint(prevCjk).appendCodePoint(cp).toString());
+                    runHasBigram = true;
+                }
+                prevCjk = cp;
+                continue;
+            }
+
+            flushSingleCjk(prevCjk, runHasBigram, terms);
+            prevCjk = -1;
+            runHasBigram = false;
+            if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                flushWord(word, terms::add);
+            }
+        }
+        flushSingleCjk(prevCjk, runHasBigram, terms);
+        flushWord(word, terms::add);
+        return terms;
+    }
+
+    /**
+     * 关键词作为子串出现在文档中时，按 {@link #queryTerms} 查索引是否一定能匹配到该文档
+     *
+     * 中日韩二元组和单字总能在文档词项中找到；关键词内部和末尾的拉丁单词在文档中是完整单词或单词前缀，
+     * 能被精确或前缀匹配；只有关键词以拉丁字母或数字开头时，它可能出现在文档某个单词的中间而查不到。
+     * 没有可索引字符的关键词查不到任何文档。
+     */
+    public static boolean indexCoversSubstring(String keyword) {
+        if (keyword == null || keyword.isEmpty() || queryTerms(keyword).isEmpty()) {
+            return false;
+        }
+        int first = keyword.codePointAt(0);
+        return isCjk(first) || !Character.isLetterOrDigit(first);
+    }
+
+    /**
+     * 判断词项是否为中日韩文字词项（精确匹配），否则为拉丁单词（前缀匹配）
+     */
+    public static boolean isCjkTerm(String term) {
+        return !term.isEmpty() && isCjk(term.codePointAt(0));
+    }
+
+    static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushSingleCjk(int prevCjk, boolean runHasBigram, List<String> terms) {
+        if (prevCjk >= 0 && !runHasBigram) {
+            terms.add(new String(Character.toChars(prevCjk)));
+        }
+    }
+
+    private static void flushWord(StringBuilder word, TermConsumer consumer) {
+        if (word.length() > 0) {
+            consumer.accept(word.toString());
+            word.setLength(0);
+        }
+    }
+}
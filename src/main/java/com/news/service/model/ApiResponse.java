@@ -1,21 +1,29 @@
 package com.news.service.model;
 
-public class ApiResponse {
+public class ApiResponse<T> {
     private boolean success;
     private String message;
-    private Object data;
+    private T data;
 
     public ApiResponse(boolean success, String message) {
         this.success = success;
         this.message = message;
     }
 
-    public ApiResponse(boolean success, String message, Object data) {
+    public ApiResponse(boolean success, String message, T data) {
         this.success = success;
         this.message = message;
         this.data = data;
     }
 
+    public static <T> ApiResponse<T> success(T data) {
+        return new ApiResponse<>(true, "操作成功", data);
+    }
+
+    public static <T> ApiResponse<T> error(String message) {
+        return new ApiResponse<>(false, message);
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -32,11 +40,11 @@ public class ApiResponse {
         this.message = message;
     }
 
-    public Object getData() {
+    public T getData() {
         return data;
     }
 
-    public void setData(Object data) {
+    public void setData(T data) {
         this.data = data;
     }
 }
@@ -8,6 +8,9 @@ public class PageResult<T> {
     private int page;
     private int size;
     private int totalPages;
+    private boolean totalExact = true;
+    private String searchAfter;
+    private SearchProfile profile;
 
     public PageResult(List<T> content, long totalElements, int page, int size) {
         this.content = content;
@@ -17,6 +20,10 @@ public class PageResult<T> {
         this.totalPages = size > 0 ? (int) Math.ceil((double) totalElements / size) : 0;
     }
 
+    public static <T> PageResult<T> of(List<T> content, int page, int size, long totalElements) {
+        return new PageResult<>(content, totalElements, page, size);
+    }
+
     public List<T> getContent() {
         return content;
     }
@@ -56,4 +63,34 @@ public class PageResult<T> {
     public void setTotalPages(int totalPages) {
         this.totalPages = totalPages;
     }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+
+    /**
+     * 游标分页时取下一页的令牌，没有下一页时为null
+     */
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(String searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
+    /**
+     * 执行剖析，仅在请求带 profile=true 时返回
+     */
+    public SearchProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(SearchProfile profile) {
+        this.profile = profile;
+    }
 }
@@ -0,0 +1,228 @@
+package com.news.service.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单次搜索的执行剖析
+ *
+ * 请求带 profile=true 时随 {@link PageResult} 一起返回；耗时超过慢查询阈值的搜索也会保存一份，
+ * 通过 /actuator/slowqueries 查看。
+ */
+public class SearchProfile {
+    private long timestamp;
+    private String query;
+    private String backend;
+    private String sortField;
+    private String outcome;
+    private String error;
+    private double elapsedMs;
+    private long total;
+    private int returned;
+    private long rowsScanned;
+    private long xmlChars;
+    private long cacheHits;
+    private long cacheMisses;
+    private Map<String, Double> stagesMs = new LinkedHashMap<>();
+    private List<Statement> statements = new ArrayList<>();
+    private int statementCount;
+
+    /**
+     * 执行过的一条SQL语句
+     */
+    public static class Statement {
+        private String sql;
+        private int binds;
+
+        public Statement() {
+        }
+
+        public Statement(String sql, int binds) {
+            this.sql = sql;
+            this.binds = binds;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public void setSql(String sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * 绑定参数的个数
+         */
+        public int getBinds() {
+            return binds;
+        }
+
+        public void setBinds(int binds) {
+            this.binds = binds;
+        }
+    }
+
+    /**
+     * 搜索结束的时间（毫秒时间戳）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * 编译后的查询
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    /**
+     * 实际执行搜索的后端：index 或 sql（索引未就绪时回退到SQL）
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(String sortField) {
+        this.sortField = sortField;
+    }
+
+    /**
+     * success、timeout 或 error
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public double getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(double elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * 匹配的结果总数，失败时为-1
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * 返回的结果条数，计数请求为-1
+     */
+    public int getReturned() {
+        return returned;
+    }
+
+    public void setReturned(int returned) {
+        this.returned = returned;
+    }
+
+    /**
+     * 读取的行数，内存索引为命中的文档数
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    public void setRowsScanned(long rowsScanned) {
+        this.rowsScanned = rowsScanned;
+    }
+
+    /**
+     * 解析的XML字符数
+     */
+    public long getXmlChars() {
+        return xmlChars;
+    }
+
+    public void setXmlChars(long xmlChars) {
+        this.xmlChars = xmlChars;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void setCacheMisses(long cacheMisses) {
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * 各阶段耗时（毫秒），键为 count/match/fetch/parse/score/highlight/sort，只包含耗时不为0的阶段；
+     * count 和 fetch 为数据库耗时
+     */
+    public Map<String, Double> getStagesMs() {
+        return stagesMs;
+    }
+
+    public void setStagesMs(Map<String, Double> stagesMs) {
+        this.stagesMs = stagesMs;
+    }
+
+    /**
+     * 执行过的SQL语句，按执行顺序，最多保留前若干条
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    public void setStatements(List<Statement> statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * 执行过的SQL语句总数，可能多于 statements 中保留的条数
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public void setStatementCount(int statementCount) {
+        this.statementCount = statementCount;
+    }
+}
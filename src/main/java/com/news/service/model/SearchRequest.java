@@ -4,6 +4,12 @@ public class SearchRequest {
     private String keywords;
     private int page = 1;
     private int size = 10;
+    private String sortField = "score";
+    private String sortDirection = "desc";
+    private boolean exactTotal = true;
+    private String ranking;
+    private String searchAfter;
+    private boolean profile;
 
     public String getKeywords() {
         return keywords;
@@ -29,12 +35,72 @@ public class SearchRequest {
         this.size = size;
     }
 
+    public String getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(String sortField) {
+        this.sortField = sortField;
+    }
+
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    public void setSortDirection(String sortDirection) {
+        this.sortDirection = sortDirection;
+    }
+
+    public boolean isExactTotal() {
+        return exactTotal;
+    }
+
+    public void setExactTotal(boolean exactTotal) {
+        this.exactTotal = exactTotal;
+    }
+
+    public String getRanking() {
+        return ranking;
+    }
+
+    public void setRanking(String ranking) {
+        this.ranking = ranking;
+    }
+
+    /**
+     * 游标分页：为null时按 page 分页；空字符串取游标分页的第一页，之后传入上一页返回的 searchAfter，page 被忽略
+     */
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(String searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
+    /**
+     * 是否随结果返回执行剖析（SQL语句、各阶段耗时、读取行数等），用于排查慢查询
+     */
+    public boolean isProfile() {
+        return profile;
+    }
+
+    public void setProfile(boolean profile) {
+        this.profile = profile;
+    }
+
     @Override
     public String toString() {
         return "SearchRequest{" +
                 "keywords='" + keywords + '\'' +
                 ", page=" + page +
                 ", size=" + size +
+                ", sortField='" + sortField + '\'' +
+                ", sortDirection='" + sortDirection + '\'' +
+                ", exactTotal=" + exactTotal +
+                ", ranking='" + ranking + '\'' +
+                ", searchAfter='" + searchAfter + '\'' +
+                ", profile=" + profile +
                 '}';
     }
 }
@@ -4,9 +4,11 @@ import java.util.Date;
 
 public class SearchResult {
     private String id;
-    private String title;
+    private String name;
     private String content;
-    private Date createTime;
+    private String highlightedContent;
+    private Date created;
+    private double score;
 
     public String getId() {
         return id;
@@ -16,12 +18,12 @@ public class SearchResult {
         this.id = id;
     }
 
-    public String getTitle() {
-        return title;
+    public String getName() {
+        return name;
     }
 
-    public void setTitle(String title) {
-        this.title = title;
+    public void setName(String name) {
+        this.name = name;
     }
 
     public String getContent() {
@@ -32,11 +34,27 @@ public class SearchResult {
         this.content = content;
     }
 
-    public Date getCreateTime() {
-        return createTime;
+    public String getHighlightedContent() {
+        return highlightedContent;
     }
 
-    public void setCreateTime(Date createTime) {
-        this.createTime = createTime;
+    public void setHighlightedContent(String highlightedContent) {
+        this.highlightedContent = highlightedContent;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(Date created) {
+        this.created = created;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
     }
 }
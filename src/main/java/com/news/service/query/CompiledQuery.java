@@ -0,0 +1,103 @@
+package com.news.service.query;
+
+import com.news.service.util.KeywordAutomaton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编译后的关键词查询，不可变，可在线程间共享
+ *
+ * 包含语法树以及由它派生、各后端直接使用的形式：各匹配方言的SQL条件和绑定参数（首次使用时生成）、
+ * 评分用的小写关键词列表、高亮和评分共用的关键词自动机。
+ */
+public final class CompiledQuery {
+
+    /**
+     * 关键词为空的查询
+     */
+    public static final CompiledQuery EMPTY = new CompiledQuery(null, 0);
+
+    private final QueryNode root;
+    private final int groups;
+    private final List<String> keywords;
+    private final Map<String, SqlCondition> conditions = new ConcurrentHashMap<>();
+    private final KeywordAutomaton automaton;
+
+    CompiledQuery(QueryNode root, int groups) {
+        this.root = root;
+        this.groups = groups;
+        if (root == null) {
+            this.keywords = Collections.emptyList();
+            this.automaton = null;
+            return;
+        }
+
+        List<String> collected = new ArrayList<>();
+        root.collectKeywords(collected);
+        this.keywords = Collections.unmodifiableList(collected);
+
+        this.automaton = KeywordAutomaton.build(collected);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * 规范化的语法树，关键词为空时返回null
+     */
+    public QueryNode getRoot() {
+        return root;
+    }
+
+    /**
+     * 解析时逗号分隔的非空分组数（各组之间为AND），关键词为空时为0。
+     * 语法树中同类节点已展开合并，无法从中还原分组数
+     */
+    public int getGroups() {
+        return groups;
+    }
+
+    /**
+     * 所有关键词（小写），用于评分和高亮
+     */
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * 按匹配方言生成的SQL WHERE条件，关键词为空时返回null
+     *
+     * @param nameIndexed 标题列上是否有全文索引
+     */
+    public SqlCondition condition(FullTextDialect dialect, boolean nameIndexed) {
+        if (root == null) {
+            return null;
+        }
+        return conditions.computeIfAbsent(dialect + (nameIndexed ? "+NAME" : ""),
+                key -> dialect.condition(root, nameIndexed));
+    }
+
+    /**
+     * 按匹配方言生成的相关度表达式，方言不支持或关键词为空时返回null
+     */
+    public SqlCondition rank(FullTextDialect dialect, boolean nameIndexed) {
+        return root != null ? dialect.rank(root, nameIndexed) : null;
+    }
+
+    /**
+     * 高亮和评分共用的关键词自动机，按 {@link #getKeywords()} 的顺序构建，关键词为空时返回null
+     */
+    public KeywordAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    @Override
+    public String toString() {
+        return root != null ? root.toString() : "<empty>";
+    }
+}
@@ -0,0 +1,298 @@
+package com.news.service.query;
+
+import com.news.service.util.SqlDialect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 关键词匹配的SQL方言
+ *
+ * 把关键词语法树翻译为WHERE条件：每个关键词匹配标题 b.NAME 或内容 p.FIELD1079，按语法树以AND/OR组合，
+ * 与LIKE的语义一致。LIKE 在任何数据库上都可执行但无法使用索引；其余几种在内容列上使用数据库的全文索引，
+ * 标题列上有全文索引时同样使用，否则标题仍以LIKE匹配。全文检索按分词匹配而不是子串匹配，
+ * 需要事先建好对应的全文索引，是否存在由 {@link #indexProbeSql(String, String)} 探测。
+ */
+public enum FullTextDialect {
+
+    /**
+     * UPPER(列) LIKE UPPER('%关键词%')，全表扫描
+     */
+    LIKE {
+        @Override
+        String match(String column, int label) {
+            return "UPPER(" + column + ") LIKE UPPER(?)";
+        }
+
+        @Override
+        Object param(String keyword) {
+            return "%" + keyword + "%";
+        }
+    },
+
+    /**
+     * PostgreSQL的ILIKE，语义与LIKE相同；列上有 pg_trgm 的GIN索引（gin_trgm_ops）时 ILIKE '%关键词%' 可以走索引，
+     * 中文等不以空格分词的内容也按子串匹配
+     */
+    ILIKE {
+        @Override
+        String match(String column, int label) {
+            return column + " ILIKE ?";
+        }
+
+        @Override
+        Object param(String keyword) {
+            return "%" + keyword + "%";
+        }
+    },
+
+    /**
+     * Oracle Text：每个关键词一个 CONTAINS(列, '{关键词}', 标签) &gt; 0，相关度为各标签 SCORE 之和。
+     * 需要CONTEXT索引，中文内容使用 CHINESE_VGRAM_LEXER 或 WORLD_LEXER
+     */
+    ORACLE_TEXT {
+        @Override
+        String match(String column, int label) {
+            return "CONTAINS(" + column + ", ?, " + label + ") > 0";
+        }
+
+        @Override
+        Object param(String keyword) {
+            // 花括号转义保留字和特殊字符，其中的右花括号写作 }}
+            return "{" + keyword.replace("}", "}}") + "}";
+        }
+
+        @Override
+        String score(String column, int label, List<Object> params, String keyword) {
+            return "SCORE(" + label + ")";
+        }
+
+        @Override
+        public String indexProbeSql(String table, String column) {
+            return "SELECT COUNT(*) FROM USER_INDEXES i JOIN USER_IND_COLUMNS c ON c.INDEX_NAME = i.INDEX_NAME"
+                    + " WHERE i.ITYP_OWNER = 'CTXSYS' AND i.ITYP_NAME = 'CONTEXT'"
+                    + " AND c.TABLE_NAME = '" + table.toUpperCase() + "' AND c.COLUMN_NAME = '" + column.toUpperCase() + "'";
+        }
+    },
+
+    /**
+     * MySQL：每个关键词一个 MATCH(列) AGAINST('"关键词"' IN BOOLEAN MODE)，关键词作为短语，相关度为各表达式之和。
+     * 需要只包含该列的FULLTEXT索引，中文内容使用 WITH PARSER ngram
+     */
+    MYSQL_FULLTEXT {
+        @Override
+        String match(String column, int label) {
+            return "MATCH(" + column + ") AGAINST(? IN BOOLEAN MODE)";
+        }
+
+        @Override
+        Object param(String keyword) {
+            // 短语中的双引号无法转义，替换为空格
+            return '"' + keyword.replace('"', ' ') + '"';
+        }
+
+        @Override
+        String score(String column, int label, List<Object> params, String keyword) {
+            params.add(param(keyword));
+            return match(column, label);
+        }
+
+        @Override
+        public String indexProbeSql(String table, String column) {
+            return "SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()"
+                    + " AND LOWER(TABLE_NAME) = '" + table.toLowerCase() + "'"
+                    + " AND UPPER(COLUMN_NAME) = '" + column.toUpperCase() + "' AND INDEX_TYPE = 'FULLTEXT'";
+        }
+    },
+
+    /**
+     * PostgreSQL：to_tsvector('simple', 列) @@ phraseto_tsquery('simple', ?)，相关度为各 ts_rank 之和。
+     * 需要表达式完全相同的GIN索引：USING GIN (to_tsvector('simple', 列))。
+     * simple 配置只按空白和标点分词，连续的中文会成为一个词，中文语料不宜使用，因此只在显式配置时启用
+     */
+    POSTGRESQL_TSQUERY {
+        @Override
+        String match(String column, int label) {
+            return "to_tsvector('simple', " + column + ") @@ phraseto_tsquery('simple', ?)";
+        }
+
+        @Override
+        Object param(String keyword) {
+            return keyword;
+        }
+
+        @Override
+        String score(String column, int label, List<Object> params, String keyword) {
+            params.add(param(keyword));
+            return "ts_rank(to_tsvector('simple', " + column + "), phraseto_tsquery('simple', ?))";
+        }
+
+        @Override
+        public String indexProbeSql(String table, String column) {
+            return "SELECT COUNT(*) FROM pg_indexes WHERE tablename = '" + table.toLowerCase() + "'"
+                    + " AND indexdef ILIKE '%to_tsvector(''simple''::regconfig, %" + column.toLowerCase() + "%'";
+        }
+    },
+
+    /**
+     * SQL Server：每个关键词一个 CONTAINS(列, '"关键词"')。
+     * CONTAINS本身不返回相关度（需要改写为CONTAINSTABLE连接），按分数排序仍在应用中计算
+     */
+    SQLSERVER_CONTAINS {
+        @Override
+        String match(String column, int label) {
+            return "CONTAINS(" + column + ", ?)";
+        }
+
+        @Override
+        Object param(String keyword) {
+            return '"' + keyword.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public String indexProbeSql(String table, String column) {
+            return "SELECT COUNT(*) FROM sys.fulltext_index_columns ic"
+                    + " JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id"
+                    + " WHERE ic.object_id = OBJECT_ID('" + table + "') AND c.name = '" + column + "'";
+        }
+    };
+
+    public static final String NAME_TABLE = "com_basicinfo";
+    public static final String NAME_COLUMN = "NAME";
+    public static final String CONTENT_TABLE = "cob_program";
+    public static final String CONTENT_COLUMN = "FIELD1079";
+
+    /**
+     * 一列匹配一个关键词的条件，含一个占位符
+     *
+     * @param label 同一语句中各匹配条件的编号，从1开始
+     */
+    abstract String match(String column, int label);
+
+    /**
+     * 关键词对应的绑定参数
+     */
+    abstract Object param(String keyword);
+
+    /**
+     * 一列一个关键词的相关度表达式，需要的绑定参数追加到params
+     *
+     * @return 相关度表达式，不支持时返回null
+     */
+    String score(String column, int label, List<Object> params, String keyword) {
+        return null;
+    }
+
+    /**
+     * 把语法树翻译为WHERE条件
+     *
+     * @param root        非空的语法树
+     * @param nameIndexed 标题列上是否有全文索引，否则标题以LIKE匹配
+     */
+    public SqlCondition condition(QueryNode root, boolean nameIndexed) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        appendCondition(root, nameIndexed, sql, params, new int[]{0}, true);
+        return new SqlCondition(sql.toString(), params);
+    }
+
+    /**
+     * 数据库计算的相关度表达式，值越大越相关，只能用于带有同一参数生成的 {@link #condition} 条件的查询中
+     *
+     * @return 相关度表达式，不支持时返回null
+     */
+    public SqlCondition rank(QueryNode root, boolean nameIndexed) {
+        if (!supportsRank()) {
+            return null;
+        }
+        List<String> keywords = new ArrayList<>();
+        root.collectKeywords(keywords);
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("(");
+        int label = 0;
+        for (String keyword : keywords) {
+            if (nameIndexed) {
+                sql.append(label > 0 ? " + " : "").append(score(qualified(NAME_COLUMN), ++label, params, keyword));
+            }
+            sql.append(label > 0 ? " + " : "").append(score(qualified(CONTENT_COLUMN), ++label, params, keyword));
+        }
+        return new SqlCondition(sql.append(')').toString(), params);
+    }
+
+    public boolean supportsRank() {
+        return this == ORACLE_TEXT || this == MYSQL_FULLTEXT || this == POSTGRESQL_TSQUERY;
+    }
+
+    public boolean isNative() {
+        return this != LIKE && this != ILIKE;
+    }
+
+    /**
+     * 探测列上是否有全文索引的语句，返回大于0的计数表示存在；LIKE类方言返回null
+     *
+     * @param table  表名（常量）
+     * @param column 列名（常量）
+     */
+    public String indexProbeSql(String table, String column) {
+        return null;
+    }
+
+    /**
+     * 自动探测时数据库对应的全文检索方言，没有时返回null。
+     * PostgreSQL的 simple 配置不能切分中文，自动探测时不使用，需通过 app.search.full-text.dialect 显式启用
+     */
+    public static FullTextDialect nativeFor(SqlDialect dialect) {
+        switch (dialect) {
+            case ORACLE:
+                return ORACLE_TEXT;
+            case MYSQL:
+                return MYSQL_FULLTEXT;
+            case SQLSERVER:
+                return SQLSERVER_CONTAINS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 没有全文索引时使用的方言
+     */
+    public static FullTextDialect likeFor(SqlDialect dialect) {
+        return dialect == SqlDialect.POSTGRESQL ? ILIKE : LIKE;
+    }
+
+    private void appendCondition(QueryNode node, boolean nameIndexed, StringBuilder sql, List<Object> params,
+                                 int[] label, boolean top) {
+        if (node.getType() == QueryNode.Type.KEYWORD) {
+            String keyword = node.getKeyword();
+            // 标题没有全文索引时以LIKE匹配，LIKE类方言两列都用自身的匹配方式
+            FullTextDialect name = nameIndexed || !isNative() ? this : this == POSTGRESQL_TSQUERY ? ILIKE : LIKE;
+            sql.append('(').append(name.match(qualified(NAME_COLUMN), name.isNative() ? ++label[0] : 0));
+            params.add(name.param(keyword));
+            sql.append(" OR ").append(match(qualified(CONTENT_COLUMN), isNative() ? ++label[0] : 0)).append(')');
+            params.add(param(keyword));
+            return;
+        }
+
+        // 顶层的AND不加括号，与WHERE直接拼接
+        boolean parenthesize = !top || node.getType() != QueryNode.Type.AND;
+        String operator = node.getType() == QueryNode.Type.AND ? " AND " : " OR ";
+        if (parenthesize) {
+            sql.append('(');
+        }
+        for (int i = 0; i < node.getChildren().size(); i++) {
+            if (i > 0) {
+                sql.append(operator);
+            }
+            appendCondition(node.getChildren().get(i), nameIndexed, sql, params, label, false);
+        }
+        if (parenthesize) {
+            sql.append(')');
+        }
+    }
+
+    private static String qualified(String column) {
+        return (NAME_COLUMN.equals(column) ? "b." : "p.") + column;
+    }
+}
@@ -0,0 +1,110 @@
+package com.news.service.query;
+
+import com.news.service.config.SearchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 关键词查询编译器
+ *
+ * 语法：逗号分隔的条件组之间为AND，组内以OR（不区分大小写，两侧需有空白）分隔的各项之间为OR，
+ * 每项内空格分隔的关键词之间为AND。关键词匹配不区分大小写。
+ * 编译结果按原始关键词字符串缓存在有界的LRU中，SQL后端、内存索引和结果缓存键都由同一个编译结果生成。
+ */
+@Slf4j
+@Component
+public class QueryCompiler {
+
+    private static final Pattern OR_SEPARATOR = Pattern.compile("(?i)\\s+or\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, CompiledQuery> cache;
+
+    @Autowired
+    public QueryCompiler(SearchProperties searchProperties) {
+        int capacity = Math.max(0, searchProperties.getQueryCacheSize());
+        this.cache = new LinkedHashMap<String, CompiledQuery>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledQuery> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 编译关键词字符串
+     *
+     * @param keywords 关键词
+     * @return 编译结果，没有有效关键词时返回 {@link CompiledQuery#EMPTY}
+     */
+    public CompiledQuery compile(String keywords) {
+        if (keywords == null) {
+            return CompiledQuery.EMPTY;
+        }
+
+        synchronized (cache) {
+            CompiledQuery cached = cache.get(keywords);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<QueryNode> groups = parseGroups(keywords);
+        CompiledQuery compiled = groups.isEmpty()
+                ? CompiledQuery.EMPTY
+                : new CompiledQuery(QueryNode.and(groups), groups.size());
+        log.debug("编译关键词: {} -> {}", keywords, compiled);
+
+        synchronized (cache) {
+            cache.put(keywords, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 解析关键词为规范化的语法树
+     *
+     * @return 语法树，没有有效关键词时返回null
+     */
+    static QueryNode parse(String keywords) {
+        List<QueryNode> groups = parseGroups(keywords);
+        return groups.isEmpty() ? null : QueryNode.and(groups);
+    }
+    
+    /**
+     * 按逗号解析出各个非空分组，每组为组内OR的语法树
+     */
+    private static List<QueryNode> parseGroups(String keywords) {
+        List<QueryNode> groups = new ArrayList<>();
+        for (String group : keywords.split(",")) {
+            String trimmedGroup = group.trim();
+            if (trimmedGroup.isEmpty()) {
+                continue;
+            }
+
+            List<QueryNode> orTerms = new ArrayList<>();
+            for (String orTerm : OR_SEPARATOR.split(trimmedGroup)) {
+                List<QueryNode> words = new ArrayList<>();
+                for (String word : WHITESPACE.split(orTerm.trim())) {
+                    if (!word.isEmpty()) {
+                        words.add(QueryNode.keyword(word));
+                    }
+                }
+                if (!words.isEmpty()) {
+                    orTerms.add(QueryNode.and(words));
+                }
+            }
+            if (!orTerms.isEmpty()) {
+                groups.add(QueryNode.or(orTerms));
+            }
+        }
+        return groups;
+    }
+}
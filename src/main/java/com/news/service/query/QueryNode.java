@@ -0,0 +1,131 @@
+package com.news.service.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 关键词查询语法树节点，不可变
+ *
+ * 只有三种节点：AND、OR和单个关键词。只有一个子节点的AND/OR在构建时折叠为该子节点，
+ * 嵌套的同类节点展开合并，子节点按规范顺序排列，因此语义相同（仅顺序或分组不同）的查询得到相等的语法树。
+ */
+public final class QueryNode {
+
+    public enum Type {
+        AND, OR, KEYWORD
+    }
+
+    private static final Comparator<QueryNode> CANONICAL_ORDER = Comparator.comparing(QueryNode::toString);
+
+    private final Type type;
+    private final String keyword;
+    private final List<QueryNode> children;
+    private final String text;
+
+    private QueryNode(Type type, String keyword, List<QueryNode> children) {
+        this.type = type;
+        this.keyword = keyword;
+        this.children = children;
+        this.text = render();
+    }
+
+    /**
+     * 单个关键词，统一转为小写
+     */
+    public static QueryNode keyword(String keyword) {
+        return new QueryNode(Type.KEYWORD, keyword.toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    public static QueryNode and(List<QueryNode> children) {
+        return composite(Type.AND, children);
+    }
+
+    public static QueryNode or(List<QueryNode> children) {
+        return composite(Type.OR, children);
+    }
+
+    private static QueryNode composite(Type type, List<QueryNode> children) {
+        if (children.isEmpty()) {
+            throw new IllegalArgumentException(type + " 节点至少需要一个子节点");
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        List<QueryNode> sorted = new ArrayList<>(children.size());
+        for (QueryNode child : children) {
+            if (child.type == type) {
+                sorted.addAll(child.children);
+            } else {
+                sorted.add(child);
+            }
+        }
+        sorted.sort(CANONICAL_ORDER);
+        return new QueryNode(type, null, Collections.unmodifiableList(sorted));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * 关键词节点的关键词（小写），其他节点返回null
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public List<QueryNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * 按出现顺序收集所有关键词，重复的关键词保留（评分时重复计入）
+     */
+    public void collectKeywords(List<String> keywords) {
+        if (type == Type.KEYWORD) {
+            keywords.add(keyword);
+            return;
+        }
+        for (QueryNode child : children) {
+            child.collectKeywords(keywords);
+        }
+    }
+
+    private String render() {
+        if (type == Type.KEYWORD) {
+            return '"' + keyword.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+        }
+        StringBuilder sb = new StringBuilder(type.name()).append('(');
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(children.get(i).text);
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof QueryNode && text.equals(((QueryNode) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    /**
+     * 规范文本形式，关键词加引号转义，可作为语法树的唯一标识
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
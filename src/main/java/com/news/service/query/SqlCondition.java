@@ -0,0 +1,37 @@
+package com.news.service.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL片段及其绑定参数，不可变
+ */
+public final class SqlCondition {
+
+    private final String sql;
+    private final List<Object> params;
+
+    public SqlCondition(String sql, List<Object> params) {
+        this.sql = sql;
+        this.params = Collections.unmodifiableList(params);
+    }
+
+    /**
+     * SQL片段，表别名约定为 b（com_basicinfo）和 p（cob_program）
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 与 {@link #getSql()} 中占位符一一对应的绑定参数
+     */
+    public List<Object> getParams() {
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -0,0 +1,116 @@
+package com.news.service.service;
+
+import com.news.service.config.SearchProperties;
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchRequest;
+import com.news.service.model.SearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步搜索
+ *
+ * 搜索在专用的有界线程池上执行，不占用Tomcat请求线程。队列满时立即以 {@link RejectedExecutionException} 失败；
+ * 每个搜索从提交起计算截止时间，到达后结果以 {@link SearchTimeoutException} 完成，同时取消正在执行的SQL语句，
+ * 工作线程在下一个检查点退出。线程池的活跃数、排队数等指标以 executor.*（name=search）导出。
+ */
+@Slf4j
+@Service
+public class AsyncSearchService {
+
+    private final SearchService searchService;
+    private final SearchProperties.Async config;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer;
+
+    @Autowired
+    public AsyncSearchService(SearchService searchService, SearchProperties searchProperties,
+                              MeterRegistry meterRegistry) {
+        this.searchService = searchService;
+        this.config = searchProperties.getAsync();
+
+        int poolSize = Math.max(1, config.getPoolSize());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                threadFactory("search-worker"), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory("search-deadline"));
+        new ExecutorServiceMetrics(executor, "search", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    /**
+     * 提交搜索
+     *
+     * @param request 搜索请求
+     * @return 搜索结果；队列已满时以 RejectedExecutionException 完成，超时以 SearchTimeoutException 完成
+     */
+    public CompletableFuture<PageResult<SearchResult>> search(SearchRequest request) {
+        long timeoutMs = config.getTimeoutMs();
+        SearchDeadline deadline = SearchDeadline.after(timeoutMs);
+        CompletableFuture<PageResult<SearchResult>> result = new CompletableFuture<>();
+
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                // 排队期间已超时的搜索不再执行
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(deadline.run(() -> searchService.search(request)));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("搜索队列已满（排队 {} 个），拒绝请求: keywords={}", executor.getQueue().size(),
+                    request.getKeywords());
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (result.completeExceptionally(new SearchTimeoutException(timeoutMs))) {
+                deadline.cancel();
+                if (task.cancel(false)) {
+                    executor.remove((Runnable) task);
+                }
+                log.warn("搜索超过 {} ms，已取消: keywords={}", timeoutMs, request.getKeywords());
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((page, e) -> timeout.cancel(false));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -16,7 +16,8 @@ public interface ConfigService {
     DatabaseInfo getDatabaseInfo();
     
     /**
-     * 更新数据库配置
+     * 更新数据库配置：先按提交的配置建立并预热新连接池、替换当前数据源，成功后才写入配置文件；
+     * 新连接池建立失败时抛出异常，原数据源和配置文件都保持不变
      *
      * @param config 新的数据库配置
      */
@@ -31,7 +32,7 @@ public interface ConfigService {
     String testDatabaseConnection(DatabaseConfig config);
     
     /**
-     * 重新加载配置
+     * 按已保存的配置重新加载数据源，新连接池建立成功后替换当前数据源，无需重启
      */
     void reloadConfig();
 }
\ No newline at end of file
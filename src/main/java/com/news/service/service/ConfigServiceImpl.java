@@ -1,6 +1,7 @@
 package com.news.service.service;
 
 import com.news.service.config.AppConfig;
+import com.news.service.config.DataSourceManager;
 import com.news.service.model.DatabaseConfig;
 import com.news.service.model.DatabaseInfo;
 import lombok.extern.slf4j.Slf4j;
@@ -11,8 +12,10 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.util.Properties;
@@ -25,57 +28,48 @@ import java.util.Properties;
 public class ConfigServiceImpl implements ConfigService {
     
     private final AppConfig appConfig;
+    private final DataSourceManager dataSourceManager;
     
     @Value("${app.config.file}")
     private String configFilePath;
     
-    @Value("${spring.datasource.driver-class-name:}")
-    private String driverClassName;
-    
-    @Value("${spring.datasource.url:}")
-    private String url;
-    
-    @Value("${spring.datasource.username:}")
-    private String username;
-    
     @Autowired
-    public ConfigServiceImpl(AppConfig appConfig) {
+    public ConfigServiceImpl(AppConfig appConfig, DataSourceManager dataSourceManager) {
         this.appConfig = appConfig;
+        this.dataSourceManager = dataSourceManager;
     }
     
     @Override
     public DatabaseInfo getDatabaseInfo() {
         DatabaseInfo info = new DatabaseInfo();
-        info.setDriverClassName(driverClassName);
-        info.setUrl(url);
-        info.setUsername(username);
+        info.setDriverClassName(appConfig.getDriverClassName());
+        info.setUrl(appConfig.getUrl());
+        info.setUsername(appConfig.getUsername());
         info.setEnabled(appConfig.isDataSourceEnabled());
         return info;
     }
     
     @Override
-    public void updateDatabaseConfig(DatabaseConfig config) {
+    public synchronized void updateDatabaseConfig(DatabaseConfig config) {
         log.info("开始更新数据库配置");
         
+        File tempFile = null;
         try {
             // 验证配置文件路径
-            File configFile = new File(configFilePath);
-            if (!configFile.exists()) {
-                File parentDir = configFile.getParentFile();
-                if (parentDir != null && !parentDir.exists()) {
-                    if (!parentDir.mkdirs()) {
-                        throw new IOException("创建配置文件目录失败");
-                    }
-                }
-                if (!configFile.createNewFile()) {
-                    throw new IOException("创建配置文件失败");
+            File configFile = new File(configFilePath).getAbsoluteFile();
+            File parentDir = configFile.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                if (!parentDir.mkdirs()) {
+                    throw new IOException("创建配置文件目录失败");
                 }
             }
             
             // 读取现有配置
             Properties properties = new Properties();
-            if (configFile.length() > 0) {
-                properties.load(Files.newInputStream(Paths.get(configFilePath)));
+            if (configFile.exists() && configFile.length() > 0) {
+                try (InputStream in = Files.newInputStream(configFile.toPath())) {
+                    properties.load(in);
+                }
             }
             
             // 更新配置
@@ -94,16 +88,33 @@ public class ConfigServiceImpl implements ConfigService {
                 properties.remove("spring.datasource.password");
             }
             
-            // 保存配置
-            try (FileOutputStream out = new FileOutputStream(configFile)) {
+            // 先写入同目录下的临时文件，写盘失败时数据源和配置文件都不变
+            tempFile = new File(configFile.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
                 properties.store(out, "数据库配置");
             }
             
+            // 用提交的配置建立并预热新连接池，失败时抛出异常，配置文件保持原样
+            dataSourceManager.reload(properties);
+            
+            // 替换成功后才覆盖配置文件
+            try {
+                Files.move(tempFile.toPath(), configFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+            
             log.info("数据库配置更新成功");
             
         } catch (Exception e) {
             log.error("更新数据库配置失败: {}", e.getMessage(), e);
             throw new RuntimeException("更新配置失败: " + e.getMessage(), e);
+        } finally {
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                log.warn("删除临时配置文件失败: {}", tempFile);
+            }
         }
     }
     
@@ -142,7 +153,7 @@ public class ConfigServiceImpl implements ConfigService {
     @Override
     public void reloadConfig() {
         log.info("开始重新加载配置");
-        appConfig.reloadConfig();
+        dataSourceManager.reload();
         log.info("配置重新加载完成");
     }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.DataSourceChangedEvent;
+import com.news.service.config.SearchProperties;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryCompiler;
+import com.news.service.query.SqlCondition;
+import com.news.service.util.Bm25Scorer;
+import com.news.service.util.KeywordAutomaton;
+import com.news.service.util.SqlDialect;
+import com.news.service.util.XmlContentExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL后端的语料统计，供BM25评分使用
+ *
+ * 文档总数和平均标题长度由聚合查询得到，平均内容长度由最新文档抽样估算，按配置的间隔刷新；
+ * 关键词的文档频率用与搜索相同的匹配条件计数，与文档总数属于同一份统计，缓存到下次刷新为止。
+ * 文档频率不随新文档入库（结果缓存代数前进）失效，否则高水位每次前进都要为每个关键词重新执行全表COUNT。
+ */
+@Slf4j
+@Component
+public class CorpusStatisticsService {
+
+    private static final String FROM_CLAUSE = " FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id";
+
+    /**
+     * 文档频率缓存的条目上限，超过后整体清空
+     */
+    private static final int MAX_CACHED_FREQUENCIES = 10000;
+
+    private JdbcTemplate jdbcTemplate;
+    private final AppConfig appConfig;
+    private final SearchProperties searchProperties;
+    private final XmlContentExtractor xmlContentExtractor;
+    private final QueryCompiler queryCompiler;
+    private final FullTextSupport fullTextSupport;
+
+    private volatile Stats stats;
+
+    @Autowired
+    public CorpusStatisticsService(AppConfig appConfig, SearchProperties searchProperties,
+                                   XmlContentExtractor xmlContentExtractor, QueryCompiler queryCompiler,
+                                   FullTextSupport fullTextSupport) {
+        this.appConfig = appConfig;
+        this.searchProperties = searchProperties;
+        this.xmlContentExtractor = xmlContentExtractor;
+        this.queryCompiler = queryCompiler;
+        this.fullTextSupport = fullTextSupport;
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 为查询创建BM25评分器
+     *
+     * @param query 编译后的查询，不能为空查询
+     * @return 评分器
+     */
+    public Bm25Scorer bm25(CompiledQuery query) {
+        Stats current = currentStats();
+        KeywordAutomaton automaton = query.getAutomaton();
+        long[] frequencies = new long[automaton.keywordCount()];
+        for (int keyword = 0; keyword < frequencies.length; keyword++) {
+            frequencies[keyword] = docFrequency(current, automaton.keyword(keyword));
+        }
+
+        SearchProperties.Ranking config = searchProperties.getRanking();
+        return new Bm25Scorer(automaton, current.docCount, frequencies,
+                current.avgTitleLength, current.avgContentLength,
+                config.getK1(), config.getTitleWeight(), config.getTitleB(), config.getContentB());
+    }
+
+    /**
+     * 切换到其他数据库后丢弃已有统计，下次评分时重新统计
+     */
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        if (event.isTargetChanged()) {
+            synchronized (this) {
+                stats = null;
+            }
+        }
+    }
+
+    /**
+     * 包含关键词的文档数，匹配条件与搜索一致，缓存在当前统计中
+     */
+    private long docFrequency(Stats current, String keyword) {
+        Map<String, Long> docFrequencies = current.docFrequencies;
+        if (docFrequencies.size() > MAX_CACHED_FREQUENCIES) {
+            docFrequencies.clear();
+        }
+
+        Long cached = docFrequencies.get(keyword);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompiledQuery single = queryCompiler.compile(keyword);
+        if (single.isEmpty()) {
+            return 0;
+        }
+        SqlCondition where = fullTextSupport.condition(single);
+        String sql = "SELECT COUNT(*)" + FROM_CLAUSE + " WHERE " + where.getSql();
+        SearchTrace.sql(sql, where.getParams().size());
+        long start = SearchTrace.start();
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, where.getParams().toArray());
+        SearchTrace.stage(SearchTrace.Stage.COUNT, start);
+        long frequency = count != null ? count : 0;
+        docFrequencies.put(keyword, frequency);
+        log.debug("关键词 [{}] 的文档频率: {}", keyword, frequency);
+        return frequency;
+    }
+
+    private Stats currentStats() {
+        Stats current = stats;
+        long interval = searchProperties.getRanking().getStatsRefreshIntervalMs();
+        if (current != null && System.currentTimeMillis() - current.refreshedAt < interval) {
+            return current;
+        }
+        synchronized (this) {
+            current = stats;
+            if (current != null && System.currentTimeMillis() - current.refreshedAt < interval) {
+                return current;
+            }
+            stats = current = loadStats();
+            return current;
+        }
+    }
+
+    private Stats loadStats() {
+        long start = System.currentTimeMillis();
+        SqlDialect dialect = SqlDialect.fromUrl(appConfig.getUrl());
+
+        String aggregateSql = "SELECT COUNT(*) AS doc_count, AVG(" + dialect.lengthFunction() + "(b.NAME) * 1.0)"
+                + " AS avg_name_length" + FROM_CLAUSE;
+        double[] aggregate = jdbcTemplate.queryForObject(aggregateSql,
+                (rs, rowNum) -> new double[]{rs.getLong("doc_count"), rs.getDouble("avg_name_length")});
+
+        // 内容长度按提取出的摘要计算，与评分时使用的内容一致，无法在SQL中直接聚合，取最新文档抽样
+        int sampleSize = Math.max(1, searchProperties.getRanking().getStatsSampleSize());
+        String sampleSql = dialect.paginate("SELECT b.ID, p.FIELD1079 as xml_content" + FROM_CLAUSE
+                + " ORDER BY b.CREATED DESC, b.ID DESC");
+        List<Object> params = new ArrayList<>();
+        dialect.addPageParams(params, 0, sampleSize);
+        long[] contentLength = new long[2];
+        jdbcTemplate.query(sampleSql, rs -> {
+            String content = xmlContentExtractor.extractContent(rs, "xml_content", XmlContentExtractor.SNIPPET_LENGTH);
+            contentLength[0] += content.length();
+            contentLength[1]++;
+        }, params.toArray());
+
+        long docCount = aggregate != null ? (long) aggregate[0] : 0;
+        double avgTitleLength = aggregate != null ? aggregate[1] : 0.0;
+        double avgContentLength = contentLength[1] > 0 ? (double) contentLength[0] / contentLength[1] : 0.0;
+        log.info("语料统计刷新完成，文档数: {}, 平均标题长度: {}, 平均内容长度: {}（抽样 {} 篇）, 耗时: {} ms",
+                docCount, String.format("%.1f", avgTitleLength), String.format("%.1f", avgContentLength),
+                contentLength[1], System.currentTimeMillis() - start);
+        return new Stats(docCount, avgTitleLength, avgContentLength, System.currentTimeMillis());
+    }
+
+    private static final class Stats {
+        private final long docCount;
+        private final double avgTitleLength;
+        private final double avgContentLength;
+        private final long refreshedAt;
+        private final Map<String, Long> docFrequencies = new ConcurrentHashMap<>();
+
+        Stats(long docCount, double avgTitleLength, double avgContentLength, long refreshedAt) {
+            this.docCount = docCount;
+            this.avgTitleLength = avgTitleLength;
+            this.avgContentLength = avgContentLength;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import com.news.service.util.SqlDialect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 只进游标查询
+ *
+ * 以 TYPE_FORWARD_ONLY/CONCUR_READ_ONLY 打开结果集，并按方言设置fetchSize，驱动每次只取回一批行，
+ * 读取的行数再多内存占用也保持平稳。PostgreSQL需要关闭自动提交才会分批读取，连接归还连接池时由HikariCP回滚并恢复。
+ * 中途停止或失败时先取消语句再关闭结果集，避免MySQL流式结果集关闭时读完剩余的行。
+ * 语句经过JdbcTemplate执行，异步搜索的截止时间同样生效。
+ */
+@Slf4j
+@Component
+public class CursorQuery {
+
+    /**
+     * 逐行处理游标当前行
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * @return 是否继续读取下一行
+         */
+        boolean process(ResultSet rs) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig appConfig;
+    private final SearchProperties.Stream config;
+
+    @Autowired
+    public CursorQuery(JdbcTemplate jdbcTemplate, AppConfig appConfig, SearchProperties searchProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.appConfig = appConfig;
+        this.config = searchProperties.getStream();
+    }
+
+    /**
+     * 以只进游标执行查询，由extractor读取结果集
+     */
+    public <T> T query(String sql, List<Object> params, ResultSetExtractor<T> extractor) {
+        SqlDialect dialect = SqlDialect.fromUrl(appConfig.getUrl());
+        int fetchSize = dialect.streamingFetchSize(config.getFetchSize());
+
+        SearchTrace.sql(sql, params.size());
+        // 语句执行（到取回第一批行为止）计入读取阶段，逐行读取由extractor记录
+        long start = SearchTrace.start();
+        return jdbcTemplate.query(con -> {
+            if (dialect.cursorRequiresTransaction() && con.getAutoCommit()) {
+                con.setAutoCommit(false);
+            }
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(params.toArray()).setValues(ps);
+            return ps;
+        }, rs -> {
+            SearchTrace.stage(SearchTrace.Stage.FETCH, start);
+            try {
+                return extractor.extractData(rs);
+            } catch (SQLException | RuntimeException e) {
+                cancel(rs.getStatement());
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * 以只进游标执行查询，逐行交给handler，handler返回false时停止读取
+     *
+     * @return 处理的行数
+     */
+    public long forEachRow(String sql, List<Object> params, RowHandler handler) {
+        Long rows = query(sql, params, rs -> {
+            long count = 0;
+            while (rs.next()) {
+                count++;
+                if (!handler.process(rs)) {
+                    cancel(rs.getStatement());
+                    break;
+                }
+            }
+            return count;
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.debug("取消游标语句失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.news.service.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 导出的续传令牌
+ *
+ * 导出按 b.ID 升序输出，令牌记录最后一条已输出记录的ID，续传时以 b.ID > ? 定位到下一条，
+ * 不重新扫描已输出的部分。数值型ID和字符串型ID分别编码，绑定参数时保持原来的类型。
+ */
+public final class ExportCursor {
+
+    private static final String NUMBER_PREFIX = "n:";
+    private static final String STRING_PREFIX = "s:";
+
+    private final Object lastId;
+
+    private ExportCursor(Object lastId) {
+        this.lastId = lastId;
+    }
+
+    /**
+     * 以结果集中读取的ID创建令牌
+     *
+     * @param rawId 结果集返回的ID，数值类型按数值比较，其他类型按字符串比较
+     */
+    public static ExportCursor after(Object rawId) {
+        if (rawId instanceof Number) {
+            return new ExportCursor(new BigDecimal(rawId.toString()));
+        }
+        return new ExportCursor(String.valueOf(rawId));
+    }
+
+    /**
+     * 解析令牌
+     *
+     * @param token 令牌文本
+     * @return 续传位置
+     * @throws IllegalArgumentException 令牌无效
+     */
+    public static ExportCursor decode(String token) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("续传令牌无效: " + token);
+        }
+        if (text.startsWith(NUMBER_PREFIX)) {
+            try {
+                return new ExportCursor(new BigDecimal(text.substring(NUMBER_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("续传令牌无效: " + token);
+            }
+        }
+        if (text.startsWith(STRING_PREFIX)) {
+            return new ExportCursor(text.substring(STRING_PREFIX.length()));
+        }
+        throw new IllegalArgumentException("续传令牌无效: " + token);
+    }
+
+    /**
+     * 编码为URL安全的令牌文本
+     */
+    public String encode() {
+        String text = lastId instanceof BigDecimal
+                ? NUMBER_PREFIX + ((BigDecimal) lastId).toPlainString()
+                : STRING_PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 作为 b.ID > ? 的绑定参数
+     */
+    public Object getLastId() {
+        return lastId;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportCursor{lastId=" + lastId + '}';
+    }
+}
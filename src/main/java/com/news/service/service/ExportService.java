@@ -0,0 +1,97 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryCompiler;
+import com.news.service.query.SqlCondition;
+import com.news.service.util.ExportWriter;
+import com.news.service.util.XmlContentExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导出
+ *
+ * 以只进游标按 b.ID 升序读取全部匹配记录，逐行从XML中流式提取完整内容后直接写出，整个导出只执行一次查询，
+ * 内存占用与匹配数无关。每条记录带有续传令牌，连接中断后从最后收到的令牌继续，用 b.ID > ? 定位，
+ * 不重新读取已导出的部分。
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final String FROM_CLAUSE = " FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE ";
+
+    private final AppConfig appConfig;
+    private final QueryCompiler queryCompiler;
+    private final XmlContentExtractor xmlContentExtractor;
+    private final CursorQuery cursorQuery;
+    private final FullTextSupport fullTextSupport;
+
+    @Autowired
+    public ExportService(AppConfig appConfig, QueryCompiler queryCompiler, XmlContentExtractor xmlContentExtractor,
+                         CursorQuery cursorQuery, FullTextSupport fullTextSupport) {
+        this.appConfig = appConfig;
+        this.queryCompiler = queryCompiler;
+        this.xmlContentExtractor = xmlContentExtractor;
+        this.cursorQuery = cursorQuery;
+        this.fullTextSupport = fullTextSupport;
+    }
+
+    public boolean isAvailable() {
+        return appConfig.isDataSourceEnabled();
+    }
+
+    /**
+     * 编译导出的关键词，语法与搜索相同
+     */
+    public CompiledQuery compile(String keywords) {
+        return queryCompiler.compile(keywords);
+    }
+
+    /**
+     * 导出匹配的记录
+     *
+     * @param query  编译后的查询
+     * @param after  续传位置，为null时从头导出
+     * @param writer 记录写出器，写出失败（如客户端断开）时以 UncheckedIOException 中止查询
+     * @return 导出的记录数
+     */
+    public long export(CompiledQuery query, ExportCursor after, ExportWriter writer) {
+        SqlCondition where = fullTextSupport.condition(query);
+        List<Object> params = new ArrayList<>(where.getParams());
+        String sql = "SELECT b.ID, b.NAME, b.CREATED, p.FIELD1079 as xml_content" + FROM_CLAUSE
+                + "(" + where.getSql() + ")";
+        if (after != null) {
+            sql += " AND b.ID > ?";
+            params.add(after.getLastId());
+        }
+        sql += " ORDER BY b.ID ASC";
+        log.info("开始导出: {}, 续传位置: {}", query, after);
+        log.debug("执行导出查询: {}", sql);
+
+        long exported = cursorQuery.forEachRow(sql, params, rs -> {
+            // 按SELECT的列顺序读取，SQL Server等驱动流式读取时不能回头读前面的列
+            String cursor = ExportCursor.after(rs.getObject("ID")).encode();
+            String id = rs.getString("ID");
+            String name = rs.getString("NAME");
+            Timestamp created = rs.getTimestamp("CREATED");
+            String content = xmlContentExtractor.extractContent(rs, "xml_content", 0);
+            try {
+                writer.write(id, name, created, content, cursor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+        log.info("导出完成，共 {} 条记录", exported);
+        return exported;
+    }
+}
@@ -0,0 +1,143 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.DataSourceChangedEvent;
+import com.news.service.config.SearchProperties;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.FullTextDialect;
+import com.news.service.query.SqlCondition;
+import com.news.service.util.SqlDialect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 选择SQL后端的关键词匹配方言
+ *
+ * app.search.full-text.dialect 为 auto 时，首次使用时按数据库类型探测 cob_program.FIELD1079 上的全文索引，
+ * 有索引时使用数据库的全文检索，没有索引、探测失败或未识别的数据库（包括任何兼容模式下的H2）使用LIKE；
+ * 指定了方言时直接使用，不探测内容列。使用全文检索时另外探测 com_basicinfo.NAME 上的全文索引，
+ * 没有时标题仍以LIKE匹配。探测结果保留到切换数据源为止。
+ */
+@Slf4j
+@Component
+public class FullTextSupport {
+
+    private static final String AUTO = "auto";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig appConfig;
+    private final SearchProperties.FullText config;
+
+    private volatile Selection selection;
+
+    /**
+     * 探测结果：匹配方言和标题列上是否有全文索引
+     */
+    private static final class Selection {
+        private final FullTextDialect dialect;
+        private final boolean nameIndexed;
+
+        private Selection(FullTextDialect dialect, boolean nameIndexed) {
+            this.dialect = dialect;
+            this.nameIndexed = nameIndexed;
+        }
+    }
+
+    @Autowired
+    public FullTextSupport(JdbcTemplate jdbcTemplate, AppConfig appConfig, SearchProperties searchProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.appConfig = appConfig;
+        this.config = searchProperties.getFullText();
+    }
+
+    /**
+     * 当前使用的匹配方言
+     */
+    public FullTextDialect dialect() {
+        return selection().dialect;
+    }
+
+    /**
+     * 查询的WHERE条件，关键词为空时返回null
+     */
+    public SqlCondition condition(CompiledQuery query) {
+        Selection current = selection();
+        return query.condition(current.dialect, current.nameIndexed);
+    }
+
+    /**
+     * native 排序模型使用的数据库相关度表达式，当前方言不支持时返回null，由应用读取内容评分
+     */
+    public SqlCondition rank(CompiledQuery query) {
+        Selection current = selection();
+        return query.rank(current.dialect, current.nameIndexed);
+    }
+
+    /**
+     * 切换到其他数据库后重新探测
+     */
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        if (event.isTargetChanged()) {
+            selection = null;
+        }
+    }
+
+    private Selection selection() {
+        Selection current = selection;
+        if (current == null) {
+            synchronized (this) {
+                if (selection == null) {
+                    selection = select();
+                }
+                current = selection;
+            }
+        }
+        return current;
+    }
+
+    private Selection select() {
+        SqlDialect sqlDialect = SqlDialect.fromUrl(appConfig.getUrl());
+        FullTextDialect fallback = FullTextDialect.likeFor(sqlDialect);
+        String configured = config.getDialect() == null ? AUTO : config.getDialect().trim();
+
+        FullTextDialect dialect;
+        if (configured.isEmpty() || AUTO.equalsIgnoreCase(configured)) {
+            FullTextDialect candidate = FullTextDialect.nativeFor(sqlDialect);
+            dialect = candidate != null
+                    && hasIndex(candidate, FullTextDialect.CONTENT_TABLE, FullTextDialect.CONTENT_COLUMN)
+                    ? candidate : fallback;
+        } else {
+            try {
+                dialect = FullTextDialect.valueOf(configured.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warn("无法识别的关键词匹配方言 {}，使用 {}", configured, fallback);
+                dialect = fallback;
+            }
+        }
+
+        boolean nameIndexed = dialect.isNative()
+                && hasIndex(dialect, FullTextDialect.NAME_TABLE, FullTextDialect.NAME_COLUMN);
+        log.info("关键词匹配使用 {}{}", dialect, dialect.isNative() && !nameIndexed ? "，标题以LIKE匹配" : "");
+        return new Selection(dialect, nameIndexed);
+    }
+
+    private boolean hasIndex(FullTextDialect dialect, String table, String column) {
+        try {
+            Long indexes = jdbcTemplate.queryForObject(dialect.indexProbeSql(table, column), Long.class);
+            boolean found = indexes != null && indexes > 0;
+            if (!found) {
+                log.info("{}.{} 上没有 {} 可用的全文索引", table, column, dialect);
+            }
+            return found;
+        } catch (Exception e) {
+            log.warn("探测 {}.{} 上的全文索引失败: {}", table, column, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.news.service.service;
+
+import com.news.service.config.SearchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 结果行并行处理
+ *
+ * JDBC线程只读取每行的原始列，XML解析、评分等CPU密集的处理按批分发到专用的ForkJoinPool；
+ * 行数达到阈值之前读取器可以直接在JDBC线程上解析，不必为可能逐行处理的行复制原始列。
+ * 处理结果按结果集顺序交给JDBC线程上的消费者，与逐行处理的结果完全一致，消费者不需要线程安全。
+ * 行数未达到阈值时在JDBC线程上逐行处理；未处理完的批数有上限，限制缓冲的原始列占用的内存。
+ * 调用线程上的 {@link SearchTrace} 随批次绑定到工作线程，并行阶段的耗时按各线程累加。
+ */
+@Slf4j
+@Component
+public class ParallelRowProcessor {
+
+    /**
+     * 在JDBC线程上读取一行的原始列
+     */
+    @FunctionalInterface
+    public interface RowReader<R> {
+        /**
+         * @param parallel 为true时该行一定在并行线程上处理，应只读取原始列；
+         *                 为false时行数尚未达到阈值，可以在JDBC线程上直接解析，解析耗时计入 PARSE 阶段
+         */
+        R read(ResultSet rs, boolean parallel) throws SQLException;
+    }
+
+    private final SearchProperties.Parallel config;
+    private final ForkJoinPool pool;
+    private final int maxPendingBatches;
+
+    @Autowired
+    public ParallelRowProcessor(SearchProperties searchProperties) {
+        this.config = searchProperties.getParallel();
+        int parallelism = config.getParallelism() > 0
+                ? config.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("search-parallel-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.maxPendingBatches = config.getMaxPendingBatches() > 0 ? config.getMaxPendingBatches() : parallelism * 2;
+        log.info("结果行并行处理线程池已创建，并行度: {}, 阈值: {} 行, 每批: {} 行", parallelism,
+                config.getThresholdRows(), config.getBatchSize());
+    }
+
+    /**
+     * 读取并处理结果集的全部行
+     *
+     * @param rs        结果集，位于第一行之前
+     * @param reader    在JDBC线程上读取原始列
+     * @param processor 处理一行原始列，可能在并行线程上执行，必须线程安全
+     * @param sink      按结果集顺序接收处理结果，在调用线程上执行
+     * @return 读取的行数
+     */
+    public <R, T> long process(ResultSet rs, RowReader<R> reader, Function<R, T> processor, Consumer<T> sink)
+            throws SQLException {
+        int threshold = config.isEnabled() ? Math.max(1, config.getThresholdRows()) : Integer.MAX_VALUE;
+        int batchSize = Math.max(1, config.getBatchSize());
+        List<R> buffer = new ArrayList<>();
+        Deque<ForkJoinTask<List<T>>> pending = new ArrayDeque<>();
+        SearchTrace trace = SearchTrace.current();
+        boolean parallel = false;
+        long rows = 0;
+
+        try {
+            long fetchStart = SearchTrace.start();
+            while (rs.next()) {
+                SearchDeadline.checkpoint();
+                if (parallel) {
+                    buffer.add(reader.read(rs, true));
+                    SearchTrace.stage(SearchTrace.Stage.FETCH, fetchStart);
+                } else {
+                    // 尚无并行任务，解析阶段的增量都来自这一行在JDBC线程上的解析
+                    long parseBefore = trace != null ? trace.stageNanos(SearchTrace.Stage.PARSE) : 0;
+                    buffer.add(reader.read(rs, false));
+                    SearchTrace.stageExcluding(SearchTrace.Stage.FETCH, fetchStart, SearchTrace.Stage.PARSE,
+                            parseBefore);
+                }
+                rows++;
+                if (!parallel && buffer.size() >= threshold) {
+                    parallel = true;
+                }
+                if (parallel && buffer.size() >= batchSize) {
+                    submit(buffer, batchSize, processor, sink, pending, trace);
+                    buffer = new ArrayList<>(batchSize);
+                }
+                fetchStart = SearchTrace.start();
+            }
+            SearchTrace.stage(SearchTrace.Stage.FETCH, fetchStart);
+            SearchTrace.rows(rows);
+
+            if (!parallel) {
+                for (R row : buffer) {
+                    sink.accept(processor.apply(row));
+                }
+                return rows;
+            }
+
+            submit(buffer, batchSize, processor, sink, pending, trace);
+            while (!pending.isEmpty()) {
+                drainOldest(pending, sink);
+            }
+            log.debug("并行处理结果行: {} 行", rows);
+            return rows;
+        } catch (RuntimeException | SQLException e) {
+            for (ForkJoinTask<List<T>> task : pending) {
+                task.cancel(false);
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private <R, T> void submit(List<R> rows, int batchSize, Function<R, T> processor, Consumer<T> sink,
+                               Deque<ForkJoinTask<List<T>>> pending, SearchTrace trace) {
+        for (int start = 0; start < rows.size(); start += batchSize) {
+            List<R> batch = rows.subList(start, Math.min(start + batchSize, rows.size()));
+            Supplier<List<T>> task = () -> {
+                List<T> results = new ArrayList<>(batch.size());
+                for (R row : batch) {
+                    results.add(processor.apply(row));
+                }
+                return results;
+            };
+            pending.addLast(pool.submit(() -> trace != null ? trace.attach(task) : task.get()));
+            while (pending.size() >= maxPendingBatches) {
+                drainOldest(pending, sink);
+            }
+        }
+    }
+
+    private static <T> void drainOldest(Deque<ForkJoinTask<List<T>>> pending, Consumer<T> sink) {
+        for (T result : pending.pollFirst().join()) {
+            sink.accept(result);
+        }
+    }
+}
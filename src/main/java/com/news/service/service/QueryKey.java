@@ -0,0 +1,92 @@
+package com.news.service.service;
+
+import com.news.service.model.SearchRequest;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryNode;
+import com.news.service.util.RankingModel;
+
+import java.util.Locale;
+
+/**
+ * 查询结果缓存的键
+ *
+ * 由编译后查询的规范化语法树、排序方式、排序模型和后端组成。语法树与关键词顺序、大小写无关，
+ * 重复的关键词会影响评分，在语法树中保留。
+ */
+public final class QueryKey {
+
+    private final String backend;
+    private final QueryNode root;
+    private final String sortField;
+    private final boolean asc;
+    private final RankingModel ranking;
+    private final int hash;
+
+    private QueryKey(String backend, QueryNode root, String sortField, boolean asc, RankingModel ranking) {
+        this.backend = backend;
+        this.root = root;
+        this.sortField = sortField;
+        this.asc = asc;
+        this.ranking = ranking;
+        this.hash = (((backend.hashCode() * 31 + root.hashCode()) * 31 + sortField.hashCode()) * 31
+                + Boolean.hashCode(asc)) * 31 + ranking.hashCode();
+    }
+
+    /**
+     * 构建缓存键
+     *
+     * @param backend 搜索后端标识，不同后端的结果分开缓存
+     * @param query   编译后的查询
+     * @param request 搜索请求，取排序方式
+     * @param ranking 排序模型，决定缓存的候选项中的分数
+     * @return 缓存键，查询为空时返回null
+     */
+    public static QueryKey of(String backend, CompiledQuery query, SearchRequest request, RankingModel ranking) {
+        if (query.isEmpty()) {
+            return null;
+        }
+
+        String sortField = request.getSortField();
+        if ("NAME".equalsIgnoreCase(sortField) || "CREATED".equalsIgnoreCase(sortField)) {
+            sortField = sortField.toUpperCase(Locale.ROOT);
+        } else {
+            sortField = "SCORE";
+        }
+        return new QueryKey(backend, query.getRoot(), sortField, "asc".equalsIgnoreCase(request.getSortDirection()),
+                ranking);
+    }
+
+    /**
+     * 估算键占用的字节数
+     */
+    int weight() {
+        return 64 + root.toString().length() * 4;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryKey)) {
+            return false;
+        }
+        QueryKey other = (QueryKey) o;
+        return hash == other.hash
+                && asc == other.asc
+                && ranking == other.ranking
+                && backend.equals(other.backend)
+                && sortField.equals(other.sortField)
+                && root.equals(other.root);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return backend + ":" + root + " " + sortField + (asc ? " asc" : " desc") + " " + ranking;
+    }
+}
@@ -0,0 +1,59 @@
+package com.news.service.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 缓存的排序结果：按请求排序方式排好序的候选列表和总数，不包含内容和高亮，
+ * 命中后只需为当前页加载内容。候选列表可以只是排序结果的前缀（前若干页）
+ */
+public final class RankedResult {
+
+    private final List<SearchCandidate> candidates;
+    private final long total;
+    private final int weight;
+
+    public RankedResult(List<SearchCandidate> candidates, long total) {
+        this.candidates = Collections.unmodifiableList(candidates);
+        this.total = total;
+
+        int bytes = 64;
+        for (SearchCandidate candidate : candidates) {
+            bytes += 96 + length(candidate.getId()) * 2 + length(candidate.getName()) * 2;
+        }
+        this.weight = bytes;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * 候选列表是否包含请求的整页，或已包含全部结果
+     */
+    public boolean covers(long from, int size) {
+        return candidates.size() >= total || from + size <= candidates.size();
+    }
+
+    /**
+     * 取一页候选项
+     */
+    public List<SearchCandidate> page(long from, int size) {
+        if (from < 0 || size <= 0 || from >= candidates.size()) {
+            return Collections.emptyList();
+        }
+        int to = (int) Math.min(from + size, candidates.size());
+        return candidates.subList((int) from, to);
+    }
+
+    /**
+     * 估算占用的字节数
+     */
+    int weight() {
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.news.service.service;
+
+import com.news.service.model.SearchRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * 游标分页（search after）的续传令牌
+ *
+ * 令牌记录上一页最后一条结果的（分数, CREATED, ID）以及名称和排序方式，下一页只取严格排在它之后的结果，
+ * 不需要先取出前面各页：按名称/时间排序时在SQL中以 (列, ID) 定位，按分数排序时扫描中直接跳过，
+ * 堆的容量只有一页，第500页与第1页的代价相同。
+ * 排序键相同的结果按ID排列，保证顺序是全序，翻页时不会重复或遗漏。
+ */
+public final class SearchAfter {
+
+    public static final String SCORE = "SCORE";
+    public static final String NAME = "NAME";
+    public static final String CREATED = "CREATED";
+
+    private static final int VERSION = 1;
+
+    private final String sortField;
+    private final boolean asc;
+    private final SearchCandidate anchor;
+
+    private SearchAfter(String sortField, boolean asc, SearchCandidate anchor) {
+        this.sortField = sortField;
+        this.asc = asc;
+        this.anchor = anchor;
+    }
+
+    /**
+     * 以一页的最后一条结果创建令牌
+     */
+    public static SearchAfter of(SearchRequest request, SearchCandidate last) {
+        return new SearchAfter(sortField(request), isAsc(request), last);
+    }
+
+    /**
+     * 请求是否使用游标分页。searchAfter 为空字符串表示游标分页的第一页
+     */
+    public static boolean isRequested(SearchRequest request) {
+        return request.getSearchAfter() != null;
+    }
+
+    /**
+     * 解析请求中的令牌，第一页返回null
+     *
+     * @throws IllegalArgumentException 令牌无效或与请求的排序方式不一致
+     */
+    public static SearchAfter from(SearchRequest request) {
+        String token = request.getSearchAfter();
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        SearchAfter after = decode(token.trim());
+        if (!after.sortField.equals(sortField(request)) || after.asc != isAsc(request)) {
+            throw new IllegalArgumentException("searchAfter 与请求的排序方式不一致");
+        }
+        return after;
+    }
+
+    /**
+     * 规范化的排序字段：SCORE、NAME 或 CREATED
+     */
+    public static String sortField(SearchRequest request) {
+        String field = request.getSortField();
+        if (NAME.equalsIgnoreCase(field)) {
+            return NAME;
+        }
+        if (CREATED.equalsIgnoreCase(field)) {
+            return CREATED;
+        }
+        return SCORE;
+    }
+
+    private static boolean isAsc(SearchRequest request) {
+        return "asc".equalsIgnoreCase(request.getSortDirection());
+    }
+
+    /**
+     * 游标分页使用的全序：先按排序键（没有创建时间的排在升序末尾，没有名称的排在升序末尾），键相同时按ID升序
+     */
+    public static Comparator<SearchCandidate> order(String sortField, boolean asc) {
+        Comparator<SearchCandidate> byKey;
+        if (NAME.equals(sortField)) {
+            byKey = Comparator.comparing(SearchCandidate::getName, Comparator.nullsLast(String::compareTo));
+        } else if (CREATED.equals(sortField)) {
+            byKey = Comparator.comparingDouble(SearchAfter::createdKey);
+        } else {
+            byKey = Comparator.comparingDouble(SearchCandidate::getScore);
+        }
+        if (!asc) {
+            byKey = byKey.reversed();
+        }
+        return byKey.thenComparing(SearchCandidate::getId, Comparator.nullsLast(String::compareTo));
+    }
+
+    /**
+     * 候选项是否严格排在令牌之后
+     */
+    public boolean admits(SearchCandidate candidate, Comparator<SearchCandidate> order) {
+        return order.compare(candidate, anchor) > 0;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public boolean isAsc() {
+        return asc;
+    }
+
+    /**
+     * 上一页最后一条结果，CREATED 保留数据库返回的纳秒精度
+     */
+    public SearchCandidate getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * 编码为URL安全的令牌文本
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(sortField);
+            out.writeBoolean(asc);
+            out.writeDouble(anchor.getScore());
+            Date created = anchor.getCreated();
+            out.writeBoolean(created != null);
+            if (created != null) {
+                out.writeLong(created.getTime());
+                out.writeInt(created instanceof Timestamp ? ((Timestamp) created).getNanos() : -1);
+            }
+            out.writeBoolean(anchor.getName() != null);
+            if (anchor.getName() != null) {
+                out.writeUTF(anchor.getName());
+            }
+            // ID的文本用于内存中排序，数值型ID另存数值，SQL定位时按数值绑定
+            out.writeUTF(anchor.getId());
+            Object rawId = anchor.getRawId();
+            out.writeBoolean(rawId instanceof Number);
+            if (rawId instanceof Number) {
+                out.writeUTF(new BigDecimal(rawId.toString()).toPlainString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解析令牌文本
+     *
+     * @throws IllegalArgumentException 令牌无效
+     */
+    public static SearchAfter decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw invalidToken();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("searchAfter 令牌版本不受支持");
+            }
+            String sortField = in.readUTF();
+            if (!SCORE.equals(sortField) && !NAME.equals(sortField) && !CREATED.equals(sortField)) {
+                throw invalidToken();
+            }
+            boolean asc = in.readBoolean();
+            double score = in.readDouble();
+            Date created = null;
+            if (in.readBoolean()) {
+                long millis = in.readLong();
+                int nanos = in.readInt();
+                if (nanos >= 0) {
+                    Timestamp timestamp = new Timestamp(millis);
+                    timestamp.setNanos(nanos);
+                    created = timestamp;
+                } else {
+                    created = new Date(millis);
+                }
+            }
+            String name = in.readBoolean() ? in.readUTF() : null;
+            String id = in.readUTF();
+            Object rawId = in.readBoolean() ? parseNumber(in.readUTF()) : id;
+
+            SearchCandidate anchor = new SearchCandidate(rawId, id, name, created);
+            anchor.setScore(score);
+            return new SearchAfter(sortField, asc, anchor);
+        } catch (IOException e) {
+            throw invalidToken();
+        }
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw invalidToken();
+        }
+    }
+
+    private static IllegalArgumentException invalidToken() {
+        return new IllegalArgumentException("searchAfter 令牌无效");
+    }
+
+    private static double createdKey(SearchCandidate candidate) {
+        return candidate.getCreated() != null ? candidate.getCreated().getTime() : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,53 @@
+package com.news.service.service;
+
+import java.util.Date;
+
+/**
+ * 搜索候选项
+ *
+ * 两阶段查询第一阶段的轻量结果，只保存排序和分页所需的字段，不持有XML内容
+ */
+public class SearchCandidate {
+    private final Object rawId;     // 数据库原始ID值，第二阶段回查时按原类型绑定
+    private final String id;
+    private final String name;
+    private final Date created;
+    private double score;
+    private boolean scored;
+
+    public SearchCandidate(Object rawId, String id, String name, Date created) {
+        this.rawId = rawId;
+        this.id = id;
+        this.name = name;
+        this.created = created;
+    }
+
+    public Object getRawId() {
+        return rawId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+        this.scored = true;
+    }
+
+    public boolean isScored() {
+        return scored;
+    }
+}
@@ -0,0 +1,106 @@
+package com.news.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 单次搜索的截止时间
+ *
+ * 异步搜索在工作线程上绑定截止时间：JDBC语句的查询超时按剩余时间设置，截止时间到达后由计时线程取消正在执行的语句；
+ * 逐行解析和评分的循环通过 {@link #checkpoint()} 检查，超时后抛出 {@link SearchTimeoutException} 结束搜索。
+ * 同步搜索不绑定截止时间，行为不变。
+ */
+@Slf4j
+public final class SearchDeadline {
+
+    private static final ThreadLocal<SearchDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long timeoutMillis;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private volatile Statement statement;
+
+    private SearchDeadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * 从现在起经过指定时间的截止时间
+     */
+    public static SearchDeadline after(long timeoutMillis) {
+        return new SearchDeadline(timeoutMillis);
+    }
+
+    /**
+     * 当前线程绑定的截止时间，未绑定时返回null
+     */
+    public static SearchDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 当前线程绑定的截止时间已过或已取消时抛出 {@link SearchTimeoutException}
+     */
+    public static void checkpoint() {
+        SearchDeadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new SearchTimeoutException(deadline.timeoutMillis);
+        }
+    }
+
+    /**
+     * 在当前线程上绑定截止时间执行任务
+     */
+    public <T> T run(Supplier<T> task) {
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.remove();
+            statement = null;
+        }
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return cancelled || deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 记录正在执行的语句，已取消时立即取消该语句
+     */
+    public void register(Statement statement) {
+        this.statement = statement;
+        if (cancelled) {
+            cancelStatement(statement);
+        }
+    }
+
+    /**
+     * 取消搜索：标记取消并取消正在执行的语句，由计时线程调用
+     */
+    public void cancel() {
+        cancelled = true;
+        Statement current = statement;
+        if (current != null) {
+            cancelStatement(current);
+        }
+    }
+
+    private static void cancelStatement(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // 语句可能已执行完并关闭
+            log.debug("取消语句失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.news.service.service;
+
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜索流水线指标
+ *
+ * 每次搜索结束时把 {@link SearchTrace} 导出为Micrometer指标，按排序字段、后端和查询形态（逗号分组数、关键词数）打标签：
+ * <ul>
+ *     <li>news.search.requests：整次搜索耗时，另带 outcome 标签</li>
+ *     <li>news.search.stage：各阶段耗时，stage 为 count/match/fetch/parse/score/highlight/sort</li>
+ *     <li>news.search.rows：每次搜索读取的行数（内存索引为命中的文档数）</li>
+ *     <li>news.search.xml.size：每次搜索解析的XML字符数</li>
+ *     <li>news.search.results：匹配的结果总数</li>
+ *     <li>news.search.cache：查询结果缓存的命中/未命中次数</li>
+ * </ul>
+ * 百分位和直方图通过 management.metrics.distribution.* 配置，Prometheus格式在 /actuator/prometheus 导出。
+ * 导出指标后把记录交给 {@link SearchTraceLogger} 按抽样输出概况日志；请求要求返回执行剖析时附到结果上，
+ * 慢查询的执行剖析保存到 {@link SlowQueryLog}。
+ */
+@Slf4j
+@Component
+public class SearchMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final SearchTraceLogger traceLogger;
+    private final SlowQueryLog slowQueryLog;
+
+    @Autowired
+    public SearchMetrics(MeterRegistry meterRegistry, SearchTraceLogger traceLogger, SlowQueryLog slowQueryLog) {
+        this.meterRegistry = meterRegistry;
+        this.traceLogger = traceLogger;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * 结束一次搜索的记录，最外层结束时导出指标
+     *
+     * @param trace  {@link SearchTrace#begin} 返回的记录
+     * @param result 搜索结果，失败时为null
+     */
+    public void finish(SearchTrace trace, PageResult<?> result) {
+        SearchProfile profile = finish(trace, result != null ? result.getTotalElements() : -1,
+                result != null && result.getContent() != null ? result.getContent().size() : -1);
+        if (profile != null && result != null && trace.isProfiled()) {
+            result.setProfile(profile);
+        }
+    }
+
+    /**
+     * 结束一次计数请求的记录
+     *
+     * @param total 匹配的结果总数，失败时为-1
+     */
+    public void finish(SearchTrace trace, long total) {
+        finish(trace, total, -1);
+    }
+
+    /**
+     * @return 请求要求返回或属于慢查询时生成的执行剖析，否则为null
+     */
+    private SearchProfile finish(SearchTrace trace, long total, int returned) {
+        if (!trace.end()) {
+            return null;
+        }
+
+        record(trace, total);
+        traceLogger.log(trace, total, returned);
+
+        boolean slow = slowQueryLog.isSlow(TimeUnit.NANOSECONDS.toMillis(trace.getElapsedNanos()));
+        if (!slow && !trace.isProfiled()) {
+            return null;
+        }
+        SearchProfile profile = trace.toProfile(total, returned);
+        if (slow) {
+            slowQueryLog.add(profile);
+        }
+        return profile;
+    }
+
+    private void record(SearchTrace trace, long total) {
+        try {
+            Tags tags = Tags.of("sort", trace.getSortField(), "backend", trace.getBackend(),
+                    "groups", bucket(trace.getGroups()), "terms", bucket(trace.getTerms()));
+
+            Timer.builder("news.search.requests")
+                    .description("搜索耗时")
+                    .tags(tags)
+                    .tag("outcome", trace.getOutcome())
+                    .register(meterRegistry)
+                    .record(trace.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+            for (SearchTrace.Stage stage : SearchTrace.Stage.values()) {
+                long nanos = trace.stageNanos(stage);
+                if (nanos > 0) {
+                    Timer.builder("news.search.stage")
+                            .description("搜索各阶段耗时")
+                            .tags(tags)
+                            .tag("stage", stage.tag())
+                            .register(meterRegistry)
+                            .record(nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            DistributionSummary.builder("news.search.rows")
+                    .description("每次搜索读取的行数")
+                    .baseUnit("rows")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(trace.getRows());
+            if (trace.getXmlChars() > 0) {
+                DistributionSummary.builder("news.search.xml.size")
+                        .description("每次搜索解析的XML字符数")
+                        .baseUnit("chars")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(trace.getXmlChars());
+            }
+            if (total >= 0) {
+                DistributionSummary.builder("news.search.results")
+                        .description("匹配的结果总数")
+                        .baseUnit("results")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(total);
+            }
+            if (trace.getCacheHits() > 0) {
+                cacheCounter(tags, "hit").increment(trace.getCacheHits());
+            }
+            if (trace.getCacheMisses() > 0) {
+                cacheCounter(tags, "miss").increment(trace.getCacheMisses());
+            }
+        } catch (RuntimeException e) {
+            log.warn("记录搜索指标失败: {}", e.getMessage());
+        }
+    }
+
+    private Counter cacheCounter(Tags tags, String result) {
+        return Counter.builder("news.search.cache")
+                .description("查询结果缓存的命中/未命中次数")
+                .tags(tags)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 分组数、关键词数按1、2、3、4+分桶，控制标签的取值数
+     */
+    private static String bucket(int count) {
+        return count >= 4 ? "4+" : String.valueOf(count);
+    }
+}
@@ -0,0 +1,118 @@
+package com.news.service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.news.service.config.DataSourceChangedEvent;
+import com.news.service.config.SearchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询结果缓存
+ *
+ * 以归一化的查询为键缓存排好序的候选列表和总数，页面内容仍按页加载。
+ * 容量按估算的字节数限制；新文档的高水位前进时整体失效，并以写入后过期兜底已有文档的修改。
+ * 命中、未命中和淘汰等统计通过actuator的 cache.* 指标导出（cache=searchResults）。
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    private static final String CACHE_NAME = "searchResults";
+
+    private final SearchProperties.Cache config;
+    private final Cache<QueryKey, RankedResult> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long highWaterMark = Long.MIN_VALUE;
+
+    @Autowired
+    public SearchResultCache(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.config = searchProperties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxWeightBytes())
+                .weigher((QueryKey key, RankedResult value) -> key.weight() + value.weight())
+                .expireAfterWrite(config.getExpireAfterWriteMs(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 结果总数不超过该值时才缓存
+     */
+    public int getMaxCachedIds() {
+        return config.getMaxCachedIds();
+    }
+
+    /**
+     * 当前缓存代数，计算结果前取出，写入时用于丢弃计算期间已失效的结果
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public RankedResult get(QueryKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 写入缓存，计算期间高水位已前进时放弃写入
+     *
+     * @param key        缓存键
+     * @param result     排序结果
+     * @param generation 开始计算前取得的缓存代数
+     */
+    public void put(QueryKey key, RankedResult result, long generation) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        cache.put(key, result);
+        if (generation != this.generation.get()) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 切换到其他数据库后清空缓存，并重置高水位
+     */
+    @EventListener
+    public synchronized void onDataSourceChanged(DataSourceChangedEvent event) {
+        if (!event.isTargetChanged()) {
+            return;
+        }
+        highWaterMark = Long.MIN_VALUE;
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.info("数据源已切换，清空查询结果缓存");
+    }
+
+    /**
+     * 推进新文档的高水位，前进时清空缓存
+     *
+     * @param newHighWaterMark 已入库文档的最大版本时间戳（毫秒）
+     */
+    public synchronized void advanceHighWaterMark(long newHighWaterMark) {
+        if (newHighWaterMark <= highWaterMark) {
+            return;
+        }
+        highWaterMark = newHighWaterMark;
+        generation.incrementAndGet();
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        if (size > 0) {
+            log.debug("新文档高水位前进到 {}，清空查询结果缓存 {} 项", newHighWaterMark, size);
+        }
+    }
+}
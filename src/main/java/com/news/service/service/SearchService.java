@@ -4,6 +4,8 @@ import com.news.service.model.SearchRequest;
 import com.news.service.model.SearchResult;
 import com.news.service.model.PageResult;
 
+import java.util.function.Consumer;
+
 /**
  * 搜索服务接口
  */
@@ -22,6 +24,16 @@ public interface SearchService {
      */
     PageResult<SearchResult> search(SearchRequest request);
     
+    /**
+     * 流式搜索，结果按请求的排序方式逐条交给sink，不在内存中保留结果列表
+     *
+     * @param request 搜索请求，忽略分页参数
+     * @param limit   最多返回的结果数，不大于0表示不限
+     * @param sink    结果接收器，在调用线程上执行
+     * @return 返回的结果数
+     */
+    long stream(SearchRequest request, long limit, Consumer<SearchResult> sink);
+    
     /**
      * 获取搜索结果总数
      *
@@ -1,32 +1,37 @@
 package com.news.service.service;
 
 import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
 import com.news.service.model.SearchRequest;
 import com.news.service.model.SearchResult;
 import com.news.service.model.PageResult;
+import com.news.service.query.CompiledQuery;
+import com.news.service.query.QueryCompiler;
+import com.news.service.query.SqlCondition;
+import com.news.service.util.DocumentScorer;
+import com.news.service.util.KeywordHighlighter;
+import com.news.service.util.RankingModel;
+import com.news.service.util.RelevanceScorer;
+import com.news.service.util.SqlDialect;
+import com.news.service.util.XmlContentExtractor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.StringReader;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.Comparator;
 
 /**
@@ -36,12 +41,39 @@ import java.util.Comparator;
 @Service
 public class SearchServiceImpl implements SearchService {
     
+    private static final String FROM_CLAUSE = " FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE ";
+    
+    private static final String CACHE_BACKEND = "sql";
+    
     private JdbcTemplate jdbcTemplate;
     private final AppConfig appConfig;
+    private final SearchProperties searchProperties;
+    private final XmlContentExtractor xmlContentExtractor;
+    private final SearchResultCache searchResultCache;
+    private final QueryCompiler queryCompiler;
+    private final CorpusStatisticsService corpusStatisticsService;
+    private final ParallelRowProcessor rowProcessor;
+    private final CursorQuery cursorQuery;
+    private final SearchMetrics searchMetrics;
+    private final FullTextSupport fullTextSupport;
+    
     
     @Autowired
-    public SearchServiceImpl(AppConfig appConfig) {
+    public SearchServiceImpl(AppConfig appConfig, SearchProperties searchProperties,
+                             XmlContentExtractor xmlContentExtractor, SearchResultCache searchResultCache,
+                             QueryCompiler queryCompiler, CorpusStatisticsService corpusStatisticsService,
+                             ParallelRowProcessor rowProcessor, CursorQuery cursorQuery,
+                             SearchMetrics searchMetrics, FullTextSupport fullTextSupport) {
         this.appConfig = appConfig;
+        this.searchProperties = searchProperties;
+        this.xmlContentExtractor = xmlContentExtractor;
+        this.searchResultCache = searchResultCache;
+        this.queryCompiler = queryCompiler;
+        this.corpusStatisticsService = corpusStatisticsService;
+        this.rowProcessor = rowProcessor;
+        this.cursorQuery = cursorQuery;
+        this.searchMetrics = searchMetrics;
+        this.fullTextSupport = fullTextSupport;
     }
     
     @Autowired
@@ -52,7 +84,24 @@ public class SearchServiceImpl implements SearchService {
     
     @Override
     public PageResult<SearchResult> search(SearchRequest request) {
-        log.info("====> 开始执行搜索方法: keywords={}, page={}, size={}, sortField={}, sortDirection={}", 
+        SearchTrace trace = SearchTrace.begin(SearchAfter.sortField(request));
+        if (request.isProfile()) {
+            trace.profile();
+        }
+        PageResult<SearchResult> result = null;
+        try {
+            result = executeSearch(request);
+            return result;
+        } catch (RuntimeException e) {
+            SearchTrace.fail(e);
+            throw e;
+        } finally {
+            searchMetrics.finish(trace, result);
+        }
+    }
+    
+    private PageResult<SearchResult> executeSearch(SearchRequest request) {
+        log.debug("====> 开始执行搜索方法: keywords={}, page={}, size={}, sortField={}, sortDirection={}", 
                 request.getKeywords(), request.getPage(), request.getSize(),
                 request.getSortField(), request.getSortDirection());
         
@@ -62,551 +111,829 @@ public class SearchServiceImpl implements SearchService {
         }
         
         try {
-            // 首先按逗号分隔不同的搜索条件组
-            log.debug("解析关键词: {}", request.getKeywords());
-            String[] keywordGroups = request.getKeywords().split(",");
-            
-            if (keywordGroups.length == 0 || (keywordGroups.length == 1 && keywordGroups[0].trim().isEmpty())) {
-                log.warn("关键词为空，返回空结果");
+            CompiledQuery query = queryCompiler.compile(request.getKeywords());
+            if (query.isEmpty()) {
+                log.warn("无有效搜索条件，返回空结果");
                 return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), 0);
             }
+            log.debug("编译后的查询: {}", query);
+            SearchTrace.query(query);
             
-            // 构建复杂的搜索条件
-            List<String> conditionGroups = new ArrayList<>();
-            List<Object> params = new ArrayList<>();
-            
-            // 收集所有用于权重计算和高亮显示的关键词
-            List<String> allKeywords = new ArrayList<>();
+            if (SearchAfter.isRequested(request)) {
+                return searchAfter(request, query, SearchAfter.from(request));
+            }
             
-            for (String group : keywordGroups) {
-                String trimmedGroup = group.trim();
-                if (trimmedGroup.isEmpty()) {
-                    continue;
-                }
-                
-                // 检查组内是否有OR关系
-                String[] orTerms = trimmedGroup.split("(?i)\\s+or\\s+");
-                
-                if (orTerms.length > 1) {
-                    // OR关系的关键词组
-                    List<String> orConditions = new ArrayList<>();
-                    
-                    for (String orTerm : orTerms) {
-                        String trimmedTerm = orTerm.trim();
-                        if (!trimmedTerm.isEmpty()) {
-                            processKeywordTerm(trimmedTerm, orConditions, params, allKeywords);
-                        }
-                    }
-                    
-                    if (!orConditions.isEmpty()) {
-                        conditionGroups.add("(" + String.join(" OR ", orConditions) + ")");
-                    }
-                } else {
-                    // 普通AND关系的关键词组
-                    processKeywordTerm(trimmedGroup, conditionGroups, params, allKeywords);
-                }
+            // 两阶段查询在取候选集的同时得到总数，不再单独执行COUNT；按数据库相关度排序总是下推到数据库分页
+            if (searchProperties.isTwoPhaseEnabled()
+                    || (isScoreSort(request) && nativeRank(query, rankingModel(request)) != null)) {
+                return searchTwoPhase(request, query);
             }
             
-            log.debug("构建的条件组: {}", conditionGroups);
-            log.debug("构建的参数列表: {}", params);
-            log.debug("所有关键词: {}", allKeywords);
+            DocumentScorer scorer = scorer(query, rankingModel(request));
             
-            if (conditionGroups.isEmpty()) {
-                log.warn("无有效搜索条件，返回空结果");
+            // 构建完整SQL查询 - 修正表名和字段名
+            SqlCondition where = fullTextSupport.condition(query);
+            String sql = "SELECT b.ID, b.NAME, p.FIELD1079 as xml_content, b.CREATED" + FROM_CLAUSE + where.getSql();
+            
+            String sortField = request.getSortField();
+            String sortDirection = request.getSortDirection();
+            boolean asc = "asc".equalsIgnoreCase(sortDirection);
+            boolean nameSort = "NAME".equalsIgnoreCase(sortField);
+            boolean createdSort = "CREATED".equalsIgnoreCase(sortField);
+            log.debug("排序字段: {}, 排序方向: {}", sortField, sortDirection);
+            
+            long from = (long) request.getPage() * request.getSize();
+            if (request.getSize() <= 0 || from < 0) {
+                log.warn("分页参数无效，返回空结果");
                 return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), 0);
             }
             
-            // 构建WHERE子句
-            String whereClause = String.join(" AND ", conditionGroups);
-            
-            // 构建COUNT查询 - 修正表名
-            String countSql = "SELECT COUNT(*) FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE " + whereClause;
-            
-            // 获取总记录数
-            log.debug("执行记录数计数查询: {}", countSql);
-            Long totalCount = jdbcTemplate.queryForObject(countSql, Long.class, params.toArray());
-            long total = (totalCount != null) ? totalCount : 0;
-            log.debug("总记录数: {}", total);
-            
-            // 构建完整SQL查询 - 修正表名和字段名
-            String sql = "SELECT b.ID, b.NAME, p.FIELD1079 as xml_content, b.CREATED FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE " + whereClause;
+            // 只保留到当前页末尾的 (page+1)*size 条结果，不对全部结果排序
+            int limit = (int) Math.min(from + request.getSize(), Integer.MAX_VALUE);
+            TopKCollector<SearchResult> top = nameSort
+                    ? TopKCollector.byComparator(limit, nameComparator(asc))
+                    : TopKCollector.byKey(limit, asc);
             
             // 执行查询
-            log.info("执行数据库查询...");
-            List<Object> queryParams = new ArrayList<>(params);
-            List<SearchResult> results = jdbcTemplate.query(sql, rs -> {
-                List<SearchResult> queryResults = new ArrayList<>();
-                while (rs.next()) {
-                    SearchResult result = mapRowToSearchResult(rs, rs.getRow());
-                    
-                    // 计算权重分数 - 确保每条结果都计算分数
-                    double score = calculateScore(result, allKeywords);
-                    result.setScore(score);
-                    log.debug("为结果 [{}] 计算分数: {}", result.getId(), score);
-                    
-                    // 高亮显示命中的关键词
-                    String highlightedContent = highlightKeywords(result.getContent(), allKeywords);
-                    result.setHighlightedContent(highlightedContent);
-                    
-                    queryResults.add(result);
-                }
-                return queryResults;
-            }, queryParams.toArray());
-            
-            log.info("查询完成，获取到 {} 条结果", results.size());
-            
-            // 根据排序字段和排序方向进行排序
-            if (results.isEmpty()) {
-                log.warn("没有匹配的搜索结果");
-            } else {
-                // 检查每个结果是否有分数
-                for (SearchResult result : results) {
-                    if (result.getScore() == 0.0) {
-                        log.warn("结果 [{}] 没有计算分数，应用默认分数0.1", result.getId());
-                        result.setScore(0.1); // 设置最小分数，确保前端显示
+            List<Object> queryParams = new ArrayList<>(where.getParams());
+            // JDBC线程只读取原始列，XML解析和评分在行数较多时并行处理
+            Long matched = cursorQuery.query(sql, queryParams, rs -> {
+                return rowProcessor.process(rs, this::readRawRow, row -> {
+                    SearchResult result = toSearchResult(row);
+                    if (!nameSort && !createdSort) {
+                        // 按分数排序时每条结果都要计算分数
+                        result.setScore(score(scorer, result.getName(), result.getContent()));
                     }
-                }
-                
-                // 根据排序参数排序
-                String sortField = request.getSortField();
-                String sortDirection = request.getSortDirection();
-                
-                log.debug("排序字段: {}, 排序方向: {}", sortField, sortDirection);
-                
-                if ("NAME".equalsIgnoreCase(sortField)) {
-                    // 按名称排序
-                    if ("asc".equalsIgnoreCase(sortDirection)) {
-                        results.sort(Comparator.comparing(SearchResult::getName, Comparator.nullsLast(String::compareTo)));
-                    } else {
-                        results.sort(Comparator.comparing(SearchResult::getName, Comparator.nullsLast(String::compareTo)).reversed());
-                    }
-                    log.debug("按名称{}排序完成", sortDirection);
-                } else if ("CREATED".equalsIgnoreCase(sortField)) {
-                    // 按创建时间排序
-                    if ("asc".equalsIgnoreCase(sortDirection)) {
-                        results.sort(Comparator.comparing(SearchResult::getCreated, Comparator.nullsLast(Date::compareTo)));
-                    } else {
-                        results.sort(Comparator.comparing(SearchResult::getCreated, Comparator.nullsLast(Date::compareTo)).reversed());
-                    }
-                    log.debug("按创建时间{}排序完成", sortDirection);
-                } else {
-                    // 默认按分数排序
-                    if ("asc".equalsIgnoreCase(sortDirection)) {
-                        results.sort(Comparator.comparing(SearchResult::getScore));
+                    return result;
+                }, result -> {
+                    long sortStart = SearchTrace.start();
+                    if (nameSort) {
+                        top.offer(result);
+                    } else if (createdSort) {
+                        // 没有创建时间的结果升序时排在最后，降序时排在最前，与原来的比较器一致
+                        top.offer(result.getCreated() != null ? result.getCreated().getTime() : Double.POSITIVE_INFINITY,
+                                result);
                     } else {
-                        results.sort(Comparator.comparing(SearchResult::getScore).reversed());
+                        top.offer(result.getScore(), result);
                     }
-                    log.debug("按分数{}排序完成", sortDirection);
-                }
+                    SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+                });
+            });
+            long total = matched != null ? matched : 0;
+            
+            log.debug("查询完成，获取到 {} 条结果", total);
+            if (total == 0) {
+                log.warn("没有匹配的搜索结果");
             }
             
             // 应用分页逻辑
-            int from = request.getPage() * request.getSize();
-            int to = Math.min(from + request.getSize(), results.size());
-            
+            long sortStart = SearchTrace.start();
+            List<SearchResult> results = top.drainSorted();
+            SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
             if (from >= results.size()) {
                 log.warn("请求的页码超出范围，返回空结果");
                 return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), total);
             }
             
-            List<SearchResult> pagedResults = results.subList(from, to);
+            List<SearchResult> pagedResults = results.subList((int) from, results.size());
             
-            // 记录结果
-            if (pagedResults.isEmpty()) {
-                log.warn("搜索未找到匹配结果");
-            } else {
-                // 修改日志输出，避免输出完整结果内容
-                if (!pagedResults.isEmpty()) {
-                    SearchResult firstResult = pagedResults.get(0);
-                    log.debug("搜索结果第一条: ID={}, 标题={}, 分数={}, 内容长度={}", 
-                             firstResult.getId(), 
-                             firstResult.getName(),
-                             firstResult.getScore(),
-                             firstResult.getContent() != null ? firstResult.getContent().length() : 0);
+            // 只为当前页计算名称/时间排序时的分数，并高亮显示命中的关键词
+            for (SearchResult result : pagedResults) {
+                if (nameSort || createdSort) {
+                    result.setScore(score(scorer, result.getName(), result.getContent()));
                 }
-                log.debug("搜索结果ID和分数列表: {}", 
-                         pagedResults.stream()
-                            .map(r -> String.format("%s:%.2f", r.getId(), r.getScore()))
-                            .collect(Collectors.toList()));
+                result.setHighlightedContent(highlight(result.getContent(), query));
             }
             
-            log.info("<==== 结束执行搜索方法，共返回 {} 条结果", pagedResults.size());
+            log.debug("<==== 结束执行搜索方法，共返回 {} 条结果", pagedResults.size());
             return PageResult.of(pagedResults, request.getPage(), request.getSize(), total);
         } catch (Exception e) {
+            // 异步搜索超时（包括被取消的语句）不作为空结果返回
+            SearchDeadline.checkpoint();
+            SearchTrace.fail(e);
             log.error("搜索失败: {}", e.getMessage(), e);
             return PageResult.of(new ArrayList<>(), request.getPage(), request.getSize(), 0);
         }
     }
     
-    @Override
-    public long count(String keywords) {
-        log.info("====> 开始执行计数方法: keywords={}", keywords);
+    /**
+     * 两阶段查询
+     *
+     * 第一阶段只取候选集：按名称/时间排序时由数据库排序分页，只返回当前页的ID；
+     * 按分数排序时仍需读取XML计算分数，但候选集只保留ID、NAME、CREATED和分数；排序模型为 native 且
+     * 数据库提供相关度时改为按数据库相关度排序分页，与名称/时间排序相同，返回的分数就是数据库的相关度。
+     * 第二阶段只为当前页的ID加载并解析FIELD1079，再做高亮。
+     *
+     * 总数与候选集在同一次查询中得到：按分数排序时就是候选集大小；按名称/时间排序时
+     * 由方言支持的 COUNT(*) OVER() 窗口函数随分页结果返回。请求不要求精确总数时改为多取一行判断是否还有下一页，
+     * 返回的总数是下限。
+     * 按分数排序时用容量有限的堆取前k个候选项，不对全部候选项排序；可缓存时k取缓存上限，
+     * 前若干页的候选列表写入缓存，后续翻页直接命中。
+     */
+    private PageResult<SearchResult> searchTwoPhase(SearchRequest request, CompiledQuery query) {
+        int page = request.getPage();
+        int size = request.getSize();
+        long from = (long) page * size;
         
-        if (!isAvailable()) {
-            log.warn("搜索服务不可用: {}", getUnavailableReason());
-            return 0;
+        if (size <= 0 || from < 0) {
+            log.warn("分页参数无效，返回空结果");
+            return PageResult.of(new ArrayList<>(), page, size, countMatches(query));
         }
         
-        try {
-            // 首先按逗号分隔不同的搜索条件组
-            log.debug("解析关键词: {}", keywords);
-            String[] keywordGroups = keywords.split(",");
-            
-            if (keywordGroups.length == 0 || (keywordGroups.length == 1 && keywordGroups[0].trim().isEmpty())) {
-                log.warn("关键词为空，返回计数0");
-                return 0;
+        RankingModel ranking = rankingModel(request);
+        DocumentScorer scorer = scorer(query, ranking);
+        
+        QueryKey cacheKey = searchResultCache.isEnabled() ? QueryKey.of(CACHE_BACKEND, query, request, ranking) : null;
+        long cacheGeneration = searchResultCache.generation();
+        if (cacheKey != null) {
+            RankedResult cached = searchResultCache.get(cacheKey);
+            boolean hit = cached != null && cached.covers(from, size);
+            SearchTrace.cache(hit);
+            if (hit) {
+                log.debug("查询结果缓存命中: {}", cacheKey);
+                return pageFromRanked(request, cached, scorer, query);
             }
-            
-            // 构建复杂的搜索条件
-            List<String> conditionGroups = new ArrayList<>();
-            List<Object> params = new ArrayList<>();
-            
-            for (String group : keywordGroups) {
-                group = group.trim();
-                if (group.isEmpty()) continue;
-                
-                if (group.toLowerCase().contains(" or ")) {
-                    // 处理OR关系的关键词
-                    String[] orKeywords = group.split("(?i)\\s+or\\s+");
-                    List<String> orConditions = new ArrayList<>();
-                    
-                    for (String keyword : orKeywords) {
-                        keyword = keyword.trim();
-                        if (!keyword.isEmpty()) {
-                            orConditions.add("(UPPER(b.NAME) LIKE UPPER(?) OR UPPER(p.FIELD1079) LIKE UPPER(?))");
-                            params.add("%" + keyword + "%");
-                            params.add("%" + keyword + "%");
-                        }
-                    }
-                    
-                    if (!orConditions.isEmpty()) {
-                        conditionGroups.add("(" + String.join(" OR ", orConditions) + ")");
-                    }
-                } else if (group.contains(" ")) {
-                    // 处理AND关系的关键词(空格分隔)
-                    String[] andKeywords = group.split("\\s+");
-                    List<String> andConditions = new ArrayList<>();
-                    
-                    for (String keyword : andKeywords) {
-                        keyword = keyword.trim();
-                        if (!keyword.isEmpty()) {
-                            andConditions.add("(UPPER(b.NAME) LIKE UPPER(?) OR UPPER(p.FIELD1079) LIKE UPPER(?))");
-                            params.add("%" + keyword + "%");
-                            params.add("%" + keyword + "%");
-                        }
-                    }
-                    
-                    if (!andConditions.isEmpty()) {
-                        conditionGroups.add("(" + String.join(" AND ", andConditions) + ")");
-                    }
-                } else {
-                    // 处理单个关键词
-                    conditionGroups.add("(UPPER(b.NAME) LIKE UPPER(?) OR UPPER(p.FIELD1079) LIKE UPPER(?))");
-                    params.add("%" + group + "%");
-                    params.add("%" + group + "%");
-                }
+        }
+        
+        String sortField = request.getSortField();
+        boolean asc = "asc".equalsIgnoreCase(request.getSortDirection());
+        int maxCachedIds = searchResultCache.getMaxCachedIds();
+        boolean scoreSort = isScoreSort(request);
+        // 使用 native 排序模型时按数据库的相关度排序分页，与名称/时间排序一样不读取XML
+        SqlCondition rank = scoreSort ? nativeRank(query, ranking) : null;
+        
+        if (scoreSort && rank == null) {
+            long limit = cacheKey != null ? Math.max(from + size, maxCachedIds) : from + size;
+            RankedResult ranked = fetchScoredCandidates(query, scorer, asc, (int) Math.min(limit, Integer.MAX_VALUE));
+            if (cacheKey != null && Math.min(ranked.getTotal(), limit) <= maxCachedIds) {
+                searchResultCache.put(cacheKey, ranked, cacheGeneration);
             }
-            
-            // 如果没有有效的条件，返回0
-            if (conditionGroups.isEmpty()) {
-                log.warn("处理后无有效关键词，返回计数0");
-                return 0;
+            log.debug("第一阶段完成，候选数: {}, 排序模型: {}", ranked.getTotal(), ranking);
+            return pageFromRanked(request, ranked, scorer, query);
+        }
+        
+        String column = scoreSort ? null : sortField.toUpperCase();
+        SqlDialect dialect = SqlDialect.fromUrl(appConfig.getUrl());
+        
+        if (!request.isExactTotal()) {
+            List<SearchCandidate> rows = fetchSortedCandidatePage(query, column, rank, asc, from, size + 1,
+                    dialect, null);
+            boolean hasMore = rows.size() > size;
+            if (rows.isEmpty() && from > 0) {
+                log.warn("请求的页码超出范围，返回空结果");
+                return PageResult.of(new ArrayList<>(), page, size, countMatches(query));
             }
             
-            // 将所有条件组以AND连接（保持与search方法一致）
-            String whereClause = String.join(" AND ", conditionGroups);
-            log.debug("构建的完整搜索条件: {}", whereClause);
-            
-            // 构建SQL查询，确保与search方法使用相同的表结构
-            String sql = "SELECT COUNT(*) FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE " + whereClause;
-            
-            log.debug("构建的计数SQL查询: {}", sql);
-            log.debug("计数查询参数: {}", params);
-            
-            // 执行查询
-            log.info("执行计数查询...");
-            Long count = jdbcTemplate.queryForObject(sql, Long.class, params.toArray());
-            log.info("计数查询完成，总共匹配 {} 条结果", count);
-            
-            log.info("<==== 结束执行计数方法，计数结果: {}", count);
-            return count != null ? count : 0;
-        } catch (Exception e) {
-            log.error("获取搜索结果数量失败: {}", e.getMessage(), e);
-            return 0;
+            List<SearchCandidate> pageCandidates = hasMore ? rows.subList(0, size) : rows;
+            List<SearchResult> pagedResults = loadPageResults(pageCandidates, scorer, query);
+            PageResult<SearchResult> result = PageResult.of(pagedResults, page, size,
+                    from + pageCandidates.size() + (hasMore ? 1 : 0));
+            result.setTotalExact(!hasMore);
+            log.debug("<==== 结束执行搜索方法（两阶段，估算总数），共返回 {} 条结果", pagedResults.size());
+            return result;
+        }
+        
+        // 可缓存时从第一条取到当前页末尾，整段前缀写入缓存
+        boolean cachePrefix = cacheKey != null && from + size <= maxCachedIds;
+        long fetchFrom = cachePrefix ? 0 : from;
+        int fetchSize = cachePrefix ? (int) (from + size) : size;
+        
+        long[] windowTotal = dialect.supportsWindowCount() && searchProperties.isWindowCountEnabled()
+                ? new long[]{-1} : null;
+        List<SearchCandidate> candidates = fetchSortedCandidatePage(query, column, rank, asc,
+                fetchFrom, fetchSize, dialect, windowTotal);
+        long total = windowTotal != null && windowTotal[0] >= 0 ? windowTotal[0] : countMatches(query);
+        log.debug("第一阶段完成，候选数: {}, 总数: {}", candidates.size(), total);
+        
+        if (cachePrefix) {
+            RankedResult ranked = new RankedResult(candidates, total);
+            searchResultCache.put(cacheKey, ranked, cacheGeneration);
+            return pageFromRanked(request, ranked, scorer, query);
+        }
+        if (candidates.isEmpty()) {
+            log.warn("请求的页码超出范围，返回空结果");
+            return PageResult.of(new ArrayList<>(), page, size, total);
         }
+        
+        List<SearchResult> pagedResults = loadPageResults(candidates, scorer, query);
+        
+        log.debug("<==== 结束执行搜索方法（两阶段），共返回 {} 条结果", pagedResults.size());
+        return PageResult.of(pagedResults, page, size, total);
     }
     
-    @Override
-    public boolean isAvailable() {
-        boolean available = appConfig.isDataSourceEnabled();
-        log.debug("检查搜索服务是否可用: {}", available);
-        return available;
-    }
-
     /**
-     * 获取服务不可用的原因
+     * 从排序结果中取当前页，只为当前页加载内容
      */
-    private String getUnavailableReason() {
-        if (!appConfig.isDataSourceEnabled()) {
-            return "数据库未启用，请在配置页面启用并配置数据库";
+    private PageResult<SearchResult> pageFromRanked(SearchRequest request, RankedResult ranked, DocumentScorer scorer,
+                                                    CompiledQuery query) {
+        int page = request.getPage();
+        int size = request.getSize();
+        List<SearchCandidate> pageCandidates = ranked.page((long) page * size, size);
+        if (pageCandidates.isEmpty()) {
+            log.warn("请求的页码超出范围，返回空结果");
+            return PageResult.of(new ArrayList<>(), page, size, ranked.getTotal());
         }
-        return "未知原因";
+        
+        List<SearchResult> pagedResults = loadPageResults(pageCandidates, scorer, query);
+        log.debug("<==== 结束执行搜索方法（两阶段），共返回 {} 条结果", pagedResults.size());
+        return PageResult.of(pagedResults, page, size, ranked.getTotal());
     }
     
     /**
-     * 将数据库行映射为搜索结果对象，并解析XML提取content字段
+     * 游标分页：只取严格排在令牌之后的一页
+     *
+     * 按名称/时间排序时在SQL中以 (列, ID) 定位后取 size+1 行，不需要跳过前面各页；
+     * 按分数排序时仍需为全部匹配行评分，但跳过令牌之前的行，堆的容量只有 size+1，总数随扫描得到；
+     * 排序模型为 native 时按数据库相关度 (rank__, ID) 在SQL中定位，与名称/时间排序相同。
+     * 多取的一行用于判断是否还有下一页。
+     *
+     * @param after 上一页的令牌，第一页为null
      */
-    private SearchResult mapRowToSearchResult(ResultSet rs, int rowNum) throws SQLException {
-        String id = rs.getString("ID");
-        log.debug("开始映射结果行: rowNum={}, id={}", rowNum, id);
-        
-        String xmlContent = rs.getString("xml_content");
-        String name = rs.getString("NAME");
-        Date created = new Date(rs.getTimestamp("CREATED").getTime());
+    private PageResult<SearchResult> searchAfter(SearchRequest request, CompiledQuery query, SearchAfter after) {
+        int size = request.getSize();
+        if (size <= 0) {
+            log.warn("分页参数无效，返回空结果");
+            return PageResult.of(new ArrayList<>(), request.getPage(), size, 0);
+        }
         
-        // 不输出XML内容，只输出长度
-        log.debug("行数据: id={}, name={}, created={}, xmlContent长度={}", 
-                 id, name, created, xmlContent != null ? xmlContent.length() : 0);
+        RankingModel ranking = rankingModel(request);
+        DocumentScorer scorer = scorer(query, ranking);
+        String sortField = SearchAfter.sortField(request);
+        boolean asc = "asc".equalsIgnoreCase(request.getSortDirection());
+        // native 排序模型与两阶段查询一样按数据库相关度在SQL中定位，保证两种分页方式的顺序一致
+        SqlCondition rank = SearchAfter.SCORE.equals(sortField) ? nativeRank(query, ranking) : null;
         
-        String extractedContent = extractContentFromXml(xmlContent);
+        List<SearchCandidate> rows;
+        long total;
+        boolean totalExact = true;
+        if (SearchAfter.SCORE.equals(sortField) && rank == null) {
+            Comparator<SearchCandidate> order = SearchAfter.order(sortField, asc);
+            TopKCollector<SearchCandidate> top = TopKCollector.byComparator(size + 1, order);
+            SqlCondition where = fullTextSupport.condition(query);
+            String sql = "SELECT b.ID, b.NAME, b.CREATED, p.FIELD1079 as xml_content" + FROM_CLAUSE + where.getSql();
+            Long matched = cursorQuery.query(sql, where.getParams(), rs -> {
+                return rowProcessor.process(rs, this::readRawRow, row -> scoreCandidate(row, scorer), candidate -> {
+                    long sortStart = SearchTrace.start();
+                    if (after == null || after.admits(candidate, order)) {
+                        top.offer(candidate);
+                    }
+                    SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+                });
+            });
+            long sortStart = SearchTrace.start();
+            rows = top.drainSorted();
+            SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+            total = matched != null ? matched : 0;
+        } else {
+            SqlDialect dialect = SqlDialect.fromUrl(appConfig.getUrl());
+            String direction = asc ? "ASC" : "DESC";
+            SqlCondition where = fullTextSupport.condition(query);
+            List<Object> params = new ArrayList<>();
+            String column;
+            String sql;
+            if (rank != null) {
+                // 相关度是选择列中的表达式，包一层派生表后才能在WHERE中定位；Oracle的SCORE须与CONTAINS在同一层
+                column = "b.rank__";
+                params.addAll(rank.getParams());
+                params.addAll(where.getParams());
+                sql = "SELECT * FROM (SELECT b.ID, b.NAME, b.CREATED, " + rank.getSql() + " AS rank__"
+                        + FROM_CLAUSE + where.getSql() + ") b";
+            } else {
+                column = SearchAfter.NAME.equals(sortField) ? "b.NAME" : "b.CREATED";
+                params.addAll(where.getParams());
+                sql = "SELECT b.ID, b.NAME, b.CREATED" + FROM_CLAUSE + "(" + where.getSql() + ")";
+            }
+            if (after != null) {
+                Object value = rank != null ? (Object) after.getAnchor().getScore()
+                        : SearchAfter.NAME.equals(sortField) ? after.getAnchor().getName()
+                        : toTimestamp(after.getAnchor().getCreated());
+                sql += (rank != null ? " WHERE " : " AND ")
+                        + seekCondition(column, asc, value, after.getAnchor().getRawId(), dialect, params);
+            }
+            sql += " ORDER BY " + column + " " + direction + ", b.ID " + direction;
+            String pagedSql = dialect.paginate(sql);
+            dialect.addPageParams(params, 0, size + 1);
+            
+            log.debug("执行游标分页查询[{}]: {}", dialect, pagedSql);
+            // CREATED保留数据库返回的精度，令牌中的定位值不被截断到毫秒
+            SearchTrace.sql(pagedSql, params.size());
+            long start = SearchTrace.start();
+            rows = jdbcTemplate.query(pagedSql, (rs, rowNum) -> {
+                SearchCandidate candidate = new SearchCandidate(rs.getObject("ID"),
+                        rs.getString("ID"), rs.getString("NAME"), rs.getTimestamp("CREATED"));
+                if (rank != null) {
+                    candidate.setScore(rs.getDouble("rank__"));
+                }
+                return candidate;
+            }, params.toArray());
+            SearchTrace.stage(SearchTrace.Stage.FETCH, start);
+            SearchTrace.rows(rows.size());
+            // 不要求精确总数时不执行COUNT，总数只表示是否还有下一页
+            totalExact = request.isExactTotal();
+            total = totalExact ? countMatches(query) : rows.size();
+        }
         
-        // 修改为只在日志中显示内容的前50个字符
-        log.debug("从XML中提取的内容，长度: {}, 前50字符: {}", 
-                extractedContent.length(),
-                extractedContent.length() > 50 ? extractedContent.substring(0, 50) + "..." : extractedContent);
+        boolean hasMore = rows.size() > size;
+        List<SearchCandidate> pageCandidates = hasMore ? rows.subList(0, size) : rows;
+        List<SearchResult> pagedResults = loadPageResults(pageCandidates, scorer, query);
         
-        SearchResult result = new SearchResult();
-        result.setId(id);
-        result.setName(name);
-        result.setCreated(created);
-        result.setContent(extractedContent);
+        PageResult<SearchResult> result = PageResult.of(pagedResults, request.getPage(), size, total);
+        result.setTotalExact(totalExact);
+        if (hasMore) {
+            result.setSearchAfter(SearchAfter.of(request, pageCandidates.get(pageCandidates.size() - 1)).encode());
+        }
+        log.debug("<==== 结束执行搜索方法（游标分页），共返回 {} 条结果", pagedResults.size());
         return result;
     }
     
     /**
-     * 从XML中提取Content字段内容
-     * 
-     * @param xmlContent XML内容
-     * @return 提取的Content内容，如果解析失败则返回提示信息
+     * 游标分页的定位条件：(列, ID) 严格排在上一页最后一条之后，与 ORDER BY 列, b.ID 的方向一致。
+     * 列值为NULL的行的位置取决于方言的排序规则
+     *
+     * @param value  上一页最后一条的列值，可为null
+     * @param lastId 上一页最后一条的ID
      */
-    private String extractContentFromXml(String xmlContent) {
-        if (xmlContent == null || xmlContent.trim().isEmpty()) {
-            log.debug("XML内容为空");
-            return "没有提取到内容";
+    private static String seekCondition(String column, boolean asc, Object value, Object lastId, SqlDialect dialect,
+                                        List<Object> params) {
+        String op = asc ? ">" : "<";
+        boolean nullsFirst = asc != dialect.nullsSortHigh();
+        if (value == null) {
+            // 上一页停在NULL区间内：继续NULL区间，NULL排在前面时其后是全部非NULL的行
+            params.add(lastId);
+            return "((" + column + " IS NULL AND b.ID " + op + " ?)"
+                    + (nullsFirst ? " OR " + column + " IS NOT NULL" : "") + ")";
         }
         
-        log.debug("开始解析XML内容，长度: {}", xmlContent.length());
-        
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new InputSource(new StringReader(xmlContent)));
-            
-            NodeList nodes = document.getElementsByTagName("Content");
-            int nodesCount = nodes.getLength();
-            
-            if (nodesCount > 0) {
-                log.debug("找到 <Content> 标签 {} 个", nodesCount);
-                
-                StringBuilder contentBuilder = new StringBuilder();
-                int nonEmptyCount = 0;
-                
-                for (int i = 0; i < nodesCount; i++) {
-                    Element element = (Element) nodes.item(i);
-                    String content = element.getTextContent();
-                    
-                    if (content != null && !content.trim().isEmpty()) {
-                        if (contentBuilder.length() > 0) {
-                            contentBuilder.append("\n");
-                        }
-                        contentBuilder.append(content.trim());
-                        nonEmptyCount++;
-                    }
-                }
-                
-                String result = contentBuilder.toString();
-                if (!result.isEmpty()) {
-                    log.debug("成功提取内容，有效内容标签数: {}/{}, 总长度: {}", nonEmptyCount, nodesCount, result.length());
-                    
-                    if (result.length() > 500) {
-                        return result.substring(0, 500) + "...";
-                    }
-                    return result;
-                } else {
-                    log.warn("所有 <Content> 元素都为空");
-                    return "没有提取到内容";
-                }
-            } else {
-                log.warn("XML中未找到 <Content> 标签");
-                return "没有提取到内容";
-            }
-            
-        } catch (Exception e) {
-            log.error("解析XML内容失败: {}", e.getMessage(), e);
-            
-            try {
-                log.debug("尝试正则表达式提取Content标签内容");
-                Pattern pattern = Pattern.compile("<Content>(.*?)</Content>", Pattern.DOTALL);
-                Matcher matcher = pattern.matcher(xmlContent);
-                
-                StringBuilder directBuilder = new StringBuilder();
-                int count = 0;
-                int nonEmptyCount = 0;
-                
-                while (matcher.find()) {
-                    count++;
-                    String content = matcher.group(1).trim();
-                    
-                    if (!content.isEmpty()) {
-                        if (directBuilder.length() > 0) {
-                            directBuilder.append("\n");
-                        }
-                        directBuilder.append(content);
-                        nonEmptyCount++;
-                    }
-                }
-                
-                if (count > 0) {
-                    String result = directBuilder.toString();
-                    log.debug("正则表达式匹配完成，有效内容标签数: {}/{}, 总长度: {}, 内容前50字符: {}", 
-                            nonEmptyCount, count, result.length(),
-                            result.length() > 50 ? result.substring(0, 50) + "..." : result);
-                    
-                    if (result.length() > 500) {
-                        return result.substring(0, 500) + "...";
-                    }
-                    return result.isEmpty() ? "没有提取到内容" : result;
-                }
-            } catch (Exception ex) {
-                log.error("正则表达式提取失败: {}", ex.getMessage());
-            }
-            
-            return "解析内容失败";
+        String seek;
+        if (dialect.supportsRowValueComparison()) {
+            seek = "(" + column + ", b.ID) " + op + " (?, ?)";
+            params.add(value);
+            params.add(lastId);
+        } else {
+            seek = column + " " + op + " ? OR (" + column + " = ? AND b.ID " + op + " ?)";
+            params.add(value);
+            params.add(value);
+            params.add(lastId);
         }
+        // NULL排在后面时，非NULL的行之后是全部NULL的行
+        return "(" + seek + (nullsFirst ? "" : " OR " + column + " IS NULL") + ")";
+    }
+    
+    private static Timestamp toTimestamp(Date date) {
+        if (date == null || date instanceof Timestamp) {
+            return (Timestamp) date;
+        }
+        return new Timestamp(date.getTime());
     }
     
     /**
-     * 计算搜索结果的权重分数
+     * 流式搜索
+     *
+     * 按名称/时间排序时排序下推到数据库，以只进游标分批读取，每行解析、评分、高亮后立即交出；
+     * 按分数排序必须读完全部匹配行才能确定顺序，第一阶段只保留分数最靠前的轻量候选项（不超过 max-scored-rows），
+     * 第二阶段按批加载内容后依次交出。两种方式内存占用都与匹配行数无关。
      */
-    private double calculateScore(SearchResult result, List<String> keywords) {
-        if (result.getContent() == null || result.getContent().isEmpty() || keywords.isEmpty()) {
-            return 0.0;
-        }
-        
-        String content = result.getContent().toLowerCase();
-        String name = result.getName() != null ? result.getName().toLowerCase() : "";
+    @Override
+    public long stream(SearchRequest request, long limit, Consumer<SearchResult> sink) {
+        log.info("====> 开始执行流式搜索: keywords={}, limit={}, sortField={}, sortDirection={}",
+                request.getKeywords(), limit, request.getSortField(), request.getSortDirection());
         
-        // 日志中只显示内容前50个字符
-        log.debug("计算权重分数，标题: {}, 内容前50字符: {}", 
-                name.length() > 50 ? name.substring(0, 50) + "..." : name,
-                content.length() > 50 ? content.substring(0, 50) + "..." : content);
+        if (!isAvailable()) {
+            log.warn("搜索服务不可用: {}", getUnavailableReason());
+            return 0;
+        }
         
-        double score = 0.0;
+        CompiledQuery query = queryCompiler.compile(request.getKeywords());
+        if (query.isEmpty()) {
+            log.warn("无有效搜索条件，返回空结果");
+            return 0;
+        }
         
-        // 基础权重因子
-        final double TITLE_WEIGHT = 3.0;      // 标题中出现关键词的权重
-        final double CONTENT_WEIGHT = 1.0;    // 内容中出现关键词的权重
-        final double FREQUENCY_FACTOR = 0.5;  // 频率因子，每多出现一次增加的权重
+        DocumentScorer scorer = scorer(query, rankingModel(request));
+        String sortField = request.getSortField();
+        boolean asc = "asc".equalsIgnoreCase(request.getSortDirection());
+        long max = limit > 0 ? limit : Long.MAX_VALUE;
         
-        for (String keyword : keywords) {
-            if (keyword == null || keyword.isEmpty()) continue;
-            
-            keyword = keyword.toLowerCase();
-            
-            // 标题匹配权重（标题中关键词权重更高）
-            if (name.contains(keyword)) {
-                score += TITLE_WEIGHT;
+        if (!"NAME".equalsIgnoreCase(sortField) && !"CREATED".equalsIgnoreCase(sortField)) {
+            int scoredLimit = (int) Math.min(max, Math.max(1, searchProperties.getStream().getMaxScoredRows()));
+            RankedResult ranked = fetchScoredCandidates(query, scorer, asc, scoredLimit);
+            List<SearchCandidate> candidates = ranked.page(0, scoredLimit);
+            if (ranked.getTotal() > candidates.size()) {
+                log.info("流式搜索匹配 {} 条，按分数排序只返回前 {} 条", ranked.getTotal(), candidates.size());
             }
             
-            // 计算内容中关键词出现频率
-            int contentOccurrences = countOccurrences(content, keyword);
-            if (contentOccurrences > 0) {
-                // 基础匹配分数 + 频率奖励
-                score += CONTENT_WEIGHT + (contentOccurrences - 1) * FREQUENCY_FACTOR;
+            long emitted = 0;
+            int batchSize = Math.max(1, searchProperties.getPageLoadBatchSize());
+            for (int start = 0; start < candidates.size(); start += batchSize) {
+                List<SearchCandidate> batch = candidates.subList(start, Math.min(start + batchSize, candidates.size()));
+                for (SearchResult result : loadPageResults(batch, scorer, query)) {
+                    sink.accept(result);
+                    emitted++;
+                }
             }
+            log.info("<==== 结束执行流式搜索，共返回 {} 条结果", emitted);
+            return emitted;
         }
         
-        // 对长内容稍微降权，避免冗长但相关性不高的内容排名过高
-        double lengthNormalization = 1.0 / (1.0 + Math.log(1 + content.length() / 500.0));
-        score *= lengthNormalization;
+        String column = "NAME".equalsIgnoreCase(sortField) ? "b.NAME" : "b.CREATED";
+        String direction = asc ? "ASC" : "DESC";
+        SqlCondition where = fullTextSupport.condition(query);
+        String sql = "SELECT b.ID, b.NAME, p.FIELD1079 as xml_content, b.CREATED" + FROM_CLAUSE + where.getSql()
+                + " ORDER BY " + column + " " + direction + ", b.ID " + direction;
+        log.debug("执行流式查询: {}", sql);
         
-        log.debug("结果 [{}] 的计算权重: {}", result.getId(), score);
-        return score;
+        long[] emitted = new long[1];
+        cursorQuery.forEachRow(sql, where.getParams(), rs -> {
+            SearchResult result = mapRowToSearchResult(rs, (int) Math.min(emitted[0] + 1, Integer.MAX_VALUE));
+            result.setScore(score(scorer, result.getName(), result.getContent()));
+            result.setHighlightedContent(highlight(result.getContent(), query));
+            sink.accept(result);
+            return ++emitted[0] < max;
+        });
+        log.info("<==== 结束执行流式搜索，共返回 {} 条结果", emitted[0]);
+        return emitted[0];
     }
     
     /**
-     * 计算文本中关键词出现的次数
+     * 请求使用的排序模型，未指定或无法识别时使用配置的默认模型
      */
-    private int countOccurrences(String text, String keyword) {
-        if (text == null || keyword == null || text.isEmpty() || keyword.isEmpty()) {
-            return 0;
+    public RankingModel rankingModel(SearchRequest request) {
+        RankingModel defaultModel = RankingModel.of(searchProperties.getRanking().getDefaultModel(), RankingModel.CLASSIC);
+        return RankingModel.of(request.getRanking(), defaultModel);
+    }
+    
+    /**
+     * 请求按 native 排序模型排序且当前匹配方言提供相关度时，返回数据库的相关度表达式；
+     * 否则返回null，native 模型退化为按 classic 公式在应用中评分
+     */
+    private SqlCondition nativeRank(CompiledQuery query, RankingModel ranking) {
+        return ranking == RankingModel.NATIVE ? fullTextSupport.rank(query) : null;
+    }
+    
+    private static boolean isScoreSort(SearchRequest request) {
+        return SearchAfter.SCORE.equals(SearchAfter.sortField(request));
+    }
+    
+    /**
+     * 为查询创建评分器，BM25需要的文档频率和平均字段长度从数据库统计
+     */
+    private DocumentScorer scorer(CompiledQuery query, RankingModel ranking) {
+        if (ranking == RankingModel.BM25) {
+            return corpusStatisticsService.bm25(query);
+        }
+        return RelevanceScorer.classic(query.getAutomaton());
+    }
+    
+    /**
+     * 单独执行COUNT查询，只在方言不支持窗口函数或分页结果为空时使用
+     */
+    private long countMatches(CompiledQuery query) {
+        SqlCondition where = fullTextSupport.condition(query);
+        String countSql = "SELECT COUNT(*)" + FROM_CLAUSE + where.getSql();
+        log.debug("执行记录数计数查询: {}", countSql);
+        SearchTrace.sql(countSql, where.getParams().size());
+        long start = SearchTrace.start();
+        Long totalCount = jdbcTemplate.queryForObject(countSql, Long.class, where.getParams().toArray());
+        SearchTrace.stage(SearchTrace.Stage.COUNT, start);
+        return totalCount != null ? totalCount : 0;
+    }
+    
+    /**
+     * 未启用内存索引时，定时读取新文档的最大创建时间，前进时使查询结果缓存失效；
+     * 启用内存索引时由索引发布新快照时推进
+     */
+    @Scheduled(fixedDelayString = "${app.search.cache.poll-interval-ms:10000}")
+    public void pollHighWaterMark() {
+        if (!searchResultCache.isEnabled() || searchProperties.getIndex().isEnabled() || !isAvailable()) {
+            return;
         }
         
-        String lowerText = text.toLowerCase();
-        String lowerKeyword = keyword.toLowerCase();
-        
-        int count = 0;
-        int index = 0;
+        try {
+            Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(b.CREATED) FROM com_basicinfo b", Timestamp.class);
+            if (latest != null) {
+                searchResultCache.advanceHighWaterMark(latest.getTime());
+            }
+        } catch (Exception e) {
+            log.warn("读取新文档高水位失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 第一阶段（按名称/时间或数据库相关度排序）：排序和分页下推到数据库，不读取XML
+     *
+     * @param rank        不为null时按该相关度表达式排序并作为候选项的分数，sortField被忽略
+     * @param windowTotal 不为null时在同一查询中用 COUNT(*) OVER() 取总数写入第一个元素，结果为空时保持原值
+     */
+    private List<SearchCandidate> fetchSortedCandidatePage(CompiledQuery query, String sortField, SqlCondition rank,
+                                                           boolean asc, long from, int size, SqlDialect dialect,
+                                                           long[] windowTotal) {
+        SqlCondition where = fullTextSupport.condition(query);
+        String column = rank != null ? "rank__" : "NAME".equals(sortField) ? "b.NAME" : "b.CREATED";
+        String direction = asc ? "ASC" : "DESC";
+        String sql = "SELECT b.ID, b.NAME, b.CREATED"
+                + (rank != null ? ", " + rank.getSql() + " AS rank__" : "")
+                + (windowTotal != null ? ", COUNT(*) OVER() AS total_count__" : "")
+                + FROM_CLAUSE + where.getSql()
+                + " ORDER BY " + column + " " + direction + ", b.ID " + direction;
         
-        while ((index = lowerText.indexOf(lowerKeyword, index)) != -1) {
-            count++;
-            index += lowerKeyword.length();
+        // 选择列中的相关度表达式参数排在WHERE条件的参数之前
+        List<Object> pageParams = new ArrayList<>();
+        if (rank != null) {
+            pageParams.addAll(rank.getParams());
         }
+        pageParams.addAll(where.getParams());
+        String pagedSql = dialect.paginate(sql);
+        dialect.addPageParams(pageParams, from, size);
         
-        return count;
+        log.debug("执行候选集分页查询[{}]: {}", dialect, pagedSql);
+        SearchTrace.sql(pagedSql, pageParams.size());
+        long start = SearchTrace.start();
+        List<SearchCandidate> candidates = jdbcTemplate.query(pagedSql, (rs, rowNum) -> {
+            if (windowTotal != null && rowNum == 0) {
+                windowTotal[0] = rs.getLong("total_count__");
+            }
+            SearchCandidate candidate = mapRowToCandidate(rs);
+            if (rank != null) {
+                candidate.setScore(rs.getDouble("rank__"));
+            }
+            return candidate;
+        }, pageParams.toArray());
+        SearchTrace.stage(SearchTrace.Stage.FETCH, start);
+        SearchTrace.rows(candidates.size());
+        return candidates;
     }
     
     /**
-     * 高亮显示文本中的关键词
+     * 第一阶段（按分数排序）：逐行计算分数后丢弃内容，只保留轻量候选项，
+     * 用容量为limit的堆保留分数最靠前的候选项。行数较多时XML解析和评分并行处理
+     *
+     * @return 按分数排好序的前limit个候选项，总数为全部匹配数
      */
-    private String highlightKeywords(String text, List<String> keywords) {
-        if (text == null || text.isEmpty() || keywords == null || keywords.isEmpty()) {
-            return text;
-        }
+    private RankedResult fetchScoredCandidates(CompiledQuery query, DocumentScorer scorer, boolean asc, int limit) {
+        SqlCondition where = fullTextSupport.condition(query);
+        String sql = "SELECT b.ID, b.NAME, b.CREATED, p.FIELD1079 as xml_content" + FROM_CLAUSE + where.getSql();
+        log.debug("执行候选集评分查询: {}", sql);
+        TopKCollector<SearchCandidate> top = TopKCollector.byKey(limit, asc);
+        cursorQuery.query(sql, where.getParams(), rs -> {
+            return rowProcessor.process(rs, this::readRawRow, row -> scoreCandidate(row, scorer), candidate -> {
+                long sortStart = SearchTrace.start();
+                top.offer(candidate.getScore(), candidate);
+                SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+            });
+        });
         
-        // 日志中只显示内容前50个字符
-        log.debug("高亮处理文本，长度: {}, 前50字符: {}", 
-                text.length(), 
-                text.length() > 50 ? text.substring(0, 50) + "..." : text);
+        long total = top.offered();
+        long sortStart = SearchTrace.start();
+        List<SearchCandidate> sorted = top.drainSorted();
+        SearchTrace.stage(SearchTrace.Stage.SORT, sortStart);
+        return new RankedResult(sorted, total);
+    }
+    
+    /**
+     * 第二阶段：按ID批量加载当前页的XML内容，解析、评分并高亮，保持第一阶段的顺序
+     */
+    private List<SearchResult> loadPageResults(List<SearchCandidate> candidates, DocumentScorer scorer,
+                                               CompiledQuery query) {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        String result = text;
+        Map<String, SearchResult> loaded = new HashMap<>();
+        int batchSize = Math.max(1, searchProperties.getPageLoadBatchSize());
         
-        // 按照关键词长度降序排序，避免短关键词替换影响长关键词
-        List<String> sortedKeywords = new ArrayList<>(keywords);
-        sortedKeywords.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        for (int start = 0; start < candidates.size(); start += batchSize) {
+            List<SearchCandidate> batch = candidates.subList(start, Math.min(start + batchSize, candidates.size()));
+            
+            List<Object> idParams = new ArrayList<>(batch.size());
+            for (SearchCandidate candidate : batch) {
+                idParams.add(candidate.getRawId());
+            }
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            String sql = "SELECT b.ID, b.NAME, p.FIELD1079 as xml_content, b.CREATED"
+                    + FROM_CLAUSE + "b.ID IN (" + placeholders + ")";
+            
+            // 查询耗时中扣除逐行解析XML的时间，分别计入读取和解析阶段
+            SearchTrace trace = SearchTrace.current();
+            long parseBefore = trace != null ? trace.stageNanos(SearchTrace.Stage.PARSE) : 0;
+            SearchTrace.sql(sql, idParams.size());
+            long start = SearchTrace.start();
+            jdbcTemplate.query(sql, rs -> {
+                SearchDeadline.checkpoint();
+                SearchResult result = mapRowToSearchResult(rs, rs.getRow());
+                loaded.putIfAbsent(result.getId(), result);
+            }, idParams.toArray());
+            SearchTrace.stageExcluding(SearchTrace.Stage.FETCH, start, SearchTrace.Stage.PARSE, parseBefore);
+            SearchTrace.rows(batch.size());
+        }
         
-        for (String keyword : sortedKeywords) {
-            if (keyword == null || keyword.isEmpty()) continue;
+        List<SearchResult> results = new ArrayList<>(candidates.size());
+        for (SearchCandidate candidate : candidates) {
+            SearchResult result = loaded.get(candidate.getId());
+            if (result == null) {
+                log.warn("结果 [{}] 在第二阶段加载时已不存在，跳过", candidate.getId());
+                continue;
+            }
             
-            // 不区分大小写的替换，使用正则表达式
-            String pattern = "(?i)" + Pattern.quote(keyword);
-            result = result.replaceAll(pattern, "<span class=\"highlight\">$0</span>");
+            double score = candidate.isScored()
+                    ? candidate.getScore()
+                    : score(scorer, result.getName(), result.getContent());
+            result.setScore(score == 0.0 ? 0.1 : score);
+            result.setHighlightedContent(highlight(result.getContent(), query));
+            results.add(result);
+        }
+        return results;
+    }
+    
+    /**
+     * 将数据库行映射为候选项，只读取ID、NAME、CREATED
+     */
+    private SearchCandidate mapRowToCandidate(ResultSet rs) throws SQLException {
+        return new SearchCandidate(rs.getObject("ID"), rs.getString("ID"), rs.getString("NAME"),
+                toDate(rs.getTimestamp("CREATED")));
+    }
+    
+    /**
+     * 读取一行：只读出XML的有界前缀，不把整个CLOB复制到内存；逐行处理时直接在JDBC线程上提取摘要，
+     * 并行处理时解析交给工作线程。两种方式使用同一个前缀长度，摘要与结果集大小无关
+     */
+    private RawRow readRawRow(ResultSet rs, boolean parallel) throws SQLException {
+        SearchCandidate candidate = mapRowToCandidate(rs);
+        XmlContentExtractor.XmlPrefix xml = readXmlPrefix(rs);
+        return parallel ? new RawRow(candidate, null, xml) : new RawRow(candidate, extractSnippet(xml), null);
+    }
+    
+    private SearchResult toSearchResult(RawRow row) {
+        SearchResult result = new SearchResult();
+        result.setId(row.candidate.getId());
+        result.setName(row.candidate.getName());
+        result.setCreated(row.candidate.getCreated());
+        result.setContent(snippet(row));
+        return result;
+    }
+    
+    /**
+     * 解析原始行并计算分数，只保留轻量候选项
+     */
+    private SearchCandidate scoreCandidate(RawRow row, DocumentScorer scorer) {
+        SearchCandidate candidate = row.candidate;
+        candidate.setScore(score(scorer, candidate.getName(), snippet(row)));
+        return candidate;
+    }
+    
+    /**
+     * 行的摘要：JDBC线程上已提取时直接使用，否则从XML前缀中提取
+     */
+    private String snippet(RawRow row) {
+        return row.content != null ? row.content : extractSnippet(row.xml);
+    }
+    
+    /**
+     * 从XML前缀中提取摘要，记录解析耗时、读取的XML长度和没有提取到内容的行数
+     */
+    private String extractSnippet(XmlContentExtractor.XmlPrefix xml) {
+        long start = SearchTrace.start();
+        String content = xmlContentExtractor.extractContent(xml, XmlContentExtractor.SNIPPET_LENGTH);
+        SearchTrace.stage(SearchTrace.Stage.PARSE, start);
+        SearchTrace.xml(xml != null ? xml.getText().length() : 0);
+        if (XmlContentExtractor.isPlaceholder(content)) {
+            SearchTrace.noContent(XmlContentExtractor.PARSE_FAILED.equals(content));
+        }
+        return content;
+    }
+    
+    /**
+     * 读取当前行XML列的前缀，所有搜索摘要都只按这个前缀提取
+     */
+    private XmlContentExtractor.XmlPrefix readXmlPrefix(ResultSet rs) throws SQLException {
+        int maxChars = searchProperties.getParallel().getXmlPrefixChars();
+        return xmlContentExtractor.readXmlPrefix(rs, "xml_content", maxChars);
+    }
+    
+    /**
+     * 计算分数并记录耗时，零分按0.1计入排序
+     */
+    private static double score(DocumentScorer scorer, String name, String content) {
+        long start = SearchTrace.start();
+        double score = scorer.score(name, content);
+        SearchTrace.stage(SearchTrace.Stage.SCORE, start);
+        return score == 0.0 ? 0.1 : score;
+    }
+    
+    private static String highlight(String content, CompiledQuery query) {
+        long start = SearchTrace.start();
+        String highlighted = KeywordHighlighter.highlight(content, query.getAutomaton());
+        SearchTrace.stage(SearchTrace.Stage.HIGHLIGHT, start);
+        return highlighted;
+    }
+    
+    private static Date toDate(Timestamp timestamp) {
+        return timestamp != null ? new Date(timestamp.getTime()) : null;
+    }
+    
+    @Override
+    public long count(String keywords) {
+        SearchTrace trace = SearchTrace.begin("none");
+        long count = -1;
+        try {
+            count = executeCount(keywords);
+            return count;
+        } finally {
+            searchMetrics.finish(trace, count);
         }
+    }
+    
+    private long executeCount(String keywords) {
+        log.debug("====> 开始执行计数方法: keywords={}", keywords);
         
-        // 添加日志，只显示高亮处理后结果的长度
-        log.debug("高亮处理完成，结果长度: {}", result.length());
+        if (!isAvailable()) {
+            log.warn("搜索服务不可用: {}", getUnavailableReason());
+            return 0;
+        }
         
+        try {
+            // 与search方法使用同一个编译结果，保证计数与搜索结果一致
+            CompiledQuery query = queryCompiler.compile(keywords);
+            if (query.isEmpty()) {
+                log.warn("处理后无有效关键词，返回计数0");
+                return 0;
+            }
+            SearchTrace.query(query);
+            
+            SqlCondition where = fullTextSupport.condition(query);
+            String sql = "SELECT COUNT(*)" + FROM_CLAUSE + where.getSql();
+            
+            log.debug("构建的计数SQL查询: {}", sql);
+            log.debug("计数查询参数: {}", where.getParams());
+            
+            // 执行查询
+            SearchTrace.sql(sql, where.getParams().size());
+            long start = SearchTrace.start();
+            Long count = jdbcTemplate.queryForObject(sql, Long.class, where.getParams().toArray());
+            SearchTrace.stage(SearchTrace.Stage.COUNT, start);
+            log.debug("计数查询完成，总共匹配 {} 条结果", count);
+            
+            log.debug("<==== 结束执行计数方法，计数结果: {}", count);
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            SearchTrace.fail(e);
+            log.error("获取搜索结果数量失败: {}", e.getMessage(), e);
+            return 0;
+        }
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        boolean available = appConfig.isDataSourceEnabled();
+        log.debug("检查搜索服务是否可用: {}", available);
+        return available;
+    }
+
+    /**
+     * 获取服务不可用的原因
+     */
+    private String getUnavailableReason() {
+        if (!appConfig.isDataSourceEnabled()) {
+            return "数据库未启用，请在配置页面启用并配置数据库";
+        }
+        return "未知原因";
+    }
+    
+    private static Comparator<SearchResult> nameComparator(boolean asc) {
+        Comparator<SearchResult> comparator = Comparator.comparing(SearchResult::getName,
+                Comparator.nullsLast(String::compareTo));
+        return asc ? comparator : comparator.reversed();
+    }
+    
+    /**
+     * 将数据库行映射为搜索结果对象，并解析XML提取content字段
+     */
+    private SearchResult mapRowToSearchResult(ResultSet rs, int rowNum) throws SQLException {
+        // 逐行调用，不输出日志，每次搜索的概况由 SearchTraceLogger 汇总输出
+        String id = rs.getString("ID");
+        String name = rs.getString("NAME");
+        Date created = toDate(rs.getTimestamp("CREATED"));
+        String extractedContent = extractSnippet(readXmlPrefix(rs));
+        
+        SearchResult result = new SearchResult();
+        result.setId(id);
+        result.setName(name);
+        result.setCreated(created);
+        result.setContent(extractedContent);
         return result;
     }
     
     /**
-     * 处理单个关键词项，构建SQL条件
+     * 一行的读取结果：已提取的摘要，或待提取的XML前缀
      */
-    private void processKeywordTerm(String term, List<String> conditions, List<Object> params, List<String> allKeywords) {
-        // 将空格分隔的多个关键词视为AND关系
-        String[] andTerms = term.trim().split("\\s+");
-        
-        for (String keyword : andTerms) {
-            String trimmedKeyword = keyword.trim();
-            if (!trimmedKeyword.isEmpty()) {
-                // 修正字段名，使用正确的表别名
-                conditions.add("(UPPER(b.NAME) LIKE UPPER(?) OR UPPER(p.FIELD1079) LIKE UPPER(?))");
-                params.add("%" + trimmedKeyword + "%");
-                params.add("%" + trimmedKeyword + "%");
-                
-                // 收集到关键词列表中，用于后续计算权重
-                allKeywords.add(trimmedKeyword);
-            }
+    private static final class RawRow {
+        private final SearchCandidate candidate;
+        private final String content;
+        private final XmlContentExtractor.XmlPrefix xml;
+        
+        RawRow(SearchCandidate candidate, String content, XmlContentExtractor.XmlPrefix xml) {
+            this.candidate = candidate;
+            this.content = content;
+            this.xml = xml;
         }
     }
 }
\ No newline at end of file
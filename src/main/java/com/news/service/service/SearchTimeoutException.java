@@ -0,0 +1,11 @@
+package com.news.service.service;
+
+/**
+ * 搜索超过截止时间
+ */
+public class SearchTimeoutException extends RuntimeException {
+
+    public SearchTimeoutException(long timeoutMillis) {
+        super("搜索超时（" + timeoutMillis + " ms）");
+    }
+}
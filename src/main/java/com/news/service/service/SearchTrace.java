@@ -0,0 +1,361 @@
+package com.news.service.service;
+
+import com.news.service.model.SearchProfile;
+import com.news.service.query.CompiledQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 单次搜索的阶段耗时和计数
+ *
+ * 与 {@link SearchDeadline} 一样绑定在执行搜索的线程上，各处通过静态方法记录，线程未绑定时不做任何事；
+ * 并行处理结果行时由 {@link ParallelRowProcessor} 绑定到工作线程，计数器线程安全。
+ * 嵌套的搜索调用（索引后端回退到SQL查询）沿用外层的记录，由最外层结束时统一导出。
+ */
+public final class SearchTrace {
+
+    /**
+     * 搜索阶段
+     */
+    public enum Stage {
+        /** 单独执行的COUNT查询（含BM25文档频率的计数） */
+        COUNT,
+        /** 内存索引中求值倒排表 */
+        MATCH,
+        /** 执行查询、读取结果行 */
+        FETCH,
+        /** 解析XML提取内容 */
+        PARSE,
+        /** 计算相关度分数 */
+        SCORE,
+        /** 高亮关键词 */
+        HIGHLIGHT,
+        /** 取前k项和排序 */
+        SORT;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * 每次搜索最多保留的SQL语句条数，按ID分批取内容时语句可能很多
+     */
+    private static final int MAX_STATEMENTS = 20;
+
+    private static final ThreadLocal<SearchTrace> CURRENT = new ThreadLocal<>();
+
+    private final String sortField;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder xmlChars = new LongAdder();
+    private final LongAdder emptyContent = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final List<SearchProfile.Statement> statements = new ArrayList<>();
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private volatile String backend = "sql";
+    private volatile int groups;
+    private volatile int terms;
+    private volatile CompiledQuery query;
+    private volatile Throwable error;
+    private volatile boolean profiled;
+    private int depth;
+    private long elapsedNanos;
+
+    private SearchTrace(String sortField) {
+        this.sortField = sortField;
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 开始记录一次搜索并绑定到当前线程，当前线程已有记录时沿用
+     *
+     * @param sortField 排序字段（score/name/created），计数请求为 none
+     */
+    public static SearchTrace begin(String sortField) {
+        SearchTrace trace = CURRENT.get();
+        if (trace == null) {
+            trace = new SearchTrace(sortField == null ? "score" : sortField.toLowerCase());
+            CURRENT.set(trace);
+        }
+        trace.depth++;
+        return trace;
+    }
+
+    /**
+     * 结束记录，只有最外层结束时解除绑定
+     *
+     * @return 是否为最外层
+     */
+    public boolean end() {
+        if (--depth > 0) {
+            return false;
+        }
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        return true;
+    }
+
+    /**
+     * 当前线程绑定的记录，未绑定时返回null
+     */
+    public static SearchTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在当前线程上临时绑定记录执行任务，供并行处理的工作线程使用
+     */
+    public <T> T attach(Supplier<T> task) {
+        SearchTrace previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 阶段开始时间，与 {@link #stage(Stage, long)} 配合使用
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 累加从 startNanos 到现在的耗时
+     */
+    public static void stage(Stage stage, long startNanos) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.stageNanos[stage.ordinal()].add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 从阶段耗时中扣除已计入其他阶段的部分，用于包含解析的查询回调
+     */
+    public static void stageExcluding(Stage stage, long startNanos, Stage excluded, long excludedBefore) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            long nested = trace.stageNanos(excluded) - excludedBefore;
+            trace.stageNanos[stage.ordinal()].add(Math.max(0, System.nanoTime() - startNanos - nested));
+        }
+    }
+
+    public static void rows(long count) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.rows.add(count);
+        }
+    }
+
+    public static void xml(long chars) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.xmlChars.add(chars);
+        }
+    }
+
+    /**
+     * 记录一行没有提取到摘要，代替逐行的警告日志
+     *
+     * @param parseFailed XML解析和正则提取都失败，否则为没有非空的Content
+     */
+    public static void noContent(boolean parseFailed) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            (parseFailed ? trace.parseFailures : trace.emptyContent).increment();
+        }
+    }
+
+    public static void cache(boolean hit) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            (hit ? trace.cacheHits : trace.cacheMisses).increment();
+        }
+    }
+
+    /**
+     * 记录执行的SQL语句和绑定参数个数，只保留前 {@value #MAX_STATEMENTS} 条
+     */
+    public static void sql(String sql, int binds) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null && trace.statementCount.getAndIncrement() < MAX_STATEMENTS) {
+            synchronized (trace.statements) {
+                trace.statements.add(new SearchProfile.Statement(sql, binds));
+            }
+        }
+    }
+
+    public static void backend(String backend) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.backend = backend;
+        }
+    }
+
+    /**
+     * 记录查询形态：逗号分组数和关键词数
+     */
+    public static void query(CompiledQuery query) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.groups = query.getGroups();
+            trace.terms = query.getKeywords().size();
+            trace.query = query;
+        }
+    }
+
+    /**
+     * 记录搜索失败的原因，失败后返回空结果的搜索也能区分出来
+     */
+    public static void fail(Throwable error) {
+        SearchTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.error = error;
+        }
+    }
+
+    /**
+     * 请求返回执行剖析，结束时由 {@link SearchMetrics} 生成
+     */
+    public void profile() {
+        profiled = true;
+    }
+
+    public boolean isProfiled() {
+        return profiled;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public int getTerms() {
+        return terms;
+    }
+
+    /**
+     * 编译后的查询，未编译（如关键词为空）时为null
+     */
+    public CompiledQuery getQuery() {
+        return query;
+    }
+
+    public long stageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()].sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getXmlChars() {
+        return xmlChars.sum();
+    }
+
+    public long getEmptyContent() {
+        return emptyContent.sum();
+    }
+
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 结果：success、timeout 或 error
+     */
+    public String getOutcome() {
+        if (error == null) {
+            return "success";
+        }
+        return error instanceof SearchTimeoutException ? "timeout" : "error";
+    }
+
+    /**
+     * 整次搜索的耗时，最外层结束后有效
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 生成执行剖析，最外层结束后调用
+     *
+     * @param total    匹配的结果总数，失败时为-1
+     * @param returned 返回的结果条数，计数请求为-1
+     */
+    public SearchProfile toProfile(long total, int returned) {
+        SearchProfile profile = new SearchProfile();
+        profile.setTimestamp(System.currentTimeMillis());
+        profile.setQuery(query != null ? query.toString() : null);
+        profile.setBackend(backend);
+        profile.setSortField(sortField);
+        profile.setOutcome(getOutcome());
+        if (error != null) {
+            profile.setError(error.getClass().getSimpleName() + ": " + error.getMessage());
+        }
+        profile.setElapsedMs(millis(elapsedNanos));
+        profile.setTotal(total);
+        profile.setReturned(returned);
+        profile.setRowsScanned(getRows());
+        profile.setXmlChars(getXmlChars());
+        profile.setCacheHits(getCacheHits());
+        profile.setCacheMisses(getCacheMisses());
+        for (Stage stage : Stage.values()) {
+            long nanos = stageNanos(stage);
+            if (nanos > 0) {
+                profile.getStagesMs().put(stage.tag(), millis(nanos));
+            }
+        }
+        synchronized (statements) {
+            profile.getStatements().addAll(statements);
+        }
+        profile.setStatementCount(statementCount.get());
+        return profile;
+    }
+
+    /**
+     * 纳秒换算为毫秒，保留两位小数
+     */
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+}
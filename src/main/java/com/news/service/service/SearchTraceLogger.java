@@ -0,0 +1,117 @@
+package com.news.service.service;
+
+import com.news.service.config.SearchProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜索概况日志
+ *
+ * 每次搜索结束时最多输出一行 key=value 格式的概况：后端、排序、结果、耗时、各阶段耗时、读取行数、没有提取到内容的行数、缓存命中和查询，
+ * 取代原来在逐行处理中输出的调试日志。正常完成的搜索按 app.search.trace.sample-rate 抽样，
+ * 慢查询和失败的搜索总是输出（WARN级别）。
+ * 使用独立的logger（com.news.service.search.trace），由 logback-spring.xml 异步写入 logs/search-trace.log。
+ */
+@Component
+public class SearchTraceLogger {
+
+    private static final Logger TRACE_LOG = LoggerFactory.getLogger("com.news.service.search.trace");
+
+    private final SearchProperties.Trace config;
+
+    @Autowired
+    public SearchTraceLogger(SearchProperties searchProperties) {
+        this.config = searchProperties.getTrace();
+    }
+
+    /**
+     * 按抽样输出一次搜索的概况
+     *
+     * @param trace    已结束的记录
+     * @param total    匹配的结果总数，失败时为-1
+     * @param returned 返回的结果条数，计数请求为-1
+     */
+    public void log(SearchTrace trace, long total, int returned) {
+        if (!config.isEnabled() || !TRACE_LOG.isWarnEnabled()) {
+            return;
+        }
+
+        boolean failed = trace.getError() != null;
+        boolean slow = TimeUnit.NANOSECONDS.toMillis(trace.getElapsedNanos()) >= config.getSlowThresholdMs();
+        String reason;
+        if (failed) {
+            reason = "error";
+        } else if (slow) {
+            reason = "slow";
+        } else if (ThreadLocalRandom.current().nextDouble() < config.getSampleRate() && TRACE_LOG.isInfoEnabled()) {
+            reason = "sample";
+        } else {
+            return;
+        }
+
+        String line = format(trace, total, returned, reason);
+        if (failed || slow) {
+            TRACE_LOG.warn(line);
+        } else {
+            TRACE_LOG.info(line);
+        }
+    }
+
+    private static String format(SearchTrace trace, long total, int returned, String reason) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("reason=").append(reason)
+                .append(" backend=").append(trace.getBackend())
+                .append(" sort=").append(trace.getSortField())
+                .append(" outcome=").append(trace.getOutcome());
+        appendMillis(sb, "elapsed_ms", trace.getElapsedNanos());
+        sb.append(" total=").append(total);
+        if (returned >= 0) {
+            sb.append(" returned=").append(returned);
+        }
+        sb.append(" rows=").append(trace.getRows())
+                .append(" xml_chars=").append(trace.getXmlChars())
+                .append(" empty_content=").append(trace.getEmptyContent())
+                .append(" parse_failures=").append(trace.getParseFailures());
+        if (trace.getCacheHits() > 0 || trace.getCacheMisses() > 0) {
+            sb.append(" cache=").append(trace.getCacheHits() > 0 ? "hit" : "miss");
+        }
+        for (SearchTrace.Stage stage : SearchTrace.Stage.values()) {
+            long nanos = trace.stageNanos(stage);
+            if (nanos > 0) {
+                appendMillis(sb, stage.tag() + "_ms", nanos);
+            }
+        }
+        sb.append(" groups=").append(trace.getGroups())
+                .append(" terms=").append(trace.getTerms());
+        appendQuoted(sb, "query", trace.getQuery() != null ? trace.getQuery().toString() : "");
+        if (trace.getError() != null) {
+            appendQuoted(sb, "error", trace.getError().getClass().getSimpleName() + ": " + trace.getError().getMessage());
+        }
+        return sb.toString();
+    }
+
+    private static void appendMillis(StringBuilder sb, String key, long nanos) {
+        sb.append(' ').append(key).append('=').append(String.format(Locale.ROOT, "%.2f", nanos / 1e6));
+    }
+
+    private static void appendQuoted(StringBuilder sb, String key, String value) {
+        sb.append(' ').append(key).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n' || c == '\r') {
+                sb.append(' ');
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
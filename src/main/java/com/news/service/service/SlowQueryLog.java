@@ -0,0 +1,58 @@
+package com.news.service.service;
+
+import com.news.service.config.SearchProperties;
+import com.news.service.model.SearchProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 最近慢查询的执行剖析
+ *
+ * 耗时达到 app.search.trace.slow-threshold-ms 的搜索保存一份 {@link SearchProfile}，
+ * 最多保留 app.search.trace.slow-query-capacity 条，满了丢弃最早的一条。
+ */
+@Component
+public class SlowQueryLog {
+
+    private final SearchProperties.Trace config;
+    private final ArrayDeque<SearchProfile> profiles = new ArrayDeque<>();
+
+    @Autowired
+    public SlowQueryLog(SearchProperties searchProperties) {
+        this.config = searchProperties.getTrace();
+    }
+
+    /**
+     * 耗时是否达到慢查询阈值
+     */
+    public boolean isSlow(long elapsedMillis) {
+        return config.getSlowQueryCapacity() > 0 && elapsedMillis >= config.getSlowThresholdMs();
+    }
+
+    public synchronized void add(SearchProfile profile) {
+        int capacity = config.getSlowQueryCapacity();
+        while (profiles.size() >= capacity && !profiles.isEmpty()) {
+            profiles.pollFirst();
+        }
+        if (capacity > 0) {
+            profiles.addLast(profile);
+        }
+    }
+
+    /**
+     * 最近的慢查询，最新的在前
+     */
+    public synchronized List<SearchProfile> recent() {
+        List<SearchProfile> recent = new ArrayList<>(profiles.size());
+        profiles.descendingIterator().forEachRemaining(recent::add);
+        return recent;
+    }
+
+    public synchronized void clear() {
+        profiles.clear();
+    }
+}
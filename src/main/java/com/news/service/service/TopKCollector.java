@@ -0,0 +1,229 @@
+package com.news.service.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 取前k项的收集器
+ *
+ * 用容量为k的二叉堆代替对全部结果排序：堆顶是当前保留项中最差的一项，新项不优于堆顶时直接丢弃。
+ * 排序键可以是原始double（分数、时间戳），不装箱；也可以是比较器（名称）。
+ * 键相同时先加入的项排在前面，与对全部结果做稳定排序的顺序一致。非线程安全。
+ */
+public final class TopKCollector<T> {
+
+    private final int capacity;
+    private final boolean asc;
+    private final Comparator<? super T> comparator;
+    private double[] keys;
+    private long[] sequences;
+    private Object[] items;
+    private int size;
+    private long offered;
+
+    private TopKCollector(int capacity, boolean asc, Comparator<? super T> comparator) {
+        this.capacity = Math.max(0, capacity);
+        this.asc = asc;
+        this.comparator = comparator;
+        // 深分页时容量可能很大，数组按需扩容
+        int initial = Math.min(this.capacity, 1024);
+        this.keys = new double[initial];
+        this.sequences = new long[initial];
+        this.items = new Object[initial];
+    }
+
+    /**
+     * 按double键取前k项，通过 {@link #offer(double, Object)} 加入
+     *
+     * @param capacity 保留的项数
+     * @param asc      是否按键升序取前k项（即取键最小的k项）
+     */
+    public static <T> TopKCollector<T> byKey(int capacity, boolean asc) {
+        return new TopKCollector<>(capacity, asc, null);
+    }
+
+    /**
+     * 按比较器取前k项，比较结果小于0的项排在前面，通过 {@link #offer(Object)} 加入
+     */
+    public static <T> TopKCollector<T> byComparator(int capacity, Comparator<? super T> comparator) {
+        return new TopKCollector<>(capacity, true, comparator);
+    }
+
+    /**
+     * 加入一项
+     *
+     * @return 是否被保留
+     */
+    public boolean offer(double key, T item) {
+        long sequence = offered++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (size < capacity) {
+            if (size == keys.length) {
+                grow();
+            }
+            keys[size] = key;
+            sequences[size] = sequence;
+            items[size] = item;
+            siftUp(size++);
+            return true;
+        }
+        if (!better(key, item, sequence, 0)) {
+            return false;
+        }
+        keys[0] = key;
+        sequences[0] = sequence;
+        items[0] = item;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * 按比较器加入一项
+     *
+     * @return 是否被保留
+     */
+    public boolean offer(T item) {
+        return offer(0.0, item);
+    }
+
+    /**
+     * 是否已保留k项，已满时新项必须优于 {@link #threshold()} 才会被保留
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * 按double键收集时，键为key的新项是否会被保留；新项总是晚于堆中各项加入，键相同时不会被保留
+     */
+    public boolean wouldAccept(double key) {
+        if (size < capacity) {
+            return true;
+        }
+        if (capacity == 0) {
+            return false;
+        }
+        return asc ? key < keys[0] : key > keys[0];
+    }
+
+    /**
+     * 当前保留项中最差的键，堆为空时返回NaN
+     */
+    public double threshold() {
+        return size > 0 ? keys[0] : Double.NaN;
+    }
+
+    /**
+     * 累计加入的项数（包括被丢弃的）
+     */
+    public long offered() {
+        return offered;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按排序方式从好到差返回保留的项，调用后收集器被清空
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> drainSorted() {
+        Object[] sorted = new Object[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sorted[i] = items[0];
+            size--;
+            if (size > 0) {
+                keys[0] = keys[size];
+                sequences[0] = sequences[size];
+                items[0] = items[size];
+                siftDown(0);
+            }
+            items[size] = null;
+        }
+        List<T> result = new ArrayList<>(sorted.length);
+        for (Object item : sorted) {
+            result.add((T) item);
+        }
+        return result;
+    }
+
+    /**
+     * 新项是否排在堆中第index项前面
+     */
+    @SuppressWarnings("unchecked")
+    private boolean better(double key, T item, long sequence, int index) {
+        int cmp = compare(key, item, keys[index], (T) items[index]);
+        return cmp != 0 ? cmp < 0 : sequence < sequences[index];
+    }
+
+    /**
+     * 堆中第a项是否排在第b项前面
+     */
+    @SuppressWarnings("unchecked")
+    private boolean better(int a, int b) {
+        int cmp = compare(keys[a], (T) items[a], keys[b], (T) items[b]);
+        return cmp != 0 ? cmp < 0 : sequences[a] < sequences[b];
+    }
+
+    private int compare(double keyA, T itemA, double keyB, T itemB) {
+        if (comparator != null) {
+            return comparator.compare(itemA, itemB);
+        }
+        int cmp = Double.compare(keyA, keyB);
+        return asc ? cmp : -cmp;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(parent, index)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(left, right)) {
+                worst = right;
+            }
+            if (!better(index, worst)) {
+                break;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void grow() {
+        int length = (int) Math.min(capacity, keys.length * 2L);
+        keys = Arrays.copyOf(keys, length);
+        sequences = Arrays.copyOf(sequences, length);
+        items = Arrays.copyOf(items, length);
+    }
+
+    private void swap(int a, int b) {
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long sequence = sequences[a];
+        sequences[a] = sequences[b];
+        sequences[b] = sequence;
+        Object item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+    }
+}
@@ -0,0 +1,116 @@
+package com.news.service.util;
+
+import java.util.Arrays;
+
+/**
+ * BM25F 评分器
+ *
+ * 标题和内容作为两个字段：每个关键词先按字段做长度归一化并按字段权重合并词频，
+ * 再做一次词频饱和，乘以由文档频率得到的稀有度。字段长度按字符数计算，与关键词的子串匹配方式一致。
+ * 评分时标题和内容各扫描一次关键词自动机，除复用的计数数组外不分配内存。
+ */
+public final class Bm25Scorer implements DocumentScorer {
+
+    /**
+     * 每个线程复用的计数数组：[标题出现次数 | 内容出现次数 | 扫描工作区]，每段长度为关键词个数
+     */
+    private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[48]);
+
+    private final KeywordAutomaton automaton;
+    private final double[] idf;
+    private final double[] maxContribution;
+    private final double k1;
+    private final double titleWeight;
+    private final double titleB;
+    private final double contentB;
+    private final double avgTitleLength;
+    private final double avgContentLength;
+
+    /**
+     * @param automaton         查询的关键词自动机
+     * @param docCount          文档总数
+     * @param docFrequencies    每个关键词编号对应的文档频率
+     * @param avgTitleLength    平均标题长度（字符）
+     * @param avgContentLength  平均内容长度（字符）
+     * @param k1                词频饱和参数
+     * @param titleWeight       标题字段权重，内容字段权重为1
+     * @param titleB            标题长度归一化参数
+     * @param contentB          内容长度归一化参数
+     */
+    public Bm25Scorer(KeywordAutomaton automaton, long docCount, long[] docFrequencies,
+                      double avgTitleLength, double avgContentLength,
+                      double k1, double titleWeight, double titleB, double contentB) {
+        this.automaton = automaton;
+        this.k1 = k1;
+        this.titleWeight = titleWeight;
+        this.titleB = titleB;
+        this.contentB = contentB;
+        this.avgTitleLength = avgTitleLength > 0 ? avgTitleLength : 1.0;
+        this.avgContentLength = avgContentLength > 0 ? avgContentLength : 1.0;
+
+        this.idf = new double[automaton.keywordCount()];
+        for (int keyword = 0; keyword < idf.length; keyword++) {
+            long df = Math.max(0, docFrequencies[keyword]);
+            long n = Math.max(docCount, df);
+            idf[keyword] = Math.log(1.0 + (n - df + 0.5) / (df + 0.5));
+        }
+
+        // 饱和后的词频严格小于 k1+1，重复的关键词按出现次数累加
+        this.maxContribution = new double[idf.length];
+        for (int entry = 0; entry < automaton.entryCount(); entry++) {
+            int keyword = automaton.keywordOf(entry);
+            maxContribution[keyword] += idf[keyword] * (k1 + 1.0);
+        }
+    }
+
+    /**
+     * 关键词的稀有度
+     */
+    public double idf(int keyword) {
+        return idf[keyword];
+    }
+
+    @Override
+    public double maxContribution(int keyword) {
+        return maxContribution[keyword];
+    }
+
+    @Override
+    public double score(String title, String content) {
+        if (content == null || content.isEmpty()) {
+            return 0.0;
+        }
+
+        int keywordCount = automaton.keywordCount();
+        int[] counts = COUNTS.get();
+        if (counts.length < keywordCount * 3) {
+            counts = new int[keywordCount * 3];
+            COUNTS.set(counts);
+        }
+        Arrays.fill(counts, 0, keywordCount * 2, 0);
+
+        int titleLength = title != null ? title.length() : 0;
+        if (titleLength > 0) {
+            automaton.countOccurrences(title, counts, 0, counts, keywordCount * 2);
+        }
+        automaton.countOccurrences(content, counts, keywordCount, counts, keywordCount * 2);
+
+        double titleNorm = 1.0 - titleB + titleB * titleLength / avgTitleLength;
+        double contentNorm = 1.0 - contentB + contentB * content.length() / avgContentLength;
+
+        double score = 0.0;
+        // 重复的关键词按出现次数重复计分，与原有公式一致
+        for (int entry = 0; entry < automaton.entryCount(); entry++) {
+            int keyword = automaton.keywordOf(entry);
+            int titleTf = counts[keyword];
+            int contentTf = counts[keywordCount + keyword];
+            if (titleTf == 0 && contentTf == 0) {
+                continue;
+            }
+
+            double tf = titleWeight * titleTf / titleNorm + contentTf / contentNorm;
+            score += idf[keyword] * tf * (k1 + 1.0) / (k1 + tf);
+        }
+        return score;
+    }
+}
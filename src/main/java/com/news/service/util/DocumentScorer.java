@@ -0,0 +1,29 @@
+package com.news.service.util;
+
+/**
+ * 文档相关度评分器
+ *
+ * 每个查询创建一次，线程安全，可在候选集评分和加载当前页时复用
+ */
+@FunctionalInterface
+public interface DocumentScorer {
+
+    /**
+     * 计算文档分数
+     *
+     * @param title   标题
+     * @param content 内容（摘要）
+     * @return 分数，未命中任何关键词时为0
+     */
+    double score(String title, String content);
+
+    /**
+     * 单个关键词（含重复出现）对任意文档分数贡献的上界，用于跳过不可能进入前k项的文档
+     *
+     * @param keyword 关键词编号
+     * @return 上界，无法给出有限上界时返回正无穷
+     */
+    default double maxContribution(int keyword) {
+        return Double.POSITIVE_INFINITY;
+    }
+}
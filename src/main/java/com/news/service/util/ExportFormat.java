@@ -0,0 +1,54 @@
+package com.news.service.util;
+
+/**
+ * 批量导出的文件格式
+ */
+public enum ExportFormat {
+
+    /**
+     * 逗号分隔，首行为列名，字段按RFC 4180转义
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * 每行一个JSON对象
+     */
+    JSONL("application/x-ndjson", "jsonl");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称选择格式，未指定时使用CSV
+     *
+     * @throws IllegalArgumentException 格式无法识别
+     */
+    public static ExportFormat of(String format) {
+        if (format == null || format.trim().isEmpty()) {
+            return CSV;
+        }
+        String name = format.trim();
+        for (ExportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(name) || value.extension.equalsIgnoreCase(name)) {
+                return value;
+            }
+        }
+        if ("ndjson".equalsIgnoreCase(name)) {
+            return JSONL;
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + format);
+    }
+}
@@ -0,0 +1,142 @@
+package com.news.service.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 导出记录写出器
+ *
+ * 记录逐条写入缓冲的字符流，每 flushRows 条刷新一次；输出流为同步刷新的GZIP流时，每次刷新都会把已压缩的数据发给客户端。
+ * 列依次为 id、name、created、content、cursor，cursor 是该记录之后的续传令牌。
+ */
+public class ExportWriter implements Closeable {
+
+    private static final String[] COLUMNS = {"id", "name", "created", "content", "cursor"};
+
+    private static final DateTimeFormatter CREATED_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private final int flushRows;
+    private long written;
+
+    public ExportWriter(ObjectMapper objectMapper, ExportFormat format, OutputStream out, int flushRows)
+            throws IOException {
+        this.format = format;
+        this.flushRows = Math.max(1, flushRows);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.JSONL) {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator = null;
+        }
+    }
+
+    /**
+     * 写出CSV开头的UTF-8 BOM（便于Excel识别编码）和列名行，JSONL没有表头。
+     * 续传的片段需要直接拼接到原文件后，不调用此方法
+     */
+    public void writeHeader() throws IOException {
+        if (format != ExportFormat.CSV) {
+            return;
+        }
+        writer.write('\uFEFF');
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+    }
+
+    /**
+     * 写出一条记录
+     */
+    public void write(String id, String name, Timestamp created, String content, String cursor) throws IOException {
+        String createdText = created != null ? created.toLocalDateTime().format(CREATED_FORMAT) : null;
+        if (format == ExportFormat.JSONL) {
+            generator.writeStartObject();
+            generator.writeStringField(COLUMNS[0], id);
+            generator.writeStringField(COLUMNS[1], name);
+            generator.writeStringField(COLUMNS[2], createdText);
+            generator.writeStringField(COLUMNS[3], content);
+            generator.writeStringField(COLUMNS[4], cursor);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            writeCsvField(id);
+            writer.write(',');
+            writeCsvField(name);
+            writer.write(',');
+            writeCsvField(createdText);
+            writer.write(',');
+            writeCsvField(content);
+            writer.write(',');
+            writeCsvField(cursor);
+            writer.write("\r\n");
+        }
+
+        written++;
+        if (written % flushRows == 0) {
+            flush();
+        }
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    /**
+     * 刷新剩余的记录，不关闭底层输出流
+     */
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+    }
+
+    /**
+     * 含逗号、引号或换行的字段用双引号包围，字段中的双引号写两次
+     */
+    private void writeCsvField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
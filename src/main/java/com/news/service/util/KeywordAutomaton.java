@@ -0,0 +1,300 @@
+package com.news.service.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 关键词自动机（Aho-Corasick）
+ *
+ * 每个查询构建一次，不可变，可在线程间共享，高亮和评分共用。匹配逐字符比较 {@link Character#toLowerCase(char)} 的结果，
+ * 不改变文本长度，因此匹配位置可以直接映射回原文。
+ * 高亮时重叠的匹配按"最左最长"规则选取：从左到右，每个位置取以该位置开头的最长关键词，匹配之间互不重叠。
+ */
+public final class KeywordAutomaton {
+
+    private static final String OPEN_TAG = "<span class=\"highlight\">";
+    private static final String CLOSE_TAG = "</span>";
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_STATES = new int[0];
+
+    /**
+     * 每个状态的出边，按字符升序，二分查找
+     */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    /**
+     * 以该状态结尾的关键词长度，不是关键词终点时为0
+     */
+    private final int[] outputLength;
+    /**
+     * 以该状态结尾的关键词编号，不是关键词终点时为-1
+     */
+    private final int[] outputKeyword;
+    /**
+     * 沿失败链最近的关键词终点状态，没有时为-1
+     */
+    private final int[] outputLink;
+    /**
+     * 构建时传入的每个有效关键词（按原顺序，保留重复）对应的关键词编号
+     */
+    private final int[] entryKeywords;
+    /**
+     * 每个关键词编号对应的关键词（小写）
+     */
+    private final String[] keywords;
+
+    private KeywordAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] outputLength,
+                             int[] outputKeyword, int[] outputLink, int[] entryKeywords, String[] keywords) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputLength = outputLength;
+        this.outputKeyword = outputKeyword;
+        this.outputLink = outputLink;
+        this.entryKeywords = entryKeywords;
+        this.keywords = keywords;
+    }
+
+    /**
+     * 构建自动机
+     *
+     * 小写后相同的关键词共用一个编号
+     *
+     * @param keywords 关键词，空值和空串被忽略
+     * @return 自动机，没有有效关键词时返回null
+     */
+    public static KeywordAutomaton build(List<String> keywords) {
+        List<int[]> children = new ArrayList<>();
+        List<char[]> labels = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<Integer> keywordIds = new ArrayList<>();
+        children.add(NO_STATES);
+        labels.add(NO_CHARS);
+        lengths.add(0);
+        keywordIds.add(-1);
+
+        List<Integer> entries = new ArrayList<>();
+        List<String> distinct = new ArrayList<>();
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                char[] chars = labels.get(state);
+                int pos = Arrays.binarySearch(chars, c);
+                if (pos >= 0) {
+                    state = children.get(state)[pos];
+                    continue;
+                }
+                int next = children.size();
+                children.add(NO_STATES);
+                labels.add(NO_CHARS);
+                lengths.add(0);
+                keywordIds.add(-1);
+
+                int insert = -pos - 1;
+                labels.set(state, insertChar(chars, insert, c));
+                children.set(state, insertInt(children.get(state), insert, next));
+                state = next;
+            }
+            if (keywordIds.get(state) < 0) {
+                lengths.set(state, keyword.length());
+                keywordIds.set(state, distinct.size());
+                distinct.add(keyword.toLowerCase(Locale.ROOT));
+            }
+            entries.add(keywordIds.get(state));
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        int stateCount = children.size();
+        char[][] edgeChars = labels.toArray(new char[stateCount][]);
+        int[][] edgeTargets = children.toArray(new int[stateCount][]);
+        int[] outputLength = new int[stateCount];
+        int[] outputKeyword = new int[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            outputLength[i] = lengths.get(i);
+            outputKeyword[i] = keywordIds.get(i);
+        }
+        int[] entryKeywords = new int[entries.size()];
+        for (int i = 0; i < entryKeywords.length; i++) {
+            entryKeywords[i] = entries.get(i);
+        }
+
+        // 按层序计算失败指针和输出链接
+        int[] fail = new int[stateCount];
+        int[] outputLink = new int[stateCount];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                char c = edgeChars[state][i];
+                int child = edgeTargets[state][i];
+
+                int f = fail[state];
+                int target;
+                while ((target = step(edgeChars, edgeTargets, f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = target >= 0 ? target : 0;
+                outputLink[child] = outputLength[fail[child]] > 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+        return new KeywordAutomaton(edgeChars, edgeTargets, fail, outputLength, outputKeyword, outputLink,
+                entryKeywords, distinct.toArray(new String[0]));
+    }
+
+    /**
+     * 不同关键词的个数，关键词编号取值为 [0, keywordCount)
+     */
+    public int keywordCount() {
+        return keywords.length;
+    }
+
+    /**
+     * 关键词编号对应的关键词（小写）
+     */
+    public String keyword(int keyword) {
+        return keywords[keyword];
+    }
+
+    /**
+     * 构建时传入的有效关键词个数（保留重复）
+     */
+    public int entryCount() {
+        return entryKeywords.length;
+    }
+
+    /**
+     * 第 entry 个有效关键词的编号
+     */
+    public int keywordOf(int entry) {
+        return entryKeywords[entry];
+    }
+
+    /**
+     * 单次扫描统计每个关键词在文本中不重叠出现的次数，与逐个关键词从左到右 indexOf 的计数一致
+     *
+     * @param text          文本
+     * @param counts        计数累加到 counts[countsOffset + 关键词编号]，调用方负责清零
+     * @param countsOffset  计数的起始位置
+     * @param scratch       工作区，占用 scratch[scratchOffset, scratchOffset + keywordCount())，由本方法初始化
+     * @param scratchOffset 工作区的起始位置
+     */
+    public void countOccurrences(String text, int[] counts, int countsOffset, int[] scratch, int scratchOffset) {
+        // scratch[scratchOffset + k] 为关键词k下一次匹配允许的最小起始位置
+        Arrays.fill(scratch, scratchOffset, scratchOffset + keywords.length, 0);
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = next(state, Character.toLowerCase(text.charAt(i)));
+
+            int out = outputLength[state] > 0 ? state : outputLink[state];
+            while (out >= 0) {
+                int keyword = outputKeyword[out];
+                int start = i + 1 - outputLength[out];
+                if (start >= scratch[scratchOffset + keyword]) {
+                    counts[countsOffset + keyword]++;
+                    scratch[scratchOffset + keyword] = i + 1;
+                }
+                out = outputLink[out];
+            }
+        }
+    }
+
+    /**
+     * 高亮文本中的关键词，单次扫描
+     *
+     * @param text 原文
+     * @return 高亮后的文本，没有匹配时返回原文
+     */
+    public String highlight(String text) {
+        int length = text.length();
+        // ends[i] 为以位置i开头的最长匹配的结束位置（不含），0表示没有匹配
+        int[] ends = null;
+        int matches = 0;
+
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            state = next(state, Character.toLowerCase(text.charAt(i)));
+
+            int out = outputLength[state] > 0 ? state : outputLink[state];
+            while (out >= 0) {
+                int start = i + 1 - outputLength[out];
+                if (ends == null) {
+                    ends = new int[length];
+                }
+                if (ends[start] == 0) {
+                    matches++;
+                }
+                if (ends[start] < i + 1) {
+                    ends[start] = i + 1;
+                }
+                out = outputLink[out];
+            }
+        }
+        if (ends == null) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(length + matches * (OPEN_TAG.length() + CLOSE_TAG.length()));
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            int end = ends[i];
+            if (end == 0) {
+                i++;
+                continue;
+            }
+            sb.append(text, copied, i).append(OPEN_TAG).append(text, i, end).append(CLOSE_TAG);
+            copied = end;
+            i = end;
+        }
+        sb.append(text, copied, length);
+        return sb.toString();
+    }
+
+    private int next(int state, char c) {
+        int target;
+        while ((target = step(edgeChars, edgeTargets, state, c)) < 0 && state != 0) {
+            state = fail[state];
+        }
+        return target >= 0 ? target : 0;
+    }
+
+    private static int step(char[][] edgeChars, int[][] edgeTargets, int state, char c) {
+        int pos = Arrays.binarySearch(edgeChars[state], c);
+        return pos >= 0 ? edgeTargets[state][pos] : -1;
+    }
+
+    private static char[] insertChar(char[] array, int index, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static int[] insertInt(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
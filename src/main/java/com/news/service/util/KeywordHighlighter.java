@@ -0,0 +1,45 @@
+package com.news.service.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 关键词高亮工具类
+ */
+public final class KeywordHighlighter {
+    
+    private KeywordHighlighter() {
+    }
+    
+    /**
+     * 高亮显示文本中的关键词
+     */
+    public static String highlightKeywords(String text, List<String> keywords) {
+        if (text == null || text.isEmpty() || keywords == null || keywords.isEmpty()) {
+            return text;
+        }
+        return highlight(text, compile(keywords));
+    }
+    
+    /**
+     * 把关键词构建为高亮自动机，可在多次高亮间复用
+     *
+     * @param keywords 关键词
+     * @return 自动机，没有有效关键词时返回null
+     */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        return KeywordAutomaton.build(new ArrayList<>(new LinkedHashSet<>(keywords)));
+    }
+    
+    /**
+     * 用预构建的自动机高亮文本，一次扫描完成，重叠的匹配取最长的关键词，已插入的标签不会被再次匹配
+     */
+    public static String highlight(String text, KeywordAutomaton automaton) {
+        if (text == null || text.isEmpty() || automaton == null) {
+            return text;
+        }
+        
+        return automaton.highlight(text);
+    }
+}
@@ -0,0 +1,43 @@
+package com.news.service.util;
+
+import java.util.Locale;
+
+/**
+ * 相关度排序模型
+ */
+public enum RankingModel {
+
+    /**
+     * 原有加权公式：标题命中、内容命中和出现频率加权求和，按内容长度对数降权
+     */
+    CLASSIC,
+
+    /**
+     * BM25F：按词项的文档频率计算稀有度，标题和内容分字段做词频饱和与长度归一化
+     */
+    BM25,
+
+    /**
+     * 数据库全文检索计算的相关度（Oracle SCORE、MySQL MATCH AGAINST、PostgreSQL ts_rank），排序和分页下推到数据库，
+     * 不读取XML评分；当前匹配方言不提供相关度或使用内存索引时按 CLASSIC 评分
+     */
+    NATIVE;
+
+    /**
+     * 解析模型名称，不区分大小写
+     *
+     * @param name         模型名称
+     * @param defaultModel 名称为空或无法识别时使用的模型
+     * @return 排序模型
+     */
+    public static RankingModel of(String name, RankingModel defaultModel) {
+        if (name == null || name.trim().isEmpty()) {
+            return defaultModel;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultModel;
+        }
+    }
+}
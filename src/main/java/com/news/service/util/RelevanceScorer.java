@@ -0,0 +1,90 @@
+package com.news.service.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 相关度评分工具类
+ *
+ * SQL查询和内存索引共用同一套评分公式，保证两种后端的排序结果一致
+ */
+public final class RelevanceScorer {
+    
+    private RelevanceScorer() {
+    }
+    
+    // 基础权重因子
+    private static final double TITLE_WEIGHT = 3.0;      // 标题中出现关键词的权重
+    private static final double CONTENT_WEIGHT = 1.0;    // 内容中出现关键词的权重
+    private static final double FREQUENCY_FACTOR = 0.5;  // 频率因子，每多出现一次增加的权重
+    
+    /**
+     * 每个线程复用的计数数组：[标题命中数 | 内容出现次数 | 扫描工作区]，每段长度为关键词个数
+     */
+    private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[48]);
+    
+    /**
+     * 原有加权公式的评分器
+     */
+    public static DocumentScorer classic(KeywordAutomaton automaton) {
+        return (title, content) -> calculateScore(title, content, automaton);
+    }
+    
+    /**
+     * 计算搜索结果的权重分数
+     */
+    public static double calculateScore(String title, String text, List<String> keywords) {
+        if (text == null || text.isEmpty() || keywords.isEmpty()) {
+            return 0.0;
+        }
+        return calculateScore(title, text, KeywordAutomaton.build(keywords));
+    }
+    
+    /**
+     * 用预构建的关键词自动机计算权重分数
+     * 
+     * 标题和内容各扫描一次即得到所有关键词的命中情况，除复用的计数数组外不分配内存；
+     * 重复的关键词按出现次数重复计分，与逐个关键词计算的结果一致
+     */
+    public static double calculateScore(String title, String text, KeywordAutomaton automaton) {
+        if (text == null || text.isEmpty() || automaton == null) {
+            return 0.0;
+        }
+        
+        int keywordCount = automaton.keywordCount();
+        int[] counts = COUNTS.get();
+        if (counts.length < keywordCount * 3) {
+            counts = new int[keywordCount * 3];
+            COUNTS.set(counts);
+        }
+        Arrays.fill(counts, 0, keywordCount * 2, 0);
+        
+        // counts[0, k) 标题命中数，counts[k, 2k) 内容出现次数，counts[2k, 3k) 扫描工作区
+        if (title != null && !title.isEmpty()) {
+            automaton.countOccurrences(title, counts, 0, counts, keywordCount * 2);
+        }
+        automaton.countOccurrences(text, counts, keywordCount, counts, keywordCount * 2);
+        
+        double score = 0.0;
+        for (int entry = 0; entry < automaton.entryCount(); entry++) {
+            int keyword = automaton.keywordOf(entry);
+            
+            // 标题匹配权重（标题中关键词权重更高）
+            if (counts[keyword] > 0) {
+                score += TITLE_WEIGHT;
+            }
+            
+            // 内容中关键词出现频率
+            int contentOccurrences = counts[keywordCount + keyword];
+            if (contentOccurrences > 0) {
+                // 基础匹配分数 + 频率奖励
+                score += CONTENT_WEIGHT + (contentOccurrences - 1) * FREQUENCY_FACTOR;
+            }
+        }
+        
+        // 对长内容稍微降权，避免冗长但相关性不高的内容排名过高
+        double lengthNormalization = 1.0 / (1.0 + Math.log(1 + text.length() / 500.0));
+        score *= lengthNormalization;
+        return score;
+    }
+}
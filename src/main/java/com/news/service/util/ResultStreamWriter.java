@@ -0,0 +1,99 @@
+package com.news.service.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 流式结果写出器
+ *
+ * 用Jackson的流式生成器把结果逐条直接序列化到输出流，不构造完整的响应对象。
+ * 第一条结果立即刷新，之后每 flushRows 条刷新一次，客户端可以边接收边显示。
+ */
+public class ResultStreamWriter implements Closeable {
+
+    private final StreamFormat format;
+    private final ObjectWriter objectWriter;
+    private final JsonGenerator generator;
+    private final int flushRows;
+    private long written;
+
+    public ResultStreamWriter(ObjectMapper objectMapper, StreamFormat format, OutputStream out, int flushRows)
+            throws IOException {
+        this.format = format;
+        this.flushRows = Math.max(1, flushRows);
+        // 由本类按 flushRows 控制刷新，不在每条结果后刷新
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 记录之间由换行或事件边界分隔，不使用默认的空格分隔符
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * 写出一条结果
+     */
+    public void writeResult(Object result) throws IOException {
+        beginRecord("result");
+        objectWriter.writeValue(generator, result);
+        endRecord();
+        written++;
+        if (written == 1 || written % flushRows == 0) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * 写出结束汇总并刷新
+     *
+     * @param count 结果数
+     */
+    public void writeDone(long count) throws IOException {
+        beginRecord("done");
+        generator.writeStartObject();
+        generator.writeBooleanField("done", true);
+        generator.writeNumberField("count", count);
+        generator.writeEndObject();
+        endRecord();
+        generator.flush();
+    }
+
+    /**
+     * 写出错误并刷新，已写出的结果仍然有效
+     */
+    public void writeError(String message) throws IOException {
+        beginRecord("error");
+        generator.writeStartObject();
+        generator.writeBooleanField("done", false);
+        generator.writeNumberField("count", written);
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        endRecord();
+        generator.flush();
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void beginRecord(String event) throws IOException {
+        if (format == StreamFormat.SSE) {
+            generator.writeRaw("event: " + event + "\ndata: ");
+        }
+    }
+
+    private void endRecord() throws IOException {
+        generator.writeRaw(format == StreamFormat.SSE ? "\n\n" : "\n");
+    }
+}
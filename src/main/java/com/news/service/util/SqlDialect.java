@@ -0,0 +1,235 @@
+package com.news.service.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL方言
+ *
+ * 根据JDBC URL识别数据库类型，生成对应的分页语句
+ */
+public enum SqlDialect {
+
+    MYSQL {
+        @Override
+        public String paginate(String sql) {
+            return sql + " LIMIT ? OFFSET ?";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(limit);
+            params.add(offset);
+        }
+    },
+
+    POSTGRESQL {
+        @Override
+        public String paginate(String sql) {
+            return sql + " LIMIT ? OFFSET ?";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(limit);
+            params.add(offset);
+        }
+    },
+
+    H2 {
+        @Override
+        public String paginate(String sql) {
+            return sql + " LIMIT ? OFFSET ?";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(limit);
+            params.add(offset);
+        }
+    },
+
+    /**
+     * Oracle使用ROWNUM包装，兼容12c之前不支持OFFSET/FETCH的版本（如XE 11g）
+     */
+    ORACLE {
+        @Override
+        public String paginate(String sql) {
+            return "SELECT * FROM (SELECT t__.*, ROWNUM rn__ FROM (" + sql + ") t__ WHERE ROWNUM <= ?) WHERE rn__ > ?";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(offset + limit);
+            params.add(offset);
+        }
+    },
+
+    /**
+     * SQL Server 2012+ 的OFFSET/FETCH语法，要求语句中带有ORDER BY
+     */
+    SQLSERVER {
+        @Override
+        public String paginate(String sql) {
+            return sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(offset);
+            params.add(limit);
+        }
+    },
+
+    /**
+     * 未识别的数据库使用SQL:2008标准语法
+     */
+    GENERIC {
+        @Override
+        public String paginate(String sql) {
+            return sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        }
+
+        @Override
+        public void addPageParams(List<Object> params, long offset, int limit) {
+            params.add(offset);
+            params.add(limit);
+        }
+    };
+
+    /**
+     * 为已带有ORDER BY的查询语句追加分页子句
+     *
+     * @param sql 原始查询语句
+     * @return 分页查询语句，分页参数通过 {@link #addPageParams} 追加
+     */
+    public abstract String paginate(String sql);
+
+    /**
+     * 按方言要求的顺序追加分页参数
+     *
+     * @param params 参数列表
+     * @param offset 跳过的记录数
+     * @param limit  返回的记录数
+     */
+    public abstract void addPageParams(List<Object> params, long offset, int limit);
+
+    /**
+     * 根据JDBC URL识别方言
+     *
+     * @param jdbcUrl JDBC连接地址
+     * @return 对应的方言，无法识别时返回GENERIC
+     */
+    public static SqlDialect fromUrl(String jdbcUrl) {
+        if (jdbcUrl == null) {
+            return GENERIC;
+        }
+        String url = jdbcUrl.toLowerCase();
+        if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            return MYSQL;
+        }
+        if (url.startsWith("jdbc:oracle:")) {
+            return ORACLE;
+        }
+        if (url.startsWith("jdbc:postgresql:")) {
+            return POSTGRESQL;
+        }
+        if (url.startsWith("jdbc:sqlserver:")) {
+            return SQLSERVER;
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return H2;
+        }
+        return GENERIC;
+    }
+
+    /**
+     * 是否支持 COUNT(*) OVER() 窗口函数，用于在分页查询中同时返回总数。
+     * MySQL需要8.0及以上版本，5.7需通过 app.search.window-count-enabled=false 关闭
+     */
+    public boolean supportsWindowCount() {
+        return this != GENERIC;
+    }
+
+    /**
+     * 按字符计算字符串长度的函数名，MySQL的LENGTH按字节计算，SQL Server使用LEN
+     */
+    public String lengthFunction() {
+        switch (this) {
+            case MYSQL:
+                return "CHAR_LENGTH";
+            case SQLSERVER:
+                return "LEN";
+            default:
+                return "LENGTH";
+        }
+    }
+
+    /**
+     * 开启驱动级预编译语句缓存的连接属性，同一连接上重复执行的查询不再重新解析
+     *
+     * @param cacheSize 每个连接缓存的语句数，不大于0时不开启
+     * @return 连接属性，方言没有对应的驱动属性时为空
+     */
+    public Map<String, String> statementCacheProperties(int cacheSize) {
+        if (cacheSize <= 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        String size = String.valueOf(cacheSize);
+        switch (this) {
+            case MYSQL:
+                properties.put("cachePrepStmts", "true");
+                properties.put("prepStmtCacheSize", size);
+                // 关键词较多时条件语句较长，默认的256字符上限会使其无法缓存
+                properties.put("prepStmtCacheSqlLimit", "4096");
+                properties.put("useServerPrepStmts", "true");
+                break;
+            case ORACLE:
+                properties.put("oracle.jdbc.implicitStatementCacheSize", size);
+                break;
+            case POSTGRESQL:
+                properties.put("preparedStatementCacheQueries", size);
+                break;
+            case SQLSERVER:
+                properties.put("disableStatementPooling", "false");
+                properties.put("statementPoolingCacheSize", size);
+                break;
+            default:
+                break;
+        }
+        return properties;
+    }
+
+    /**
+     * 只进游标使用的fetchSize。MySQL驱动只有在取 Integer.MIN_VALUE 时才逐行读取，否则会把整个结果集读入内存
+     *
+     * @param fetchSize 配置的每批行数
+     */
+    public int streamingFetchSize(int fetchSize) {
+        return this == MYSQL ? Integer.MIN_VALUE : Math.max(1, fetchSize);
+    }
+
+    /**
+     * 是否需要关闭自动提交才能按fetchSize分批读取，PostgreSQL驱动在自动提交模式下会读取全部结果
+     */
+    public boolean cursorRequiresTransaction() {
+        return this == POSTGRESQL;
+    }
+
+    /**
+     * 升序排序时NULL是否排在非NULL值之后：Oracle、PostgreSQL是，MySQL、SQL Server、H2排在之前
+     */
+    public boolean nullsSortHigh() {
+        return this == ORACLE || this == POSTGRESQL;
+    }
+
+    /**
+     * 是否支持 (a, b) > (?, ?) 形式的行值比较，游标分页定位时可直接用 (列, ID) 上的索引范围扫描
+     */
+    public boolean supportsRowValueComparison() {
+        return this == POSTGRESQL || this == MYSQL || this == H2;
+    }
+}
@@ -0,0 +1,51 @@
+package com.news.service.util;
+
+/**
+ * 流式结果的输出格式
+ */
+public enum StreamFormat {
+
+    /**
+     * 每行一个JSON对象，最后一行是汇总
+     */
+    NDJSON("application/x-ndjson"),
+
+    /**
+     * Server-Sent Events，每条结果一个 result 事件，最后是 done 或 error 事件，可直接用浏览器的EventSource接收
+     */
+    SSE("text/event-stream");
+
+    private final String mediaType;
+
+    StreamFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 按format参数或Accept请求头选择格式，format参数优先，都未指定时使用NDJSON
+     *
+     * @param format 格式参数（ndjson/sse），可为null
+     * @param accept Accept请求头，可为null
+     * @return 输出格式
+     * @throws IllegalArgumentException 格式参数无法识别
+     */
+    public static StreamFormat of(String format, String accept) {
+        if (format != null && !format.trim().isEmpty()) {
+            String name = format.trim();
+            for (StreamFormat value : values()) {
+                if (value.name().equalsIgnoreCase(name)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("不支持的输出格式: " + format);
+        }
+        if (accept != null && accept.contains(SSE.mediaType)) {
+            return SSE;
+        }
+        return NDJSON;
+    }
+}
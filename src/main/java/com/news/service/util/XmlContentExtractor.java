@@ -2,70 +2,452 @@ package com.news.service.util;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * XML内容提取工具类
  * 
- * 从 XML 文本中提取 Content 标签中的内容
+ * 从 XML 文本中提取 Content 标签中的内容。
+ * 使用StAX拉取解析，只收集 Content 标签内的文本，摘要长度用满后立即停止解析；
+ * 可以直接从JDBC的 Clob 字符流读取，不需要先把整个XML读成字符串；
+ * 需要把XML交给其他线程解析时，只读出足够生成摘要的前缀。
+ * XML格式错误时回退到正则表达式提取。
+ * 每行调用一次，只输出DEBUG日志且不输出XML原文，搜索中没有提取到内容的行数由搜索跟踪汇总。
  */
 @Slf4j
 @Component
 public class XmlContentExtractor {
     
+    /**
+     * 搜索结果摘要的最大长度
+     */
+    public static final int SNIPPET_LENGTH = 500;
+    
+    /**
+     * 未提取到内容时返回的提示文本
+     */
+    public static final String NO_CONTENT = "没有提取到内容";
+    
+    /**
+     * 解析失败时返回的提示文本
+     */
+    public static final String PARSE_FAILED = "解析内容失败";
+    
+    private static final String CONTENT_TAG = "Content";
+    
+    private static final Pattern CONTENT_PATTERN = Pattern.compile("<Content>(.*?)</Content>", Pattern.DOTALL);
+    
+    /**
+     * XMLInputFactory创建代价较高，每个线程复用一个实例
+     */
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+            ThreadLocal.withInitial(XmlContentExtractor::createInputFactory);
+    
     /**
      * 提取XML内容
      *
      * @param xml XML文本
-     * @return 提取的内容，如果提取失败则返回空字符串
+     * @return 第一个 Content 标签的内容，如果提取失败则返回提示文本
      */
     public String extract(String xml) {
         if (xml == null || xml.trim().isEmpty()) {
-            return "没有提取到内容";
+            return NO_CONTENT;
         }
         
         try {
-            // 使用DOM解析XML
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(xml)));
-            
-            // 查找 Content 标签
-            NodeList contentNodes = doc.getElementsByTagName("Content");
-            log.debug("找到 {} 个 Content 标签", contentNodes.getLength());
+            String content = streamContent(new StringReader(xml), 0, 1, false);
+            if (content != null) {
+                return content;
+            }
             
-            if (contentNodes.getLength() > 0) {
-                String content = contentNodes.item(0).getTextContent();
-                if (content != null && !content.trim().isEmpty()) {
-                    return content.trim();
+            // 如果Content标签为空，尝试使用正则表达式
+            Matcher matcher = CONTENT_PATTERN.matcher(xml);
+            if (matcher.find()) {
+                String matched = matcher.group(1).trim();
+                if (!matched.isEmpty()) {
+                    return matched;
                 }
             }
             
-            // 如果DOM解析失败，尝试使用正则表达式
-            Pattern pattern = Pattern.compile("<Content>(.*?)</Content>", Pattern.DOTALL);
-            Matcher matcher = pattern.matcher(xml);
+            log.debug("未找到内容，XML长度: {}", xml.length());
+            return NO_CONTENT;
             
-            if (matcher.find()) {
-                String content = matcher.group(1);
-                if (content != null && !content.trim().isEmpty()) {
-                    return content.trim();
+        } catch (Exception e) {
+            log.debug("提取XML内容失败: {}", e.getMessage());
+            return NO_CONTENT;
+        }
+    }
+    
+    /**
+     * 从XML中提取Content字段内容
+     * 
+     * 多个Content标签的内容以换行拼接
+     *
+     * @param xmlContent XML内容
+     * @param maxLength  最大长度，超出部分截断并追加省略号；小于等于0表示不截断
+     * @return 提取的Content内容，如果解析失败则返回提示信息
+     */
+    public String extractContent(String xmlContent, int maxLength) {
+        if (xmlContent == null || xmlContent.trim().isEmpty()) {
+            return NO_CONTENT;
+        }
+        
+        try {
+            String content = streamContent(new StringReader(xmlContent), maxLength, Integer.MAX_VALUE, false);
+            return content != null ? content : NO_CONTENT;
+        } catch (XMLStreamException e) {
+            log.debug("解析XML内容失败，改用正则表达式提取: {}", e.getMessage());
+            return extractByRegex(xmlContent, maxLength);
+        }
+    }
+    
+    /**
+     * 从CLOB中流式提取Content字段内容，解析失败时才读取完整文本做正则提取
+     *
+     * @param clob      XML内容
+     * @param maxLength 最大长度，小于等于0表示不截断
+     * @return 提取的Content内容，如果解析失败则返回提示信息
+     */
+    public String extractContent(Clob clob, int maxLength) throws SQLException {
+        if (clob == null || clob.length() == 0) {
+            return NO_CONTENT;
+        }
+        
+        try (Reader reader = clob.getCharacterStream()) {
+            String content = streamContent(reader, maxLength, Integer.MAX_VALUE, false);
+            return content != null ? content : NO_CONTENT;
+        } catch (XMLStreamException e) {
+            log.debug("解析XML内容失败，改用正则表达式提取: {}", e.getMessage());
+            return extractByRegex(clob.getSubString(1, (int) clob.length()), maxLength);
+        } catch (IOException e) {
+            throw new SQLException("读取XML内容失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 从结果集的列中提取Content字段内容
+     * 
+     * 驱动把列映射为 Clob 时（Oracle、H2 等的CLOB列）直接流式解析，映射为字符串时按字符串解析
+     *
+     * @param rs        结果集，当前行
+     * @param column    XML所在列名
+     * @param maxLength 最大长度，小于等于0表示不截断
+     * @return 提取的Content内容，如果解析失败则返回提示信息
+     */
+    public String extractContent(ResultSet rs, String column, int maxLength) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Clob) {
+            return extractContent((Clob) value, maxLength);
+        }
+        return extractContent(value != null ? value.toString() : null, maxLength);
+    }
+    
+    /**
+     * 从读出的XML前缀中提取Content字段内容
+     * 
+     * 前缀完整时与 {@link #extractContent(String, int)} 相同；被截断时解析到前缀末尾为止，
+     * 按已解析出的Content文本生成摘要（截断处未结束的一段文本不计入），不因文档不完整而报错
+     *
+     * @param xml       XML前缀，列为空时为null
+     * @param maxLength 最大长度，小于等于0表示不截断
+     * @return 提取的Content内容，如果解析失败则返回提示信息
+     */
+    public String extractContent(XmlPrefix xml, int maxLength) {
+        if (xml == null || !xml.isTruncated()) {
+            return extractContent(xml != null ? xml.getText() : null, maxLength);
+        }
+        
+        try {
+            String content = streamContent(new StringReader(xml.getText()), maxLength, Integer.MAX_VALUE, true);
+            return content != null ? content : NO_CONTENT;
+        } catch (XMLStreamException e) {
+            log.debug("解析XML内容失败，改用正则表达式提取: {}", e.getMessage());
+            return extractByRegex(xml.getText(), maxLength);
+        }
+    }
+    
+    /**
+     * 读取结果集列中XML文本的前缀，不解析
+     * 
+     * 用于在JDBC线程上只取原始列、解析交给其他线程的场景：CLOB在结果集前进后不一定仍可读取，
+     * 需要在当前行上读出。摘要只取前若干个字符的内容，因此只从字符流读取前 maxChars 个字符，
+     * 不把整个CLOB复制到内存。
+     *
+     * @param rs       结果集，当前行
+     * @param column   XML所在列名
+     * @param maxChars 最多读取的字符数，小于等于0表示读取完整文本
+     * @return XML前缀，列为空时返回null
+     */
+    public XmlPrefix readXmlPrefix(ResultSet rs, String column, int maxChars) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Clob) {
+            try (Reader reader = ((Clob) value).getCharacterStream()) {
+                return readPrefix(reader, maxChars > 0 ? maxChars : Integer.MAX_VALUE);
+            } catch (IOException e) {
+                throw new SQLException("读取XML内容失败: " + e.getMessage(), e);
+            }
+        }
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        return maxChars > 0 && text.length() > maxChars
+                ? new XmlPrefix(text.substring(0, maxChars), true)
+                : new XmlPrefix(text, false);
+    }
+    
+    private static XmlPrefix readPrefix(Reader reader, int maxChars) throws IOException {
+        StringBuilder builder = new StringBuilder(Math.min(maxChars, 8192));
+        char[] buffer = new char[8192];
+        int read;
+        while (builder.length() < maxChars
+                && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - builder.length()))) != -1) {
+            builder.append(buffer, 0, read);
+        }
+        boolean truncated = builder.length() >= maxChars && reader.read() != -1;
+        return new XmlPrefix(builder.toString(), truncated);
+    }
+    
+    /**
+     * 拉取解析XML，收集Content标签（含其子元素）中的文本
+     * 
+     * 每个Content的内容去掉首尾空白后以换行拼接，空Content跳过；
+     * 拼接结果已确定超过最大长度时停止解析，不再读取剩余的XML。
+     *
+     * @param reader      XML字符流
+     * @param maxLength   最大长度，小于等于0表示不截断
+     * @param maxElements 最多收集的非空Content个数
+     * @param truncated   输入是否为截断的前缀，是时读到末尾的解析错误视为文档结束
+     * @return 提取的内容，没有非空Content时返回null
+     */
+    private String streamContent(Reader reader, int maxLength, int maxElements, boolean truncated)
+            throws XMLStreamException {
+        XMLStreamReader xml = INPUT_FACTORY.get().createXMLStreamReader(reader);
+        try {
+            StringBuilder contentBuilder = new StringBuilder();
+            int elementStart = -1;
+            int depth = 0;
+            int nodesCount = 0;
+            int nonEmptyCount = 0;
+            
+            while (true) {
+                int event;
+                try {
+                    if (!xml.hasNext()) {
+                        break;
+                    }
+                    event = xml.next();
+                } catch (XMLStreamException e) {
+                    if (!truncated) {
+                        throw e;
+                    }
+                    // 前缀在元素中间截断，按已读到的部分结束当前Content
+                    if (depth > 0) {
+                        trimTrailing(contentBuilder, elementStart);
+                        if (contentBuilder.length() == elementStart) {
+                            contentBuilder.setLength(Math.max(0, elementStart - 1));
+                        }
+                    }
+                    break;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth > 0) {
+                        depth++;
+                    } else if (CONTENT_TAG.equals(xml.getLocalName())) {
+                        depth = 1;
+                        nodesCount++;
+                        if (contentBuilder.length() > 0) {
+                            contentBuilder.append('\n');
+                        }
+                        elementStart = contentBuilder.length();
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && depth > 0) {
+                    if (--depth == 0) {
+                        trimTrailing(contentBuilder, elementStart);
+                        if (contentBuilder.length() == elementStart) {
+                            // 空Content，撤销已追加的换行
+                            contentBuilder.setLength(Math.max(0, elementStart - 1));
+                        } else if (++nonEmptyCount >= maxElements) {
+                            break;
+                        }
+                    }
+                } else if (depth > 0 && isText(event)) {
+                    appendText(contentBuilder, elementStart, xml);
+                    if (maxLength > 0 && exceeds(contentBuilder, elementStart, maxLength)) {
+                        return truncate(contentBuilder.toString(), maxLength);
+                    }
                 }
             }
             
-            log.warn("未找到内容: {}", xml);
-            return "没有提取到内容";
+            if (nodesCount == 0) {
+                log.debug("XML中未找到 <Content> 标签");
+                return null;
+            }
+            if (contentBuilder.length() == 0) {
+                log.debug("所有 <Content> 元素都为空");
+                return null;
+            }
+            return truncate(contentBuilder.toString(), maxLength);
+        } finally {
+            xml.close();
+        }
+    }
+    
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE;
+    }
+    
+    /**
+     * 追加当前文本事件，Content开头的空白不追加
+     */
+    private static void appendText(StringBuilder builder, int elementStart, XMLStreamReader xml) {
+        char[] chars = xml.getTextCharacters();
+        int start = xml.getTextStart();
+        int end = start + xml.getTextLength();
+        if (builder.length() == elementStart) {
+            while (start < end && Character.isWhitespace(chars[start])) {
+                start++;
+            }
+        }
+        builder.append(chars, start, end - start);
+    }
+    
+    /**
+     * 忽略当前Content末尾的空白后，内容长度是否已超过最大长度。
+     * 后续文本只会追加在末尾，所以一旦超过，最终结果必然需要截断。
+     */
+    private static boolean exceeds(StringBuilder builder, int elementStart, int maxLength) {
+        if (builder.length() <= maxLength) {
+            return false;
+        }
+        int end = builder.length();
+        while (end > elementStart && Character.isWhitespace(builder.charAt(end - 1))) {
+            end--;
+        }
+        if (end > maxLength) {
+            builder.setLength(end);
+            return true;
+        }
+        return false;
+    }
+    
+    private static void trimTrailing(StringBuilder builder, int elementStart) {
+        int end = builder.length();
+        while (end > elementStart && Character.isWhitespace(builder.charAt(end - 1))) {
+            end--;
+        }
+        builder.setLength(end);
+    }
+    
+    /**
+     * XML格式错误时，直接用正则表达式匹配Content标签
+     */
+    private String extractByRegex(String xmlContent, int maxLength) {
+        try {
+            log.debug("尝试正则表达式提取Content标签内容");
+            Matcher matcher = CONTENT_PATTERN.matcher(xmlContent);
+            
+            StringBuilder directBuilder = new StringBuilder();
+            int count = 0;
+            int nonEmptyCount = 0;
             
-        } catch (Exception e) {
-            log.error("提取XML内容失败: {}", e.getMessage(), e);
-            return "没有提取到内容";
+            while (matcher.find()) {
+                count++;
+                String content = matcher.group(1).trim();
+                
+                if (!content.isEmpty()) {
+                    if (directBuilder.length() > 0) {
+                        directBuilder.append("\n");
+                    }
+                    directBuilder.append(content);
+                    nonEmptyCount++;
+                }
+            }
+            
+            if (count > 0) {
+                String result = directBuilder.toString();
+                log.debug("正则表达式匹配完成，有效内容标签数: {}/{}, 总长度: {}, 内容前50字符: {}", 
+                        nonEmptyCount, count, result.length(),
+                        result.length() > 50 ? result.substring(0, 50) + "..." : result);
+                
+                return result.isEmpty() ? NO_CONTENT : truncate(result, maxLength);
+            }
+        } catch (Exception ex) {
+            log.debug("正则表达式提取失败: {}", ex.getMessage());
+        }
+        
+        return PARSE_FAILED;
+    }
+    
+    /**
+     * 创建不解析DTD和外部实体的非命名空间感知工厂，与原DOM解析按标签名匹配的行为一致
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+    
+    /**
+     * 从列中读出的XML文本，可能只是前缀
+     */
+    public static final class XmlPrefix {
+        
+        private final String text;
+        private final boolean truncated;
+        
+        public XmlPrefix(String text, boolean truncated) {
+            this.text = text;
+            this.truncated = truncated;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        /**
+         * 原文是否比读出的文本更长
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+    
+    /**
+     * 判断提取结果是否为提示文本而非真实内容
+     */
+    public static boolean isPlaceholder(String content) {
+        return NO_CONTENT.equals(content) || PARSE_FAILED.equals(content);
+    }
+    
+    /**
+     * 截断文本，超出部分追加省略号
+     *
+     * @param text      文本
+     * @param maxLength 最大长度，小于等于0表示不截断
+     * @return 截断后的文本
+     */
+    public static String truncate(String text, int maxLength) {
+        if (maxLength > 0 && text.length() > maxLength) {
+            return text.substring(0, maxLength) + "...";
         }
+        return text;
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.news.service.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 各方言由语法树生成的WHERE条件、相关度表达式和绑定参数
+ */
+class FullTextDialectTest {
+
+    private static final String LIKE_A = "(UPPER(b.NAME) LIKE UPPER(?) OR UPPER(p.FIELD1079) LIKE UPPER(?))";
+
+    @Test
+    void likeMatchesTitleOrContent() {
+        SqlCondition condition = FullTextDialect.LIKE.condition(QueryNode.keyword("A"), false);
+
+        assertEquals(LIKE_A, condition.getSql());
+        assertEquals(Arrays.asList("%a%", "%a%"), condition.getParams());
+        assertNull(FullTextDialect.LIKE.rank(QueryNode.keyword("a"), false));
+    }
+
+    @Test
+    void topLevelAndIsNotParenthesized() {
+        SqlCondition condition = FullTextDialect.LIKE.condition(QueryCompiler.parse("a b"), false);
+
+        assertEquals(LIKE_A + " AND " + LIKE_A, condition.getSql());
+        assertEquals(Arrays.asList("%a%", "%a%", "%b%", "%b%"), condition.getParams());
+    }
+
+    @Test
+    void nestedOrIsParenthesizedInsideAnd() {
+        // 规范化后 AND 的子节点为 "c" 和 OR("a", "b")
+        SqlCondition condition = FullTextDialect.LIKE.condition(QueryCompiler.parse("b OR a, c"), false);
+
+        assertEquals(LIKE_A + " AND (" + LIKE_A + " OR " + LIKE_A + ")", condition.getSql());
+        assertEquals(Arrays.asList("%c%", "%c%", "%a%", "%a%", "%b%", "%b%"), condition.getParams());
+    }
+
+    @Test
+    void nestedAndIsParenthesizedInsideOr() {
+        // 规范化后 OR 的子节点为 "c" 和 AND("a", "b")
+        SqlCondition condition = FullTextDialect.LIKE.condition(QueryCompiler.parse("a b OR c"), false);
+
+        assertEquals("(" + LIKE_A + " OR (" + LIKE_A + " AND " + LIKE_A + "))", condition.getSql());
+        assertEquals(Arrays.asList("%c%", "%c%", "%a%", "%a%", "%b%", "%b%"), condition.getParams());
+    }
+
+    @Test
+    void ilikeUsesPlainColumns() {
+        SqlCondition condition = FullTextDialect.ILIKE.condition(QueryNode.keyword("it's"), false);
+
+        assertEquals("(b.NAME ILIKE ? OR p.FIELD1079 ILIKE ?)", condition.getSql());
+        assertEquals(Arrays.asList("%it's%", "%it's%"), condition.getParams());
+    }
+
+    @Test
+    void oracleEscapesClosingBraceAndNumbersLabels() {
+        QueryNode root = QueryNode.and(Arrays.asList(QueryNode.keyword("a}b"), QueryNode.keyword("c")));
+
+        SqlCondition condition = FullTextDialect.ORACLE_TEXT.condition(root, true);
+        assertEquals("(CONTAINS(b.NAME, ?, 1) > 0 OR CONTAINS(p.FIELD1079, ?, 2) > 0)"
+                + " AND (CONTAINS(b.NAME, ?, 3) > 0 OR CONTAINS(p.FIELD1079, ?, 4) > 0)", condition.getSql());
+        assertEquals(Arrays.asList("{a}}b}", "{a}}b}", "{c}", "{c}"), condition.getParams());
+
+        SqlCondition rank = FullTextDialect.ORACLE_TEXT.rank(root, true);
+        assertEquals("(SCORE(1) + SCORE(2) + SCORE(3) + SCORE(4))", rank.getSql());
+        assertEquals(Collections.emptyList(), rank.getParams());
+    }
+
+    @Test
+    void oracleFallsBackToLikeForUnindexedTitle() {
+        QueryNode root = QueryCompiler.parse("a OR b");
+
+        SqlCondition condition = FullTextDialect.ORACLE_TEXT.condition(root, false);
+        assertEquals("((UPPER(b.NAME) LIKE UPPER(?) OR CONTAINS(p.FIELD1079, ?, 1) > 0)"
+                + " OR (UPPER(b.NAME) LIKE UPPER(?) OR CONTAINS(p.FIELD1079, ?, 2) > 0))", condition.getSql());
+        assertEquals(Arrays.asList("%a%", "{a}", "%b%", "{b}"), condition.getParams());
+
+        // 相关度只引用内容列上的标签
+        assertEquals("(SCORE(1) + SCORE(2))", FullTextDialect.ORACLE_TEXT.rank(root, false).getSql());
+    }
+
+    @Test
+    void mysqlQuotesPhraseAndDropsDoubleQuotes() {
+        QueryNode root = QueryNode.keyword("say \"hi\" 'x'");
+
+        SqlCondition condition = FullTextDialect.MYSQL_FULLTEXT.condition(root, true);
+        assertEquals("(MATCH(b.NAME) AGAINST(? IN BOOLEAN MODE) OR MATCH(p.FIELD1079) AGAINST(? IN BOOLEAN MODE))",
+                condition.getSql());
+        assertEquals(Arrays.asList("\"say  hi  'x'\"", "\"say  hi  'x'\""), condition.getParams());
+
+        SqlCondition rank = FullTextDialect.MYSQL_FULLTEXT.rank(root, true);
+        assertEquals("(MATCH(b.NAME) AGAINST(? IN BOOLEAN MODE) + MATCH(p.FIELD1079) AGAINST(? IN BOOLEAN MODE))",
+                rank.getSql());
+        assertEquals(condition.getParams(), rank.getParams());
+    }
+
+    @Test
+    void postgresqlUsesIlikeForUnindexedTitle() {
+        QueryNode root = QueryNode.keyword("o'brien");
+
+        SqlCondition condition = FullTextDialect.POSTGRESQL_TSQUERY.condition(root, false);
+        assertEquals("(b.NAME ILIKE ? OR to_tsvector('simple', p.FIELD1079) @@ phraseto_tsquery('simple', ?))",
+                condition.getSql());
+        assertEquals(Arrays.asList("%o'brien%", "o'brien"), condition.getParams());
+
+        SqlCondition rank = FullTextDialect.POSTGRESQL_TSQUERY.rank(root, false);
+        assertEquals("(ts_rank(to_tsvector('simple', p.FIELD1079), phraseto_tsquery('simple', ?)))", rank.getSql());
+        assertEquals(Collections.singletonList("o'brien"), rank.getParams());
+    }
+
+    @Test
+    void sqlServerDoublesQuotesAndHasNoRank() {
+        QueryNode root = QueryNode.keyword("a\"b");
+
+        SqlCondition condition = FullTextDialect.SQLSERVER_CONTAINS.condition(root, true);
+        assertEquals("(CONTAINS(b.NAME, ?) OR CONTAINS(p.FIELD1079, ?))", condition.getSql());
+        assertEquals(Arrays.asList("\"a\"\"b\"", "\"a\"\"b\""), condition.getParams());
+        assertNull(FullTextDialect.SQLSERVER_CONTAINS.rank(root, true));
+    }
+
+    @Test
+    void keywordsNeverAppearInSql() {
+        QueryNode root = QueryCompiler.parse("x'); DROP TABLE t; -- OR }\"'");
+        for (FullTextDialect dialect : FullTextDialect.values()) {
+            for (boolean nameIndexed : new boolean[]{false, true}) {
+                String sql = dialect.condition(root, nameIndexed).getSql();
+                assertFalse(sql.contains("DROP") || sql.contains("drop"), dialect + ": " + sql);
+                assertFalse(sql.contains("}"), dialect + ": " + sql);
+            }
+        }
+    }
+}
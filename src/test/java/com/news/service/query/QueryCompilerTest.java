@@ -0,0 +1,33 @@
+package com.news.service.query;
+
+import com.news.service.config.SearchProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 编译结果记录的逗号分组数，语法树展开合并后不再能还原
+ */
+class QueryCompilerTest {
+
+    private final QueryCompiler compiler = new QueryCompiler(new SearchProperties());
+
+    @Test
+    void countsCommaGroups() {
+        assertEquals(1, compiler.compile("a").getGroups());
+        assertEquals(1, compiler.compile("a b").getGroups());
+        assertEquals(1, compiler.compile("a OR b").getGroups());
+        assertEquals(2, compiler.compile("a OR b, c").getGroups());
+        assertEquals(3, compiler.compile("a, b, c d").getGroups());
+        // 空分组不计入
+        assertEquals(2, compiler.compile("a, , b,").getGroups());
+    }
+
+    @Test
+    void emptyQueryHasNoGroups() {
+        assertTrue(compiler.compile(" , ").isEmpty());
+        assertEquals(0, compiler.compile(" , ").getGroups());
+        assertEquals(0, compiler.compile(null).getGroups());
+    }
+}
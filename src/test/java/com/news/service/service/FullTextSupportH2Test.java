@@ -0,0 +1,74 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import com.news.service.query.FullTextDialect;
+import com.news.service.query.QueryCompiler;
+import com.news.service.query.SqlCondition;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 在H2的MySQL/PostgreSQL兼容模式下执行LIKE类方言生成的条件，标题或内容任一命中即匹配
+ */
+class FullTextSupportH2Test {
+
+    @ParameterizedTest
+    @CsvSource({"MySQL, auto, LIKE", "PostgreSQL, auto, LIKE", "PostgreSQL, ilike, ILIKE", "MySQL, unknown, LIKE"})
+    void likeFallbackMatchesTitleOrContent(String mode, String configured, FullTextDialect expected) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=" + mode + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        try {
+            createCorpus(jdbcTemplate);
+
+            AppConfig appConfig = new AppConfig();
+            appConfig.setUrl(url);
+            SearchProperties searchProperties = new SearchProperties();
+            searchProperties.getFullText().setDialect(configured);
+            FullTextSupport support = new FullTextSupport(jdbcTemplate, appConfig, searchProperties);
+            QueryCompiler compiler = new QueryCompiler(searchProperties);
+
+            assertEquals(expected, support.dialect());
+            // 只有标题命中的文章同样返回
+            assertEquals(Arrays.asList(1L, 2L), matches(jdbcTemplate, support, compiler, "经济"));
+            assertEquals(Arrays.asList(1L), matches(jdbcTemplate, support, compiler, "经济 政策"));
+            assertEquals(Arrays.asList(2L, 3L), matches(jdbcTemplate, support, compiler, "体育 OR WEATHER"));
+            assertEquals(Arrays.asList(2L, 4L), matches(jdbcTemplate, support, compiler, "体育 OR it's, 新闻"));
+            assertEquals(Arrays.asList(4L), matches(jdbcTemplate, support, compiler, "it's"));
+            assertEquals(Collections.emptyList(), matches(jdbcTemplate, support, compiler, "不存在"));
+        } finally {
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    private static void createCorpus(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE com_basicinfo (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), CREATED TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE cob_program (objectid BIGINT PRIMARY KEY, FIELD1079 CLOB)");
+        insert(jdbcTemplate, 1, "经济政策解读", "<doc><p>其他内容</p></doc>");
+        insert(jdbcTemplate, 2, "体育新闻", "<doc><p>经济增长</p></doc>");
+        insert(jdbcTemplate, 3, "Weather report", "<doc><p>晴</p></doc>");
+        insert(jdbcTemplate, 4, "社会新闻", "<doc><p>it's raining</p></doc>");
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long id, String name, String content) {
+        jdbcTemplate.update("INSERT INTO com_basicinfo (ID, NAME, CREATED) VALUES (?, ?, CURRENT_TIMESTAMP)", id, name);
+        jdbcTemplate.update("INSERT INTO cob_program (objectid, FIELD1079) VALUES (?, ?)", id, content);
+    }
+
+    private static List<Long> matches(JdbcTemplate jdbcTemplate, FullTextSupport support, QueryCompiler compiler,
+                                      String keywords) {
+        SqlCondition where = support.condition(compiler.compile(keywords));
+        String sql = "SELECT b.ID FROM cob_program p JOIN com_basicinfo b ON p.objectid = b.id WHERE "
+                + where.getSql() + " ORDER BY b.ID";
+        return jdbcTemplate.queryForList(sql, Long.class, where.getParams().toArray());
+    }
+}
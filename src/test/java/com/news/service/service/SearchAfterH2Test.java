@@ -0,0 +1,176 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchRequest;
+import com.news.service.model.SearchResult;
+import com.news.service.query.QueryCompiler;
+import com.news.service.util.XmlContentExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在H2上逐页游标分页：排序键有NULL和重复值时，各页依次拼接后每条匹配结果恰好出现一次，顺序与一次取出全部结果相同
+ */
+class SearchAfterH2Test {
+
+    private static final int DOC_COUNT = 24;
+
+    private static final String[] NAMES = {"新闻甲", "新闻乙", null, "新闻甲", null, "新闻丙"};
+
+    private static final Timestamp[] CREATED = {
+            Timestamp.valueOf("2026-01-01 10:00:00"), null, Timestamp.valueOf("2026-01-02 10:00:00.123456"),
+            Timestamp.valueOf("2026-01-01 10:00:00"), null, Timestamp.valueOf("2026-01-03 10:00:00")};
+
+    private static final int[] PAGE_SIZES = {1, 2, 3, 5, 7, DOC_COUNT};
+
+    @ParameterizedTest
+    @CsvSource({"NAME, asc", "NAME, desc", "CREATED, asc", "CREATED, desc"})
+    void seekPagesMatchDatabaseOrder(String sortField, String direction) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        ParallelRowProcessor rowProcessor = new ParallelRowProcessor(new SearchProperties());
+        try {
+            createCorpus(jdbcTemplate);
+            SearchServiceImpl searchService = searchService(jdbcTemplate, url, rowProcessor);
+
+            // 与游标分页的 ORDER BY 列, b.ID 相同，NULL的位置按数据库的排序规则
+            List<String> expected = jdbcTemplate.queryForList("SELECT CAST(ID AS VARCHAR) FROM com_basicinfo ORDER BY "
+                    + sortField + " " + direction + ", ID " + direction, String.class);
+            assertEquals(DOC_COUNT, expected.size());
+
+            for (int size : PAGE_SIZES) {
+                assertEquals(expected, ids(pageThrough(searchService, sortField, direction, size)),
+                        sortField + " " + direction + ", size=" + size);
+            }
+        } finally {
+            rowProcessor.shutdown();
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"asc", "desc"})
+    void scorePagesFollowSearchAfterOrder(String direction) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        ParallelRowProcessor rowProcessor = new ParallelRowProcessor(new SearchProperties());
+        try {
+            createCorpus(jdbcTemplate);
+            SearchServiceImpl searchService = searchService(jdbcTemplate, url, rowProcessor);
+            boolean asc = "asc".equals(direction);
+
+            List<SearchResult> all = pageThrough(searchService, SearchAfter.SCORE, direction, DOC_COUNT);
+            assertEquals(DOC_COUNT, all.size());
+            // 分数重复的结果按ID排列，整体为 SearchAfter.order 的全序
+            Comparator<SearchCandidate> order = SearchAfter.order(SearchAfter.SCORE, asc);
+            for (int i = 1; i < all.size(); i++) {
+                assertTrue(order.compare(candidate(all.get(i - 1)), candidate(all.get(i))) < 0,
+                        all.get(i - 1).getId() + " / " + all.get(i).getId());
+            }
+            assertTrue(all.get(0).getScore() != all.get(all.size() - 1).getScore());
+
+            for (int size : PAGE_SIZES) {
+                assertEquals(ids(all), ids(pageThrough(searchService, SearchAfter.SCORE, direction, size)),
+                        "SCORE " + direction + ", size=" + size);
+            }
+        } finally {
+            rowProcessor.shutdown();
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    /**
+     * 从第一页开始按令牌逐页取完，断言没有重复的结果
+     */
+    private static List<SearchResult> pageThrough(SearchServiceImpl searchService, String sortField,
+                                                  String direction, int size) {
+        List<SearchResult> results = new ArrayList<>();
+        String token = "";
+        for (int page = 0; token != null; page++) {
+            assertTrue(page <= DOC_COUNT, "分页没有结束");
+            SearchRequest request = new SearchRequest();
+            request.setKeywords("新闻");
+            request.setRanking("classic");
+            request.setSortField(sortField);
+            request.setSortDirection(direction);
+            request.setSize(size);
+            request.setSearchAfter(token);
+            PageResult<SearchResult> result = searchService.search(request);
+            assertEquals(DOC_COUNT, result.getTotalElements());
+            results.addAll(result.getContent());
+            token = result.getSearchAfter();
+        }
+        assertEquals(results.size(), new HashSet<>(ids(results)).size(), "结果重复");
+        return results;
+    }
+
+    private static SearchServiceImpl searchService(JdbcTemplate jdbcTemplate, String url,
+                                                   ParallelRowProcessor rowProcessor) {
+        AppConfig appConfig = new AppConfig();
+        appConfig.setEnabled(true);
+        appConfig.setUrl(url);
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getCache().setEnabled(false);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        XmlContentExtractor xmlContentExtractor = new XmlContentExtractor();
+        QueryCompiler queryCompiler = new QueryCompiler(searchProperties);
+        FullTextSupport fullTextSupport = new FullTextSupport(jdbcTemplate, appConfig, searchProperties);
+        CorpusStatisticsService corpusStatisticsService = new CorpusStatisticsService(appConfig, searchProperties,
+                xmlContentExtractor, queryCompiler, fullTextSupport);
+        corpusStatisticsService.setJdbcTemplate(jdbcTemplate);
+        SearchServiceImpl searchService = new SearchServiceImpl(appConfig, searchProperties, xmlContentExtractor,
+                new SearchResultCache(searchProperties, meterRegistry), queryCompiler, corpusStatisticsService,
+                rowProcessor, new CursorQuery(jdbcTemplate, appConfig, searchProperties),
+                new SearchMetrics(meterRegistry, new SearchTraceLogger(searchProperties),
+                        new SlowQueryLog(searchProperties)), fullTextSupport);
+        searchService.setJdbcTemplate(jdbcTemplate);
+        return searchService;
+    }
+
+    /**
+     * 名称、创建时间和内容按周期重复，且有NULL；只有内容决定分数，分数也成组重复
+     */
+    private static void createCorpus(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE com_basicinfo (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), CREATED TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE cob_program (objectid BIGINT PRIMARY KEY, FIELD1079 CLOB)");
+        for (int id = 1; id <= DOC_COUNT; id++) {
+            jdbcTemplate.update("INSERT INTO com_basicinfo (ID, NAME, CREATED) VALUES (?, ?, ?)",
+                    id, NAMES[id % NAMES.length], CREATED[id % CREATED.length]);
+            String content = id % 3 == 0 ? "今日新闻，新闻联播" : "今日新闻";
+            jdbcTemplate.update("INSERT INTO cob_program (objectid, FIELD1079) VALUES (?, ?)",
+                    id, "<doc><Content>" + content + "</Content></doc>");
+        }
+    }
+
+    private static SearchCandidate candidate(SearchResult result) {
+        SearchCandidate candidate = new SearchCandidate(result.getId(), result.getId(), result.getName(),
+                result.getCreated());
+        candidate.setScore(result.getScore());
+        return candidate;
+    }
+
+    private static List<String> ids(List<SearchResult> results) {
+        List<String> ids = new ArrayList<>();
+        for (SearchResult result : results) {
+            ids.add(result.getId());
+        }
+        return ids;
+    }
+}
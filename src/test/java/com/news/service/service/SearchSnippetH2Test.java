@@ -0,0 +1,141 @@
+package com.news.service.service;
+
+import com.news.service.config.AppConfig;
+import com.news.service.config.SearchProperties;
+import com.news.service.model.PageResult;
+import com.news.service.model.SearchRequest;
+import com.news.service.model.SearchResult;
+import com.news.service.query.QueryCompiler;
+import com.news.service.util.XmlContentExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 逐行处理和并行处理按同一个XML前缀长度生成摘要和分数，结果与结果集大小无关
+ */
+class SearchSnippetH2Test {
+
+    private static final int PREFIX_CHARS = 200;
+
+    private static final String PADDING = repeat("x", 300);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void serialAndParallelRowsUseTheSamePrefix(boolean twoPhase) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        try {
+            createCorpus(jdbcTemplate);
+
+            PageResult<SearchResult> serial = search(jdbcTemplate, url, twoPhase, false);
+            PageResult<SearchResult> parallel = search(jdbcTemplate, url, twoPhase, true);
+
+            assertEquals(23, serial.getTotalElements());
+            assertEquals(contents(serial), contents(parallel));
+            assertEquals(scores(serial), scores(parallel));
+
+            Map<String, String> contents = contents(serial);
+            assertEquals("开头的内容", contents.get("101"));
+            // Content 在前缀之后开始，无论走哪条路径都取不到
+            assertEquals(XmlContentExtractor.NO_CONTENT, contents.get("102"));
+            assertNotEquals(repeat("段落", 200), contents.get("103"));
+        } finally {
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    private static PageResult<SearchResult> search(JdbcTemplate jdbcTemplate, String url, boolean twoPhase,
+                                                   boolean parallel) {
+        AppConfig appConfig = new AppConfig();
+        appConfig.setEnabled(true);
+        appConfig.setUrl(url);
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.setTwoPhaseEnabled(twoPhase);
+        searchProperties.getCache().setEnabled(false);
+        searchProperties.getParallel().setEnabled(parallel);
+        searchProperties.getParallel().setThresholdRows(1);
+        searchProperties.getParallel().setBatchSize(2);
+        searchProperties.getParallel().setXmlPrefixChars(PREFIX_CHARS);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        XmlContentExtractor xmlContentExtractor = new XmlContentExtractor();
+        QueryCompiler queryCompiler = new QueryCompiler(searchProperties);
+        FullTextSupport fullTextSupport = new FullTextSupport(jdbcTemplate, appConfig, searchProperties);
+        CorpusStatisticsService corpusStatisticsService = new CorpusStatisticsService(appConfig, searchProperties,
+                xmlContentExtractor, queryCompiler, fullTextSupport);
+        corpusStatisticsService.setJdbcTemplate(jdbcTemplate);
+        ParallelRowProcessor rowProcessor = new ParallelRowProcessor(searchProperties);
+        try {
+            SearchServiceImpl searchService = new SearchServiceImpl(appConfig, searchProperties, xmlContentExtractor,
+                    new SearchResultCache(searchProperties, meterRegistry), queryCompiler, corpusStatisticsService,
+                    rowProcessor, new CursorQuery(jdbcTemplate, appConfig, searchProperties),
+                    new SearchMetrics(meterRegistry, new SearchTraceLogger(searchProperties),
+                            new SlowQueryLog(searchProperties)), fullTextSupport);
+            searchService.setJdbcTemplate(jdbcTemplate);
+
+            SearchRequest request = new SearchRequest();
+            request.setKeywords("新闻");
+            request.setPage(0);
+            request.setSize(50);
+            return searchService.search(request);
+        } finally {
+            rowProcessor.shutdown();
+        }
+    }
+
+    /**
+     * 前20行只有短内容，待比较的文档排在后面，并行处理时由工作线程解析
+     */
+    private static void createCorpus(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE com_basicinfo (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), CREATED TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE cob_program (objectid BIGINT PRIMARY KEY, FIELD1079 CLOB)");
+        for (int id = 1; id <= 20; id++) {
+            insert(jdbcTemplate, id, "<doc><Content>普通内容" + id + "</Content></doc>");
+        }
+        insert(jdbcTemplate, 101, "<doc><Content>开头的内容</Content><Meta>" + PADDING + "</Meta></doc>");
+        insert(jdbcTemplate, 102, "<doc><Meta>" + PADDING + "</Meta><Content>靠后的内容</Content></doc>");
+        insert(jdbcTemplate, 103, "<doc><Meta>" + repeat("x", 100) + "</Meta><Content>"
+                + repeat("段落", 200) + "</Content></doc>");
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long id, String xml) {
+        jdbcTemplate.update("INSERT INTO com_basicinfo (ID, NAME, CREATED) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                id, "新闻" + id);
+        jdbcTemplate.update("INSERT INTO cob_program (objectid, FIELD1079) VALUES (?, ?)", id, xml);
+    }
+
+    private static Map<String, String> contents(PageResult<SearchResult> page) {
+        Map<String, String> contents = new TreeMap<>();
+        for (SearchResult result : page.getContent()) {
+            contents.put(result.getId(), result.getContent());
+        }
+        return contents;
+    }
+
+    private static Map<String, Double> scores(PageResult<SearchResult> page) {
+        Map<String, Double> scores = new TreeMap<>();
+        for (SearchResult result : page.getContent()) {
+            scores.put(result.getId(), result.getScore());
+        }
+        return scores;
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
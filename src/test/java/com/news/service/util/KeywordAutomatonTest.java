@@ -0,0 +1,98 @@
+package com.news.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 自动机高亮与原正则高亮（按长度降序的关键词交替，不区分大小写）的等价性
+ */
+class KeywordAutomatonTest {
+
+    /**
+     * 小写后长度不变、且 Character.toLowerCase 与正则的大小写折叠一致的字符
+     */
+    private static final String ALPHABET = "aAbBcCéÉ经济政策 ";
+
+    @Test
+    void highlightsLeftmostLongestMatch() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(Arrays.asList("经济", "经济政策", "ab"));
+
+        assertEquals("<span class=\"highlight\">经济政策</span>与<span class=\"highlight\">经济</span>，"
+                + "<span class=\"highlight\">AB</span>c", automaton.highlight("经济政策与经济，ABc"));
+    }
+
+    @Test
+    void insertedTagsAreNotRescanned() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(Arrays.asList("span", "highlight", "a"));
+
+        assertEquals(regexHighlight("a span", Arrays.asList("span", "highlight", "a")), automaton.highlight("a span"));
+    }
+
+    @Test
+    void ignoresEmptyKeywords() {
+        assertNull(KeywordAutomaton.build(Arrays.asList("", null)));
+    }
+
+    @Test
+    void matchesRegexHighlighterOnRandomInput() {
+        Random random = new Random(20261018L);
+        for (int round = 0; round < 20000; round++) {
+            List<String> keywords = new ArrayList<>();
+            int keywordCount = 1 + random.nextInt(4);
+            for (int i = 0; i < keywordCount; i++) {
+                keywords.add(randomText(random, 1 + random.nextInt(3)));
+            }
+            String text = randomText(random, random.nextInt(60));
+
+            KeywordAutomaton automaton = KeywordHighlighter.compile(keywords);
+            String actual = KeywordHighlighter.highlight(text, automaton);
+            assertEquals(regexHighlight(text, keywords), actual, "keywords=" + keywords + ", text=" + text);
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 原 KeywordHighlighter 的正则实现：关键词去重后按长度降序组成交替，一次 appendReplacement 扫描
+     */
+    private static String regexHighlight(String text, List<String> keywords) {
+        List<String> sortedKeywords = new ArrayList<>(new LinkedHashSet<>(keywords));
+        sortedKeywords.removeIf(keyword -> keyword == null || keyword.isEmpty());
+        if (text == null || text.isEmpty() || sortedKeywords.isEmpty()) {
+            return text;
+        }
+        sortedKeywords.sort((a, b) -> Integer.compare(b.length(), a.length()));
+
+        StringBuilder regex = new StringBuilder();
+        for (String keyword : sortedKeywords) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append(Pattern.quote(keyword));
+        }
+        Matcher matcher = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                .matcher(text);
+        StringBuffer result = new StringBuffer(text.length() + 64);
+        while (matcher.find()) {
+            matcher.appendReplacement(result, "<span class=\"highlight\">$0</span>");
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}
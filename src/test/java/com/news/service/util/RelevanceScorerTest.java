@@ -0,0 +1,110 @@
+package com.news.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 自动机评分与原逐个关键词 indexOf 计数的评分公式的等价性
+ */
+class RelevanceScorerTest {
+
+    private static final String ALPHABET = "aAbBcCéÉ经济政策 ";
+
+    @Test
+    void countsNonOverlappingOccurrences() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(Arrays.asList("aa", "a", "AA"));
+        int[] counts = new int[automaton.keywordCount()];
+        int[] scratch = new int[automaton.keywordCount()];
+
+        automaton.countOccurrences("aAaaa", counts, 0, scratch, 0);
+
+        for (int keyword = 0; keyword < automaton.keywordCount(); keyword++) {
+            String text = automaton.keyword(keyword);
+            assertEquals(indexOfCount("aaaaa", text), counts[keyword], text);
+        }
+    }
+
+    @Test
+    void duplicateKeywordsScoreTwice() {
+        double once = RelevanceScorer.calculateScore("经济", "经济 经济", Arrays.asList("经济"));
+        double twice = RelevanceScorer.calculateScore("经济", "经济 经济", Arrays.asList("经济", "经济"));
+
+        assertEquals(2 * once, twice, 1e-12);
+        assertEquals(indexOfScore("经济", "经济 经济", Arrays.asList("经济", "经济")), twice, 1e-12);
+    }
+
+    @Test
+    void matchesIndexOfScoringOnRandomInput() {
+        Random random = new Random(20261018L);
+        for (int round = 0; round < 20000; round++) {
+            List<String> keywords = new ArrayList<>();
+            int keywordCount = 1 + random.nextInt(4);
+            for (int i = 0; i < keywordCount; i++) {
+                // 偶尔加入空关键词和重复关键词
+                int kind = random.nextInt(10);
+                keywords.add(kind == 0 ? "" : kind == 1 && i > 0 ? keywords.get(0)
+                        : randomText(random, 1 + random.nextInt(3)));
+            }
+            String title = random.nextInt(5) == 0 ? null : randomText(random, random.nextInt(12));
+            String text = randomText(random, random.nextInt(600));
+
+            double expected = indexOfScore(title, text, keywords);
+            double actual = RelevanceScorer.classic(KeywordAutomaton.build(keywords)).score(title, text);
+            assertEquals(expected, actual, 1e-12, "keywords=" + keywords + ", title=" + title + ", text=" + text);
+            assertEquals(expected, RelevanceScorer.calculateScore(title, text, keywords), 1e-12);
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 原 RelevanceScorer 的实现：标题和内容小写后逐个关键词 contains / indexOf 计数
+     */
+    private static double indexOfScore(String title, String text, List<String> keywords) {
+        if (text == null || text.isEmpty() || keywords.isEmpty()) {
+            return 0.0;
+        }
+        String content = text.toLowerCase();
+        String name = title != null ? title.toLowerCase() : "";
+
+        double score = 0.0;
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            keyword = keyword.toLowerCase();
+            if (name.contains(keyword)) {
+                score += 3.0;
+            }
+            int contentOccurrences = indexOfCount(content, keyword);
+            if (contentOccurrences > 0) {
+                score += 1.0 + (contentOccurrences - 1) * 0.5;
+            }
+        }
+        return score / (1.0 + Math.log(1 + content.length() / 500.0));
+    }
+
+    private static int indexOfCount(String text, String keyword) {
+        String lowerText = text.toLowerCase();
+        String lowerKeyword = keyword.toLowerCase();
+        int count = 0;
+        int index = 0;
+        while ((index = lowerText.indexOf(lowerKeyword, index)) != -1) {
+            count++;
+            index += lowerKeyword.length();
+        }
+        return count;
+    }
+}